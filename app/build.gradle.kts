@@ -29,10 +29,23 @@ android {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+    androidResources {
+        // Opening books are memory-mapped in place, which needs them uncompressed
+        noCompress += "bin"
+    }
+    sourceSets["main"].assets.srcDir(layout.buildDirectory.dir("generated/tablebase"))
+}
+
+// The 4x4 endgame tablebase asset is generated, not checked in
+tasks.named("preBuild") {
+    dependsOn(":engine:generateTablebase")
 }
 
 dependencies {
 
+    // Game rules and AI (pure Java)
+    implementation(project(":engine"))
+
     implementation(libs.appcompat)
     implementation(libs.material)
     implementation(libs.activity)
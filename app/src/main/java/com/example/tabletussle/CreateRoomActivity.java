@@ -20,6 +20,7 @@ import com.example.tabletussle.database.RoomDao;
 import com.example.tabletussle.database.User;
 import com.example.tabletussle.database.UserDao;
 import com.example.tabletussle.database.UserSession;
+import com.example.tabletussle.engine.GameVariant;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
@@ -37,6 +38,8 @@ public class CreateRoomActivity extends AppCompatActivity {
     private TextInputEditText etRoomName;
     private ChipGroup chipGroupGameMode;
     private Chip chipClassic, chipTimed, chipBlitz;
+    private Chip chipBoard3, chipBoard4, chipBoard7, chipGomoku, chipUltimate, chipQubic,
+            chipGravity, chipGravity8;
     private MaterialButton btnCopyCode, btnShareCode, btnStartGame;
     private ImageButton btnBack;
     private ImageView ivQrCode;
@@ -48,6 +51,7 @@ public class CreateRoomActivity extends AppCompatActivity {
 
     private String roomCode;
     private String selectedGameMode = "classic";
+    private GameVariant selectedVariant = GameVariant.CLASSIC;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -88,6 +92,14 @@ public class CreateRoomActivity extends AppCompatActivity {
         chipClassic = findViewById(R.id.chipClassic);
         chipTimed = findViewById(R.id.chipTimed);
         chipBlitz = findViewById(R.id.chipBlitz);
+        chipBoard3 = findViewById(R.id.chipBoard3);
+        chipBoard4 = findViewById(R.id.chipBoard4);
+        chipBoard7 = findViewById(R.id.chipBoard7);
+        chipGomoku = findViewById(R.id.chipGomoku);
+        chipUltimate = findViewById(R.id.chipUltimate);
+        chipQubic = findViewById(R.id.chipQubic);
+        chipGravity = findViewById(R.id.chipGravity);
+        chipGravity8 = findViewById(R.id.chipGravity8);
         btnCopyCode = findViewById(R.id.btnCopyCode);
         btnShareCode = findViewById(R.id.btnShareCode);
         btnStartGame = findViewById(R.id.btnStartGame);
@@ -185,6 +197,55 @@ public class CreateRoomActivity extends AppCompatActivity {
                 selectedGameMode = "blitz";
             }
         });
+
+        // Board selection
+        chipBoard3.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            if (isChecked) {
+                selectedVariant = GameVariant.CLASSIC;
+            }
+        });
+
+        chipBoard4.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            if (isChecked) {
+                selectedVariant = GameVariant.GRID_4;
+            }
+        });
+
+        chipBoard7.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            if (isChecked) {
+                selectedVariant = GameVariant.GRID_7;
+            }
+        });
+
+        chipGomoku.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            if (isChecked) {
+                selectedVariant = GameVariant.GOMOKU;
+            }
+        });
+
+        chipUltimate.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            if (isChecked) {
+                selectedVariant = GameVariant.ULTIMATE;
+            }
+        });
+
+        chipQubic.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            if (isChecked) {
+                selectedVariant = GameVariant.QUBIC;
+            }
+        });
+
+        chipGravity.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            if (isChecked) {
+                selectedVariant = GameVariant.GRAVITY;
+            }
+        });
+
+        chipGravity8.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            if (isChecked) {
+                selectedVariant = GameVariant.GRAVITY_8;
+            }
+        });
     }
 
     private void copyRoomCode() {
@@ -204,7 +265,8 @@ public class CreateRoomActivity extends AppCompatActivity {
         String shareMessage = "Join my Table Tussle game!\n\n" +
                 "Room Name: " + roomName + "\n" +
                 "Room Code: " + roomCode + "\n" +
-                "Game Mode: " + selectedGameMode.toUpperCase() + "\n\n" +
+                "Game Mode: " + selectedGameMode.toUpperCase() + "\n" +
+                "Board: " + selectedVariant.displayName() + "\n\n" +
                 "Download Table Tussle and enter the room code to play!";
 
         Intent shareIntent = new Intent(Intent.ACTION_SEND);
@@ -230,7 +292,9 @@ public class CreateRoomActivity extends AppCompatActivity {
             userId = 0; // Guest user
         }
 
-        GameRoom gameRoom = new GameRoom(roomCode, roomName, selectedGameMode, userId);
+        // Board and clock are stored together, e.g. "gomoku_blitz" (see GameVariant)
+        String roomMode = selectedVariant.toMode(selectedGameMode);
+        GameRoom gameRoom = new GameRoom(roomCode, roomName, roomMode, userId);
         long roomId = roomDao.insertRoom(gameRoom);
 
         if (roomId > 0) {
@@ -241,7 +305,7 @@ public class CreateRoomActivity extends AppCompatActivity {
             intent.putExtra("GAME_MODE", "room");
             intent.putExtra("ROOM_CODE", roomCode);
             intent.putExtra("ROOM_NAME", roomName);
-            intent.putExtra("SELECTED_MODE", selectedGameMode);
+            intent.putExtra("SELECTED_MODE", roomMode);
             intent.putExtra("IS_HOST", true);
             startActivity(intent);
             finish();
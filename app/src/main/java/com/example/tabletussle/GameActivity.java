@@ -1,10 +1,16 @@
 package com.example.tabletussle;
 
 import android.content.Intent;
+import android.content.res.ColorStateList;
+import android.graphics.Typeface;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.TypedValue;
 import android.view.View;
+import android.widget.GridLayout;
 import android.widget.ImageButton;
 import android.widget.TextView;
 import android.widget.Toast;
@@ -13,20 +19,45 @@ import androidx.activity.OnBackPressedCallback;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.content.ContextCompat;
+import androidx.core.graphics.ColorUtils;
 
 import com.example.tabletussle.database.AppDatabase;
+import com.example.tabletussle.database.GameRecord;
+import com.example.tabletussle.database.GameRecordDao;
 import com.example.tabletussle.database.GameStatsManager;
 import com.example.tabletussle.database.User;
 import com.example.tabletussle.database.UserDao;
 import com.example.tabletussle.database.UserSession;
+import com.example.tabletussle.engine.Board;
+import com.example.tabletussle.engine.GameVariant;
+import com.example.tabletussle.engine.GravityBoard;
+import com.example.tabletussle.engine.Player;
+import com.example.tabletussle.engine.Position;
+import com.example.tabletussle.engine.QubicBoard;
+import com.example.tabletussle.engine.TimeControl;
+import com.example.tabletussle.engine.UltimateBoard;
+import com.example.tabletussle.engine.WinResult;
+import com.example.tabletussle.engine.ai.GameAnalysis;
+import com.example.tabletussle.engine.ai.HeuristicAi;
+import com.example.tabletussle.engine.ai.HintSearch;
+import com.example.tabletussle.engine.ai.NegamaxSearch;
+import com.example.tabletussle.engine.ai.PatternEvaluator;
+import com.example.tabletussle.engine.ai.PerfectPlayTable;
+import com.example.tabletussle.engine.ai.SearchResult;
+import com.example.tabletussle.engine.ai.TimeManager;
+import com.example.tabletussle.engine.ai.TranspositionTable;
+import com.example.tabletussle.managers.AiManager;
 import com.example.tabletussle.managers.SoundManager;
 import com.example.tabletussle.managers.VibrationManager;
 import com.example.tabletussle.managers.AnimationManager;
 import com.google.android.material.button.MaterialButton;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Locale;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class GameActivity extends AppCompatActivity {
 
@@ -35,16 +66,24 @@ public class GameActivity extends AppCompatActivity {
     private TextView tvCurrentTurn;
     private ImageButton btnMenu, btnInfo;
 
-    // Game board cells
-    private MaterialButton[][] cells = new MaterialButton[3][3];
+    // Game board cells, one per board cell (built for the selected variant)
+    private GridLayout gameBoard;
+    private MaterialButton[] cells;
 
-    // Game state
-    private String[][] board = new String[3][3]; // "X", "O", or null
-    private static final String PLAYER_X = "X"; // Human player
-    private static final String PLAYER_O = "O"; // AI player
-    private String currentPlayer = PLAYER_X;
+    // Game state - rules live in the engine module, this activity only renders it
+    private GameVariant variant;
+    private Position position;
+    private static final int PLAYER_X = Player.X; // Human player
+    private static final int PLAYER_O = Player.O; // AI player
     private boolean gameActive = true;
-    private int movesCount = 0;
+
+    // Chess-style clocks for timed/blitz games, indexed by Player
+    private TimeControl timeControl = TimeControl.CLASSIC;
+    private final long[] clockMillis = new long[3];
+    private long turnStartedAt; // SystemClock.elapsedRealtime() when the side to move started
+    private static final long CLOCK_TICK_MS = 200;
+    private static final long UNTIMED_THINK_MS = 1000; // AI search budget without a clock
+    private final Runnable clockTick = this::onClockTick;
 
     private UserSession userSession;
     private AppDatabase database;
@@ -55,6 +94,7 @@ public class GameActivity extends AppCompatActivity {
     private SoundManager soundManager;
     private VibrationManager vibrationManager;
     private AnimationManager animationManager;
+    private AiManager aiManager;
 
     private String gameMode; // "single", "quick", "room"
     private String roomCode;
@@ -63,6 +103,30 @@ public class GameActivity extends AppCompatActivity {
 
     private Handler handler = new Handler(Looper.getMainLooper());
     private Random random = new Random();
+    private HeuristicAi ai = new HeuristicAi(random); // only used on the AI executor
+
+    // AI moves are computed one at a time off the UI thread
+    private final ExecutorService aiExecutor = Executors.newSingleThreadExecutor(
+            task -> new Thread(task, "GameAI"));
+    private final Runnable aiMoveTask = this::makeAIMove;
+    private Future<?> aiJob;
+    private int roundNumber; // bumped by resetRound so older AI jobs are discarded
+    private String aiDifficulty = SettingsActivity.DIFFICULTY_MEDIUM;
+    private static final long HINT_CELL_MILLIS = 400; // search budget of each heatmap cell
+    private int hintRun;          // bumped to drop hints of an older position
+    private boolean showingHints;
+
+    // Post-game reviews run one at a time at the lowest priority, so they
+    // never compete with the next round for the CPU
+    private static final long ANALYSIS_MILLIS_PER_POSITION = 500;
+    private final ExecutorService analysisExecutor = Executors.newSingleThreadExecutor(
+            task -> new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_LOWEST);
+                task.run();
+            }, "GameAnalysis"));
+    private NegamaxSearch analysisSearch; // created and searched on the analysis thread only
+    private GameAnalysis analysis;        // review of the last finished game
+    private int[] moveHistory;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -79,6 +143,8 @@ public class GameActivity extends AppCompatActivity {
         soundManager = SoundManager.getInstance(this);
         vibrationManager = VibrationManager.getInstance(this);
         animationManager = AnimationManager.getInstance(this);
+        aiManager = AiManager.getInstance(this);
+        aiDifficulty = SettingsActivity.getAiDifficultySetting(this);
 
         // Update settings and start background music
         soundManager.updateSettings();
@@ -94,12 +160,20 @@ public class GameActivity extends AppCompatActivity {
             gameMode = "single"; // Default to single player
         }
         roomCode = intent.getStringExtra("ROOM_CODE");
+        String selectedMode = intent.getStringExtra("SELECTED_MODE");
+        variant = GameVariant.fromMode(selectedMode);
+        if (gameMode.equals("single")) {
+            // Rooms have no remote opponent yet, so only games against the AI run a clock
+            timeControl = TimeControl.fromMode(selectedMode);
+        }
+        position = variant.createPosition();
+        moveHistory = new int[position.cellCount()];
 
         initializeViews();
+        buildBoardCells();
         initializeBoard();
         loadPlayerInfo();
         setupClickListeners();
-        setupBoardClickListeners();
 
         // Handle back button press
         getOnBackPressedDispatcher().addCallback(this, new OnBackPressedCallback(true) {
@@ -118,49 +192,115 @@ public class GameActivity extends AppCompatActivity {
         tvCurrentTurn = findViewById(R.id.tvCurrentTurn);
         btnMenu = findViewById(R.id.btnMenu);
         btnInfo = findViewById(R.id.btnInfo);
+        gameBoard = findViewById(R.id.gameBoard);
+    }
 
-        // Initialize cell buttons
-        cells[0][0] = findViewById(R.id.cell_0_0);
-        cells[0][1] = findViewById(R.id.cell_0_1);
-        cells[0][2] = findViewById(R.id.cell_0_2);
-        cells[1][0] = findViewById(R.id.cell_1_0);
-        cells[1][1] = findViewById(R.id.cell_1_1);
-        cells[1][2] = findViewById(R.id.cell_1_2);
-        cells[2][0] = findViewById(R.id.cell_2_0);
-        cells[2][1] = findViewById(R.id.cell_2_1);
-        cells[2][2] = findViewById(R.id.cell_2_2);
+    /**
+     * Create one button per cell. Sizes and margins shrink with the board
+     * so a 15x15 board still fits on a phone screen.
+     */
+    private void buildBoardCells() {
+        int rows = position.rows();
+        int columns = position.columns();
+        gameBoard.removeAllViews();
+        gameBoard.setRowCount(rows);
+        gameBoard.setColumnCount(columns);
+
+        float density = getResources().getDisplayMetrics().density;
+        int margin = Math.round((columns <= 4 ? 4 : columns <= 7 ? 2 : 1) * density);
+        float textSize = columns <= 3 ? 48 : columns <= 4 ? 36 : columns <= 7 ? 22 : columns <= 9 ? 16 : 11;
+        // Ultimate: a wider gap between the 3x3 sub-boards; Qubic: between the 4x4 layers
+        int block = position instanceof UltimateBoard ? 3 : position instanceof QubicBoard ? 4 : 0;
+        int subBoardGap = Math.round(4 * density);
+        int cornerRadius = Math.round((columns <= 4 ? 12 : columns <= 7 ? 6 : 3) * density);
+        int strokeWidth = Math.round((columns <= 7 ? 2 : 1) * density);
+
+        cells = new MaterialButton[position.cellCount()];
+        for (int cell = 0; cell < cells.length; cell++) {
+            MaterialButton button = new MaterialButton(this);
+            GridLayout.LayoutParams params = new GridLayout.LayoutParams(
+                    GridLayout.spec(cell / columns, 1f),
+                    GridLayout.spec(cell % columns, 1f));
+            params.width = 0;
+            params.height = 0;
+            int row = cell / columns;
+            int col = cell % columns;
+            boolean gapRight = block > 0 && col % block == block - 1 && col != columns - 1;
+            boolean gapBelow = block > 0 && row % block == block - 1 && row != rows - 1;
+            params.setMargins(margin, margin, margin + (gapRight ? subBoardGap : 0),
+                    margin + (gapBelow ? subBoardGap : 0));
+            button.setLayoutParams(params);
+
+            // Drop the default touch-target insets so small cells stay square
+            button.setInsetTop(0);
+            button.setInsetBottom(0);
+            button.setMinWidth(0);
+            button.setMinimumWidth(0);
+            button.setMinHeight(0);
+            button.setMinimumHeight(0);
+            button.setPadding(0, 0, 0, 0);
+
+            button.setBackgroundTintList(ColorStateList.valueOf(
+                    ContextCompat.getColor(this, R.color.cardBackground)));
+            button.setTextColor(ContextCompat.getColor(this, R.color.primary));
+            button.setTextSize(TypedValue.COMPLEX_UNIT_SP, textSize);
+            button.setTypeface(button.getTypeface(), Typeface.BOLD);
+            button.setCornerRadius(cornerRadius);
+            button.setStrokeColor(ColorStateList.valueOf(
+                    ContextCompat.getColor(this, R.color.cardStroke)));
+            button.setStrokeWidth(strokeWidth);
+
+            final int move = cell;
+            button.setOnClickListener(v -> onCellClicked(move));
+
+            gameBoard.addView(button);
+            cells[cell] = button;
+        }
     }
 
     private void initializeBoard() {
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                board[i][j] = null;
-                cells[i][j].setText("");
-                cells[i][j].setEnabled(true);
-            }
+        position.reset();
+        for (MaterialButton cell : cells) {
+            cell.setText("");
+            cell.setEnabled(true);
         }
-        currentPlayer = PLAYER_X;
         gameActive = true;
-        movesCount = 0;
+        resetClocks();
+        shadeSubBoards();
     }
 
-    private void setupBoardClickListeners() {
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                final int row = i;
-                final int col = j;
-                cells[i][j].setOnClickListener(v -> onCellClicked(row, col));
-            }
+    /**
+     * Ultimate only: tint the sub-boards the side to move may play in, and
+     * grey out the ones that are won or full
+     */
+    private void shadeSubBoards() {
+        if (!(position instanceof UltimateBoard)) {
+            return;
+        }
+        UltimateBoard board = (UltimateBoard) position;
+        ColorStateList open = ColorStateList.valueOf(ContextCompat.getColor(this, R.color.cardBackground));
+        ColorStateList target = ColorStateList.valueOf(ContextCompat.getColor(this, R.color.accent_light));
+        ColorStateList closed = ColorStateList.valueOf(ContextCompat.getColor(this, R.color.divider));
+        for (int cell = 0; cell < cells.length; cell++) {
+            int sub = UltimateBoard.boardOf(cell);
+            boolean playable = (board.closedBoards() & (1 << sub)) == 0;
+            boolean sentHere = board.forcedBoard() == UltimateBoard.ANY_BOARD || board.forcedBoard() == sub;
+            cells[cell].setBackgroundTintList(!playable ? closed : sentHere ? target : open);
         }
     }
 
-    private void onCellClicked(int row, int col) {
-        if (!gameActive || board[row][col] != null || currentPlayer != PLAYER_X) {
+    private void onCellClicked(int cell) {
+        // Gravity boards: a tap anywhere in a column drops into it
+        int move = position instanceof GravityBoard
+                ? ((GravityBoard) position).landingCell(cell % position.columns()) : cell;
+        // Occupied, full column, or outside the sub-board Ultimate sends the player to
+        boolean illegal = !position.isLegal(move);
+        if (!gameActive || illegal || position.sideToMove() != PLAYER_X) {
             // Play error sound and shake animation for invalid move
-            if (board[row][col] != null) {
+            if (illegal) {
                 soundManager.playSound(SoundManager.SoundEffect.CLICK);
                 vibrationManager.vibrate(VibrationManager.VibrationType.LIGHT);
-                animationManager.animateShake(cells[row][col]);
+                animationManager.animateShake(cells[cell]);
             }
             return; // Invalid move
         }
@@ -169,245 +309,267 @@ public class GameActivity extends AppCompatActivity {
         soundManager.playSound(SoundManager.SoundEffect.MOVE);
         vibrationManager.vibrate(VibrationManager.VibrationType.MEDIUM);
 
-        makeMove(row, col, PLAYER_X);
+        makeMove(move);
 
-        if (gameActive && currentPlayer == PLAYER_O && gameMode.equals("single")) {
-            // AI's turn - delay for better UX
+        if (gameActive && position.sideToMove() == PLAYER_O && gameMode.equals("single")) {
+            // AI's turn - delay for better UX, unless the AI is searching
+            // (the search itself takes real thinking time)
             disableBoardInteraction();
-            handler.postDelayed(() -> {
-                makeAIMove();
-                enableBoardInteraction();
-            }, 500 + random.nextInt(500)); // Random delay 500-1000ms
+            long delay = usesSearch() ? 0 : 500 + random.nextInt(500); // Random delay 500-1000ms
+            handler.postDelayed(aiMoveTask, delay);
         }
     }
 
-    private void makeMove(int row, int col, String player) {
-        board[row][col] = player;
-        cells[row][col].setText(player);
+    private void makeMove(int move) {
+        clearHints();
+        int player = position.sideToMove();
+        chargeClock(player);
+        moveHistory[position.moveCount()] = move;
+        position.makeMove(move);
+        cells[move].setText(Player.symbol(player));
 
         // Animate the cell fill
-        animationManager.animateCellFill(cells[row][col]);
+        animationManager.animateCellFill(cells[move]);
 
         // Style the cell based on player
-        if (player.equals(PLAYER_X)) {
-            cells[row][col].setTextColor(ContextCompat.getColor(this, R.color.primary));
+        if (player == PLAYER_X) {
+            cells[move].setTextColor(ContextCompat.getColor(this, R.color.primary));
         } else {
-            cells[row][col].setTextColor(ContextCompat.getColor(this, R.color.secondary));
+            cells[move].setTextColor(ContextCompat.getColor(this, R.color.secondary));
         }
 
-        cells[row][col].setEnabled(false);
-        movesCount++;
+        cells[move].setEnabled(false);
+        shadeSubBoards();
 
-        // Check for win or draw
-        if (checkWinner(player)) {
+        // Check for win or draw - only the lines through this move
+        WinResult result = position.checkWin(move);
+        if (result.isWin()) {
             gameActive = false;
-            onGameEnd(player);
-        } else if (movesCount == 9) {
+            stopClock();
+            highlightWinningCells(result.cells());
+            onGameEnd(result.winner());
+        } else if (position.isFull()) {
             gameActive = false;
-            onGameEnd(null); // Draw
+            stopClock();
+            onGameEnd(Player.EMPTY); // Draw
         } else {
-            // Switch player
-            currentPlayer = currentPlayer.equals(PLAYER_X) ? PLAYER_O : PLAYER_X;
             updateTurnDisplay();
         }
     }
 
+    /**
+     * Compute the AI's move on the AI executor and play it back on the UI
+     * thread, unless the round was restarted or the position moved on since
+     */
     private void makeAIMove() {
         if (!gameActive) return;
 
-        // AI difficulty: 70% smart moves, 30% random moves
-        // This makes the AI beatable while still challenging
-        int[] move;
-
-        // 70% of the time, use intelligent strategy
-        if (random.nextInt(100) < 70) {
-            move = findSmartMove();
-        } else {
-            // 30% of the time, make a random move
-            move = findRandomMove();
-        }
+        Position snapshot = position.copy();
+        int round = roundNumber;
+        String difficulty = aiDifficulty;
+        TimeManager time = usesSearch() ? aiThinkTime(snapshot) : null;
+        aiJob = aiExecutor.submit(() -> {
+            int chosen = chooseAIMove(difficulty, snapshot, time);
+            if (chosen == Position.NO_MOVE) {
+                // An aborted search found nothing: never leave O without a move
+                chosen = ai.findSmartMove(snapshot);
+                android.util.Log.w("GameAI", "No move from the AI, falling back to the heuristic");
+            }
+            int move = chosen;
+            android.util.Log.d("GameAI", "AI plays cell " + move);
 
-        if (move != null) {
-            makeMove(move[0], move[1], PLAYER_O);
-        }
+            runOnUiThread(() -> {
+                if (!isCurrentAIJob(round, snapshot)) {
+                    return; // stale: new round, or the activity is gone
+                }
+                if (move != Position.NO_MOVE) {
+                    makeMove(move);
+                    startPondering();
+                }
+                enableBoardInteraction();
+            });
+        });
     }
 
     /**
-     * AI makes a smart strategic move
-     * Priority: Win > Block > Center > Corner > Random
+     * Runs on the AI executor: the snapshot is the job's own copy
      */
-    private int[] findSmartMove() {
-        // 1st Priority: Check if AI can win
-        int[] winMove = findWinningMove(PLAYER_O);
-        if (winMove != null) {
-            android.util.Log.d("GameAI", "AI: Found winning move!");
-            return winMove;
-        }
-
-        // 2nd Priority: Block player from winning
-        int[] blockMove = findWinningMove(PLAYER_X);
-        if (blockMove != null) {
-            android.util.Log.d("GameAI", "AI: Blocking player's winning move");
-            return blockMove;
+    private int chooseAIMove(String difficulty, Position snapshot, TimeManager time) {
+        switch (difficulty) {
+            case SettingsActivity.DIFFICULTY_HARD:
+                if (snapshot instanceof Board) {
+                    // Perfect play: one table lookup, no search
+                    PerfectPlayTable table = aiManager.getPerfectPlayTable();
+                    return table.bestMove((Board) snapshot, random);
+                }
+                return searchAIMove(snapshot, time);
+            case SettingsActivity.DIFFICULTY_EASY:
+                // Mostly random moves
+                return ai.chooseMove(snapshot, 30);
+            default:
+                // 70% smart moves, 30% random moves
+                // This makes the AI beatable while still challenging
+                return ai.chooseMove(snapshot, 70);
         }
+    }
 
-        // 3rd Priority: Take center if available
-        if (board[1][1] == null) {
-            android.util.Log.d("GameAI", "AI: Taking center");
-            return new int[]{1, 1};
-        }
+    /**
+     * A job is versioned by the round and move number it was started at
+     */
+    private boolean isCurrentAIJob(int round, Position snapshot) {
+        return gameActive && !isDestroyed() && round == roundNumber
+                && position.moveCount() == snapshot.moveCount();
+    }
 
-        // 4th Priority: Take a corner
-        int[][] corners = {{0,0}, {0,2}, {2,0}, {2,2}};
-        java.util.List<int[]> availableCorners = new java.util.ArrayList<>();
-        for (int[] corner : corners) {
-            if (board[corner[0]][corner[1]] == null) {
-                availableCorners.add(corner);
-            }
-        }
-        if (!availableCorners.isEmpty()) {
-            android.util.Log.d("GameAI", "AI: Taking a corner");
-            return availableCorners.get(random.nextInt(availableCorners.size()));
+    /**
+     * Drop the pending or running AI move and stop its search; whatever it
+     * still posts back fails isCurrentAIJob
+     */
+    private void cancelAIMove() {
+        handler.removeCallbacks(aiMoveTask);
+        if (aiJob != null) {
+            aiJob.cancel(true);
+            aiJob = null;
         }
+        aiManager.cancelPondering();
+        aiManager.stopSearch();
+    }
 
-        // 5th Priority: Take any available space
-        android.util.Log.d("GameAI", "AI: Taking random available space");
-        return findRandomMove();
+    /**
+     * Hard on the larger boards searches instead of answering instantly
+     */
+    private boolean usesSearch() {
+        return aiDifficulty.equals(SettingsActivity.DIFFICULTY_HARD) && !(position instanceof Board);
     }
 
     /**
-     * Find a winning move for the specified player
+     * Alpha-beta or MCTS (see GameVariant.prefersMcts), budgeted from the
+     * AI's clock or a fixed time when untimed
      */
-    private int[] findWinningMove(String player) {
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (board[i][j] == null) {
-                    // Try this move
-                    board[i][j] = player;
-                    boolean wins = checkWinner(player);
-                    board[i][j] = null; // Undo move
-
-                    if (wins) {
-                        return new int[]{i, j};
-                    }
-                }
-            }
+    private int searchAIMove(Position snapshot, TimeManager time) {
+        // Answered at once if pondering guessed the human's move
+        SearchResult pondered = aiManager.takePonderResult(snapshot);
+        if (Thread.currentThread().isInterrupted()) {
+            return Position.NO_MOVE; // cancelled while waiting for the ponder thread
         }
-        return null; // No winning move found
+        SearchResult result = pondered != null ? pondered : aiManager.search(variant, snapshot, time);
+        android.util.Log.d("GameAI", "Search (" + time + (pondered != null ? ", pondered" : "")
+                + "): " + result);
+        return result.move();
     }
 
     /**
-     * Make a random move from available spaces
+     * The AI's budget for a move: from its clock, or fixed when untimed
      */
-    private int[] findRandomMove() {
-        java.util.List<int[]> availableMoves = new java.util.ArrayList<>();
+    private TimeManager aiThinkTime(Position snapshot) {
+        return timeControl.isTimed()
+                ? TimeManager.forClock(snapshot, remainingMillis(PLAYER_O), timeControl.incrementMillis())
+                : TimeManager.fixed(UNTIMED_THINK_MS);
+    }
 
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (board[i][j] == null) {
-                    availableMoves.add(new int[]{i, j});
-                }
-            }
+    /**
+     * Let the searching AI think while the human does (see AiManager.startPondering)
+     */
+    private void startPondering() {
+        if (gameActive && usesSearch() && gameMode.equals("single") && position.sideToMove() == PLAYER_X) {
+            aiManager.startPondering(variant, position, aiThinkTime(position));
         }
+    }
 
-        if (!availableMoves.isEmpty()) {
-            return availableMoves.get(random.nextInt(availableMoves.size()));
+    private void resetClocks() {
+        clockMillis[PLAYER_X] = timeControl.initialMillis();
+        clockMillis[PLAYER_O] = timeControl.initialMillis();
+        turnStartedAt = SystemClock.elapsedRealtime();
+        handler.removeCallbacks(clockTick);
+        if (timeControl.isTimed()) {
+            handler.postDelayed(clockTick, CLOCK_TICK_MS);
         }
-
-        return null;
     }
 
-    private boolean checkWinner(String player) {
-        // Check rows
-        for (int i = 0; i < 3; i++) {
-            if (board[i][0] != null && board[i][0].equals(player) &&
-                board[i][1] != null && board[i][1].equals(player) &&
-                board[i][2] != null && board[i][2].equals(player)) {
-                highlightWinningCells(new int[][]{{i,0}, {i,1}, {i,2}});
-                return true;
-            }
+    /**
+     * Time left for a player, counting the running turn
+     */
+    private long remainingMillis(int player) {
+        long remaining = clockMillis[player];
+        if (player == position.sideToMove()) {
+            remaining -= SystemClock.elapsedRealtime() - turnStartedAt;
         }
+        return Math.max(0, remaining);
+    }
 
-        // Check columns
-        for (int j = 0; j < 3; j++) {
-            if (board[0][j] != null && board[0][j].equals(player) &&
-                board[1][j] != null && board[1][j].equals(player) &&
-                board[2][j] != null && board[2][j].equals(player)) {
-                highlightWinningCells(new int[][]{{0,j}, {1,j}, {2,j}});
-                return true;
-            }
+    /**
+     * Stop the mover's clock: deduct the turn and add the increment
+     */
+    private void chargeClock(int player) {
+        if (timeControl.isTimed()) {
+            clockMillis[player] = remainingMillis(player) + timeControl.incrementMillis();
         }
+        turnStartedAt = SystemClock.elapsedRealtime();
+    }
 
-        // Check diagonals
-        if (board[0][0] != null && board[0][0].equals(player) &&
-            board[1][1] != null && board[1][1].equals(player) &&
-            board[2][2] != null && board[2][2].equals(player)) {
-            highlightWinningCells(new int[][]{{0,0}, {1,1}, {2,2}});
-            return true;
-        }
+    private void stopClock() {
+        handler.removeCallbacks(clockTick);
+    }
 
-        if (board[0][2] != null && board[0][2].equals(player) &&
-            board[1][1] != null && board[1][1].equals(player) &&
-            board[2][0] != null && board[2][0].equals(player)) {
-            highlightWinningCells(new int[][]{{0,2}, {1,1}, {2,0}});
-            return true;
+    private void onClockTick() {
+        if (!gameActive || !timeControl.isTimed()) {
+            return;
+        }
+        int side = position.sideToMove();
+        if (remainingMillis(side) == 0) {
+            // Flag fall: the side to move loses on time
+            clockMillis[side] = 0;
+            gameActive = false;
+            Toast.makeText(this, "Time's up!", Toast.LENGTH_SHORT).show();
+            onGameEnd(Player.opponent(side));
+            return;
         }
+        updateTurnDisplay();
+        handler.postDelayed(clockTick, CLOCK_TICK_MS);
+    }
 
-        return false;
+    private static String formatClock(long millis) {
+        long seconds = (millis + 999) / 1000; // round up so 0:00 means flagged
+        return String.format(Locale.US, "%d:%02d", seconds / 60, seconds % 60);
     }
 
-    private void highlightWinningCells(int[][] winningCells) {
+    private void highlightWinningCells(int[] winningCells) {
         int highlightColor = ContextCompat.getColor(this, R.color.accent);
 
         // Create array of views for animation
         View[] winningViews = new View[winningCells.length];
 
         for (int i = 0; i < winningCells.length; i++) {
-            int[] cell = winningCells[i];
-            cells[cell[0]][cell[1]].setBackgroundTintList(
-                android.content.res.ColorStateList.valueOf(highlightColor)
-            );
-            winningViews[i] = cells[cell[0]][cell[1]];
+            MaterialButton button = cells[winningCells[i]];
+            button.setBackgroundTintList(ColorStateList.valueOf(highlightColor));
+            winningViews[i] = button;
         }
 
         // Animate winning cells
         animationManager.animateWinningCells(winningViews);
     }
 
-    private boolean isBoardFull() {
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (board[i][j] == null) {
-                    return false;
-                }
-            }
-        }
-        return true;
-    }
-
     private void disableBoardInteraction() {
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                cells[i][j].setClickable(false);
-            }
+        for (MaterialButton cell : cells) {
+            cell.setClickable(false);
         }
     }
 
     private void enableBoardInteraction() {
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (board[i][j] == null) {
-                    cells[i][j].setClickable(true);
-                }
+        for (int cell = 0; cell < cells.length; cell++) {
+            if (position.get(cell) == Player.EMPTY) {
+                cells[cell].setClickable(true);
             }
         }
     }
 
-    private void onGameEnd(String winner) {
+    private void onGameEnd(int winner) {
         disableBoardInteraction();
+        aiManager.cancelPondering();
+        startAnalysis(winner);
 
-        if (winner != null) {
-            if (winner.equals(PLAYER_X)) {
+        if (winner != Player.EMPTY) {
+            if (winner == PLAYER_X) {
                 // Player wins
                 soundManager.playSound(SoundManager.SoundEffect.WIN);
                 vibrationManager.vibrate(VibrationManager.VibrationType.SUCCESS);
@@ -459,10 +621,112 @@ public class GameActivity extends AppCompatActivity {
 
         builder.setPositiveButton("Play Again", (dialog, which) -> resetRound());
         builder.setNegativeButton("Exit", (dialog, which) -> finish());
+        builder.setNeutralButton("Review", (dialog, which) -> showReviewDialog());
         builder.setCancelable(false);
         builder.show();
     }
 
+    /**
+     * Review the finished game on the analysis thread, one move per step, and
+     * save it with the review for a logged-in user. A newer game or leaving
+     * the screen stops the review between moves; whatever was analysed by
+     * then is still stored with the record.
+     */
+    private void startAnalysis(int winner) {
+        cancelAnalysis();
+        int[] moves = Arrays.copyOf(moveHistory, position.moveCount());
+        GameAnalysis review = new GameAnalysis(variant.createPosition(), moves, moves.length,
+                TimeManager.fixed(ANALYSIS_MILLIS_PER_POSITION));
+        analysis = review;
+
+        // Guests get the review on screen only, like their stats
+        int userId = userSession.getUserId();
+        GameRecordDao records = userId == -1 ? null : AppDatabase.getInstance(this).gameRecordDao();
+        GameRecord record = records == null ? null
+                : new GameRecord(userId, variant.toMode(timeControl.id()), joinMoves(moves), winner);
+        analysisExecutor.execute(() -> {
+            try {
+                if (analysisSearch == null) {
+                    analysisSearch = new NegamaxSearch(new TranspositionTable(16), new PatternEvaluator());
+                }
+                long recordId = record == null ? -1 : records.insertRecord(record);
+                while (review.step(analysisSearch)) {
+                    // one move per step, so a stop lands between moves
+                }
+                if (record != null) {
+                    records.updateAnalysis(recordId, review.encode());
+                }
+                android.util.Log.d("GameAnalysis", "Reviewed " + review.analyzedMoves() + "/"
+                        + review.moveCount() + " moves: " + review.encode());
+            } catch (Exception e) {
+                android.util.Log.e("GameAnalysis", "Failed to save the game review: " + e.getMessage());
+            }
+        });
+    }
+
+    private void cancelAnalysis() {
+        if (analysis != null) {
+            analysis.stop();
+        }
+    }
+
+    private static String joinMoves(int[] moves) {
+        StringBuilder sb = new StringBuilder(moves.length * 3);
+        for (int i = 0; i < moves.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(moves[i]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Inaccuracies and blunders of the last game, as far as the review got
+     */
+    private void showReviewDialog() {
+        GameAnalysis review = analysis;
+        int done = review.analyzedMoves();
+        StringBuilder message = new StringBuilder();
+        if (!review.isComplete()) {
+            message.append("Still analysing: ").append(done).append(" of ")
+                    .append(review.moveCount()).append(" moves done\n\n");
+        }
+        message.append(tvPlayer1Name.getText()).append(": ")
+                .append(review.count(GameAnalysis.INACCURACY, PLAYER_X)).append(" inaccuracies, ")
+                .append(review.count(GameAnalysis.BLUNDER, PLAYER_X)).append(" blunders\n")
+                .append(tvPlayer2Name.getText()).append(": ")
+                .append(review.count(GameAnalysis.INACCURACY, PLAYER_O)).append(" inaccuracies, ")
+                .append(review.count(GameAnalysis.BLUNDER, PLAYER_O)).append(" blunders\n");
+        for (int ply = 0; ply < done; ply++) {
+            int mark = review.mark(ply);
+            if (mark == GameAnalysis.BEST) {
+                continue;
+            }
+            message.append('\n').append(ply + 1).append(". ")
+                    .append(Player.symbol(ply % 2 == 0 ? PLAYER_X : PLAYER_O)).append(' ')
+                    .append(cellName(review.move(ply)))
+                    .append(mark == GameAnalysis.BLUNDER ? " - blunder" : " - inaccuracy");
+            if (review.bestMove(ply) != Position.NO_MOVE) {
+                message.append(", best was ").append(cellName(review.bestMove(ply)));
+            }
+        }
+
+        new AlertDialog.Builder(this)
+                .setTitle("Game Review")
+                .setMessage(message.toString())
+                .setPositiveButton("Play Again", (dialog, which) -> resetRound())
+                .setNegativeButton("Exit", (dialog, which) -> finish())
+                .setCancelable(false)
+                .show();
+    }
+
+    // Row and column counted from 1, e.g. "r2c3"
+    private String cellName(int cell) {
+        int columns = position.columns();
+        return "r" + (cell / columns + 1) + "c" + (cell % columns + 1);
+    }
+
     /**
      * Update game statistics in the database
      * Runs on background thread to avoid blocking UI
@@ -559,18 +823,18 @@ public class GameActivity extends AppCompatActivity {
 
     private void resetRound() {
         // Clear the board for next round
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                cells[i][j].setBackgroundTintList(
-                    android.content.res.ColorStateList.valueOf(
-                        ContextCompat.getColor(this, R.color.cardBackground)
-                    )
-                );
-            }
+        ColorStateList background = ColorStateList.valueOf(
+                ContextCompat.getColor(this, R.color.cardBackground));
+        for (MaterialButton cell : cells) {
+            cell.setBackgroundTintList(background);
         }
+        roundNumber++;
+        cancelAIMove();
+        clearHints();
         initializeBoard();
         enableBoardInteraction();
         updateTurnDisplay();
+        startPondering();
     }
 
     private void loadPlayerInfo() {
@@ -673,21 +937,24 @@ public class GameActivity extends AppCompatActivity {
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
         builder.setTitle("Game Menu");
 
-        String[] options = {"Resume", "New Game", "Settings", "Quit"};
+        String[] options = {"Resume", "Hint", "New Game", "Settings", "Quit"};
 
         builder.setItems(options, (dialog, which) -> {
             switch (which) {
                 case 0: // Resume
                     dialog.dismiss();
                     break;
-                case 1: // New Game
+                case 1: // Hint
+                    showHints();
+                    break;
+                case 2: // New Game
                     showNewGameConfirmation();
                     break;
-                case 2: // Settings
+                case 3: // Settings
                     Intent intent = new Intent(GameActivity.this, SettingsActivity.class);
                     startActivity(intent);
                     break;
-                case 3: // Quit
+                case 4: // Quit
                     showQuitConfirmation();
                     break;
             }
@@ -696,6 +963,62 @@ public class GameActivity extends AppCompatActivity {
         builder.show();
     }
 
+    /**
+     * Shade every candidate cell by how its move turns out for the side to
+     * move: green wins, red loses, yellow draws. Each cell is searched on
+     * its own fork-join task (see HintSearch) and painted as soon as it is
+     * done, so the first cells show up long before the slowest is finished.
+     */
+    private void showHints() {
+        boolean aiToMove = gameMode.equals("single") && position.sideToMove() == PLAYER_O;
+        if (!gameActive || aiToMove) {
+            Toast.makeText(this, "Hints are available on your turn", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        clearHints();
+        showingHints = true;
+        int run = hintRun;
+        aiManager.getHintSearch().start(position, TimeManager.fixed(HINT_CELL_MILLIS),
+                hint -> handler.post(() -> {
+                    if (run == hintRun && !isDestroyed()) {
+                        paintHint(hint);
+                    }
+                }));
+    }
+
+    private void paintHint(HintSearch.Hint hint) {
+        int background = ContextCompat.getColor(this, R.color.cardBackground);
+        double value = hint.value();
+        int color;
+        if (hint.verdict() == HintSearch.DRAW) {
+            color = ContextCompat.getColor(this, R.color.hint_draw);
+        } else {
+            int target = ContextCompat.getColor(this, value > 0 ? R.color.hint_win : R.color.hint_loss);
+            color = ColorUtils.blendARGB(background, target, (float) Math.abs(value));
+        }
+        cells[hint.move()].setBackgroundTintList(ColorStateList.valueOf(color));
+    }
+
+    /**
+     * Stop the hint search and take the heatmap off the empty cells
+     */
+    private void clearHints() {
+        if (!showingHints) {
+            return;
+        }
+        showingHints = false;
+        hintRun++;
+        aiManager.getHintSearch().cancel();
+        ColorStateList background = ColorStateList.valueOf(
+                ContextCompat.getColor(this, R.color.cardBackground));
+        for (int cell = 0; cell < cells.length; cell++) {
+            if (position.get(cell) == Player.EMPTY) {
+                cells[cell].setBackgroundTintList(background);
+            }
+        }
+        shadeSubBoards();
+    }
+
     private void showNewGameConfirmation() {
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
         builder.setTitle("New Game");
@@ -789,10 +1112,12 @@ public class GameActivity extends AppCompatActivity {
     }
 
     private void updateTurnDisplay() {
-        if (currentPlayer.equals(PLAYER_X)) {
-            tvCurrentTurn.setText(tvPlayer1Name.getText() + "'s Turn");
+        int side = position.sideToMove();
+        String clock = timeControl.isTimed() ? " (" + formatClock(remainingMillis(side)) + ")" : "";
+        if (side == PLAYER_X) {
+            tvCurrentTurn.setText(tvPlayer1Name.getText() + "'s Turn" + clock);
         } else {
-            tvCurrentTurn.setText(tvPlayer2Name.getText() + "'s Turn");
+            tvCurrentTurn.setText(tvPlayer2Name.getText() + "'s Turn" + clock);
         }
     }
 
@@ -810,6 +1135,14 @@ public class GameActivity extends AppCompatActivity {
         if (animationManager != null) {
             animationManager.updateSettings();
         }
+        aiDifficulty = SettingsActivity.getAiDifficultySetting(this);
+        // Clocks do not run while the game is in the background
+        turnStartedAt = SystemClock.elapsedRealtime();
+        if (gameActive && timeControl.isTimed()) {
+            handler.removeCallbacks(clockTick);
+            handler.post(clockTick);
+        }
+        startPondering();
     }
 
     @Override
@@ -819,6 +1152,17 @@ public class GameActivity extends AppCompatActivity {
         if (soundManager != null) {
             soundManager.pauseBackgroundMusic();
         }
+        if (gameActive && timeControl.isTimed()) {
+            int side = position.sideToMove();
+            clockMillis[side] = remainingMillis(side);
+            turnStartedAt = SystemClock.elapsedRealtime();
+            stopClock();
+        }
+        // No thinking in the background on the user's battery
+        if (aiManager != null) {
+            aiManager.cancelPondering();
+            clearHints();
+        }
     }
 
     @Override
@@ -831,5 +1175,13 @@ public class GameActivity extends AppCompatActivity {
         if (vibrationManager != null) {
             vibrationManager.cancel();
         }
+        stopClock();
+        if (aiManager != null) {
+            cancelAIMove();
+            clearHints();
+            aiExecutor.shutdownNow();
+            cancelAnalysis();
+            analysisExecutor.shutdown(); // the review in progress stops and saves what it has
+        }
     }
 }
@@ -10,6 +10,8 @@ import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
 
+import com.example.tabletussle.engine.GameVariant;
+import com.example.tabletussle.engine.TimeControl;
 import com.example.tabletussle.managers.AnimationManager;
 import com.example.tabletussle.managers.SoundManager;
 import com.example.tabletussle.managers.VibrationManager;
@@ -71,10 +73,8 @@ public class MainActivity extends AppCompatActivity {
             soundManager.playSound(SoundManager.SoundEffect.CLICK);
             vibrationManager.vibrate(VibrationManager.VibrationType.MEDIUM);
             animationManager.animateButtonClick(v);
-            // Start single player game (vs AI)
-            Intent intent = new Intent(MainActivity.this, GameActivity.class);
-            intent.putExtra("GAME_MODE", "single");
-            startActivity(intent);
+            // Start single player game (vs AI) after picking a board
+            showBoardPicker();
         });
 
         btnQuickMatch.setOnClickListener(v -> {
@@ -130,6 +130,40 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
+    /**
+     * Let the player choose the board before a single player game
+     */
+    private void showBoardPicker() {
+        GameVariant[] variants = GameVariant.values();
+        String[] names = new String[variants.length];
+        for (int i = 0; i < variants.length; i++) {
+            names[i] = variants[i].displayName();
+        }
+
+        new androidx.appcompat.app.AlertDialog.Builder(this)
+                .setTitle("Choose Board")
+                .setItems(names, (dialog, which) -> showClockPicker(variants[which]))
+                .show();
+    }
+
+    private void showClockPicker(GameVariant variant) {
+        TimeControl[] clocks = TimeControl.values();
+        String[] names = new String[clocks.length];
+        for (int i = 0; i < clocks.length; i++) {
+            names[i] = clocks[i].displayName();
+        }
+
+        new androidx.appcompat.app.AlertDialog.Builder(this)
+                .setTitle("Choose Clock")
+                .setItems(names, (dialog, which) -> {
+                    Intent intent = new Intent(MainActivity.this, GameActivity.class);
+                    intent.putExtra("GAME_MODE", "single");
+                    intent.putExtra("SELECTED_MODE", variant.toMode(clocks[which].id()));
+                    startActivity(intent);
+                })
+                .show();
+    }
+
     private void showToast(String message) {
         Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
     }
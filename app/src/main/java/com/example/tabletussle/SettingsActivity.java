@@ -32,6 +32,14 @@ public class SettingsActivity extends AppCompatActivity {
     private static final String KEY_VIBRATION = "vibration";
     private static final String KEY_DARK_MODE = "dark_mode";
     private static final String KEY_ANIMATIONS = "animations";
+    private static final String KEY_AI_DIFFICULTY = "ai_difficulty";
+
+    // AI difficulty values
+    public static final String DIFFICULTY_EASY = "easy";
+    public static final String DIFFICULTY_MEDIUM = "medium";
+    public static final String DIFFICULTY_HARD = "hard";
+    private static final String[] DIFFICULTY_VALUES = {DIFFICULTY_EASY, DIFFICULTY_MEDIUM, DIFFICULTY_HARD};
+    private static final String[] DIFFICULTY_LABELS = {"Easy", "Medium", "Hard"};
 
     // UI Components
     private SwitchMaterial switchSoundEffects;
@@ -39,6 +47,7 @@ public class SettingsActivity extends AppCompatActivity {
     private SwitchMaterial switchVibration;
     private SwitchMaterial switchDarkMode;
     private SwitchMaterial switchAnimations;
+    private TextView tvAiDifficulty;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -72,6 +81,7 @@ public class SettingsActivity extends AppCompatActivity {
         switchVibration = findViewById(R.id.switchVibration);
         switchDarkMode = findViewById(R.id.switchDarkMode);
         switchAnimations = findViewById(R.id.switchAnimations);
+        tvAiDifficulty = findViewById(R.id.tvAiDifficulty);
 
         // Set app version
         TextView tvAppVersion = findViewById(R.id.tvAppVersion);
@@ -90,6 +100,7 @@ public class SettingsActivity extends AppCompatActivity {
         switchVibration.setChecked(sharedPreferences.getBoolean(KEY_VIBRATION, true));
         switchDarkMode.setChecked(sharedPreferences.getBoolean(KEY_DARK_MODE, true));
         switchAnimations.setChecked(sharedPreferences.getBoolean(KEY_ANIMATIONS, true));
+        updateDifficultyLabel();
     }
 
     private void setupClickListeners() {
@@ -134,6 +145,10 @@ public class SettingsActivity extends AppCompatActivity {
             showToast(isChecked ? "Animations enabled" : "Animations disabled");
         });
 
+        // AI Difficulty
+        MaterialCardView cardAiDifficulty = findViewById(R.id.cardAiDifficulty);
+        cardAiDifficulty.setOnClickListener(v -> showDifficultyDialog());
+
         // Notifications
         MaterialCardView cardNotifications = findViewById(R.id.cardNotifications);
         cardNotifications.setOnClickListener(v -> {
@@ -156,6 +171,36 @@ public class SettingsActivity extends AppCompatActivity {
         });
     }
 
+    private void showDifficultyDialog() {
+        String current = getAiDifficultySetting(this);
+        int checked = 1;
+        for (int i = 0; i < DIFFICULTY_VALUES.length; i++) {
+            if (DIFFICULTY_VALUES[i].equals(current)) {
+                checked = i;
+            }
+        }
+
+        new androidx.appcompat.app.AlertDialog.Builder(this)
+                .setTitle("AI Difficulty")
+                .setSingleChoiceItems(DIFFICULTY_LABELS, checked, (dialog, which) -> {
+                    sharedPreferences.edit().putString(KEY_AI_DIFFICULTY, DIFFICULTY_VALUES[which]).apply();
+                    updateDifficultyLabel();
+                    showToast("AI difficulty: " + DIFFICULTY_LABELS[which]);
+                    dialog.dismiss();
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private void updateDifficultyLabel() {
+        String current = getAiDifficultySetting(this);
+        for (int i = 0; i < DIFFICULTY_VALUES.length; i++) {
+            if (DIFFICULTY_VALUES[i].equals(current)) {
+                tvAiDifficulty.setText(DIFFICULTY_LABELS[i]);
+            }
+        }
+    }
+
     private void saveSetting(String key, boolean value) {
         SharedPreferences.Editor editor = sharedPreferences.edit();
         editor.putBoolean(key, value);
@@ -194,5 +239,10 @@ public class SettingsActivity extends AppCompatActivity {
         SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
         return prefs.getBoolean(KEY_ANIMATIONS, true);
     }
+
+    public static String getAiDifficultySetting(android.content.Context context) {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
+        return prefs.getString(KEY_AI_DIFFICULTY, DIFFICULTY_MEDIUM);
+    }
 }
 
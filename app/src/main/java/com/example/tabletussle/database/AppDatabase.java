@@ -5,14 +5,28 @@ import android.content.Context;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 
-@Database(entities = {User.class, GameRoom.class}, version = 2, exportSchema = false)
+@Database(entities = {User.class, GameRoom.class, GameRecord.class}, version = 3, exportSchema = false)
 public abstract class AppDatabase extends RoomDatabase {
 
     private static AppDatabase instance;
 
     public abstract UserDao userDao();
     public abstract RoomDao roomDao();
+    public abstract GameRecordDao gameRecordDao();
+
+    // Game records were added in version 3: keep the users' accounts and stats
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `game_records` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`userId` INTEGER NOT NULL, `gameMode` TEXT, `moves` TEXT, "
+                    + "`winner` INTEGER NOT NULL, `playedAt` INTEGER NOT NULL, `analysis` TEXT)");
+        }
+    };
 
     public static synchronized AppDatabase getInstance(Context context) {
         if (instance == null) {
@@ -21,6 +35,7 @@ public abstract class AppDatabase extends RoomDatabase {
                 AppDatabase.class,
                 "table_tussle_database"
             )
+            .addMigrations(MIGRATION_2_3)
             .fallbackToDestructiveMigration() // For simplicity - recreate DB on version change
             .allowMainThreadQueries() // Only for simplicity - use background threads in production
             .build();
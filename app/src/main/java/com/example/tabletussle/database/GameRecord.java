@@ -0,0 +1,87 @@
+package com.example.tabletussle.database;
+
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * One finished game: its moves and, once the background review is done,
+ * the per-move analysis (see GameAnalysis.encode)
+ */
+@Entity(tableName = "game_records")
+public class GameRecord {
+
+    @PrimaryKey(autoGenerate = true)
+    private int id;
+
+    private int userId;
+    private String gameMode; // same format as GameRoom.gameMode, e.g. "gomoku_blitz"
+    private String moves;    // cell indices in order, e.g. "4,0,8"
+    private int winner;      // Player.X, Player.O, or Player.EMPTY for a draw
+    private long playedAt;
+    private String analysis; // null until analysed; partial if the review was cut short
+
+    public GameRecord(int userId, String gameMode, String moves, int winner) {
+        this.userId = userId;
+        this.gameMode = gameMode;
+        this.moves = moves;
+        this.winner = winner;
+        this.playedAt = System.currentTimeMillis();
+    }
+
+    // Getters and Setters
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public String getGameMode() {
+        return gameMode;
+    }
+
+    public void setGameMode(String gameMode) {
+        this.gameMode = gameMode;
+    }
+
+    public String getMoves() {
+        return moves;
+    }
+
+    public void setMoves(String moves) {
+        this.moves = moves;
+    }
+
+    public int getWinner() {
+        return winner;
+    }
+
+    public void setWinner(int winner) {
+        this.winner = winner;
+    }
+
+    public long getPlayedAt() {
+        return playedAt;
+    }
+
+    public void setPlayedAt(long playedAt) {
+        this.playedAt = playedAt;
+    }
+
+    public String getAnalysis() {
+        return analysis;
+    }
+
+    public void setAnalysis(String analysis) {
+        this.analysis = analysis;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.tabletussle.database;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+
+import java.util.List;
+
+@Dao
+public interface GameRecordDao {
+
+    @Insert
+    long insertRecord(GameRecord record);
+
+    @Query("UPDATE game_records SET analysis = :analysis WHERE id = :recordId")
+    void updateAnalysis(long recordId, String analysis);
+
+    @Query("SELECT * FROM game_records WHERE id = :recordId LIMIT 1")
+    GameRecord getRecordById(long recordId);
+
+    @Query("SELECT * FROM game_records WHERE userId = :userId ORDER BY playedAt DESC LIMIT :limit")
+    List<GameRecord> getRecentRecords(int userId, int limit);
+}
@@ -10,7 +10,7 @@ public class GameRoom {
 
     private String roomCode;
     private String roomName;
-    private String gameMode; // classic, timed, blitz
+    private String gameMode; // classic, timed, blitz, or board + clock e.g. "gomoku_blitz" (see GameVariant)
     private int hostUserId;
     private long createdAt;
     private boolean isActive;
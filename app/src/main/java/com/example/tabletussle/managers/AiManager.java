@@ -0,0 +1,405 @@
+package com.example.tabletussle.managers;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.os.PowerManager;
+import android.os.Process;
+import android.util.Log;
+
+import com.example.tabletussle.engine.GameVariant;
+import com.example.tabletussle.engine.GridBoard;
+import com.example.tabletussle.engine.Position;
+import com.example.tabletussle.engine.ai.EndgameTablebase;
+import com.example.tabletussle.engine.ai.HintSearch;
+import com.example.tabletussle.engine.ai.LazySmpSearch;
+import com.example.tabletussle.engine.ai.MctsSearch;
+import com.example.tabletussle.engine.ai.NegamaxSearch;
+import com.example.tabletussle.engine.ai.OpeningBook;
+import com.example.tabletussle.engine.ai.PatternEvaluator;
+import com.example.tabletussle.engine.ai.PerfectPlayTable;
+import com.example.tabletussle.engine.ai.SearchResult;
+import com.example.tabletussle.engine.ai.ThreatSearch;
+import com.example.tabletussle.engine.ai.TimeManager;
+import com.example.tabletussle.engine.ai.TranspositionTable;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Owns the shared AI resources (precomputed tables, engines) so they are
+ * loaded once per process instead of once per game
+ */
+public class AiManager {
+    private static final String TAG = "AiManager";
+    private static final String PERFECT_PLAY_ASSET = "perfect_play_3x3.bin";
+    private static final String TABLEBASE_ASSET = "tablebase_4x4.bin";
+    private static final int MCTS_TREE_NODES = 1 << 18;     // ~9 MB with the spare pool
+    private static final int MAX_SEARCH_THREADS = 4;
+    private static final int THREAT_SEARCH_MIN_WIN_LENGTH = 5; // five-in-a-row boards
+    private static final SearchResult NO_RESULT = new SearchResult(Position.NO_MOVE, 0, 0, 0, 0, 0);
+
+    private static AiManager instance;
+    private Context context;
+    private PerfectPlayTable perfectPlayTable;
+    private LazySmpSearch search;
+    private MctsSearch mctsSearch;
+    private ThreatSearch threatSearch;
+    private HintSearch hintSearch;
+    private final Map<GameVariant, OpeningBook> openingBooks = new EnumMap<>(GameVariant.class);
+    private EndgameTablebase tablebase;
+    private boolean tablebaseMissing;
+    private PonderJob ponderJob;
+    private int ponderHits;
+    private int ponderMisses;
+
+    private AiManager(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    public static synchronized AiManager getInstance(Context context) {
+        if (instance == null) {
+            instance = new AiManager(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Solved 3x3 table used by the Hard difficulty.
+     * Loaded from assets on first use (~40 KB); solved in memory if the asset is missing.
+     */
+    public synchronized PerfectPlayTable getPerfectPlayTable() {
+        if (perfectPlayTable == null) {
+            try (InputStream in = context.getAssets().open(PERFECT_PLAY_ASSET)) {
+                perfectPlayTable = PerfectPlayTable.read(in);
+            } catch (IOException e) {
+                Log.e(TAG, "Error loading perfect-play table, solving instead: " + e.getMessage());
+                perfectPlayTable = PerfectPlayTable.solve();
+            }
+        }
+        return perfectPlayTable;
+    }
+
+    /**
+     * Multi-threaded alpha-beta search used by the Hard difficulty on the larger boards.
+     * Run one search at a time; the threads share one transposition table.
+     */
+    public synchronized LazySmpSearch getSearch() {
+        if (search == null) {
+            TranspositionTable table = TranspositionTable.withMemory(transpositionTableBytes());
+            Log.d(TAG, "Transposition table: " + table.memoryBytes() / 1024 + " KB");
+            search = new LazySmpSearch(table, new PatternEvaluator(), searchThreads());
+        }
+        return search;
+    }
+
+    /**
+     * Per-cell evaluation for the hint heatmap. Its own table and fork-join
+     * workers, so a hint never evicts or slows the AI's search.
+     */
+    public synchronized HintSearch getHintSearch() {
+        if (hintSearch == null) {
+            TranspositionTable table = TranspositionTable.withMemory(transpositionTableBytes() / 2);
+            hintSearch = new HintSearch(table, new PatternEvaluator(), searchThreads());
+        }
+        return hintSearch;
+    }
+
+    /**
+     * Monte Carlo tree search for the variants that prefer it. Kept for the
+     * whole process so the tree carries over from one move to the next.
+     */
+    public synchronized MctsSearch getMctsSearch() {
+        if (mctsSearch == null) {
+            mctsSearch = new MctsSearch(MCTS_TREE_NODES, new Random(), searchThreads());
+        }
+        return mctsSearch;
+    }
+
+    /**
+     * Opening book of a large-board variant, or null if it has none.
+     * Memory-mapped straight from the APK on first use: the asset is stored
+     * uncompressed (noCompress in app/build.gradle.kts), so nothing is read
+     * onto the heap.
+     */
+    public synchronized OpeningBook getOpeningBook(GameVariant variant) {
+        if (!variant.hasOpeningBook()) {
+            return null;
+        }
+        if (!openingBooks.containsKey(variant)) {
+            OpeningBook book = null;
+            try (AssetFileDescriptor fd = context.getAssets().openFd(OpeningBook.assetName(variant));
+                 FileInputStream in = new FileInputStream(fd.getFileDescriptor())) {
+                book = OpeningBook.map(in.getChannel(), fd.getStartOffset(), fd.getLength());
+                Log.d(TAG, "Opening book " + variant.id() + ": " + book.entryCount() + " positions");
+            } catch (IOException e) {
+                Log.e(TAG, "Error mapping opening book: " + e.getMessage());
+            }
+            openingBooks.put(variant, book); // null too, so a broken asset is not retried every move
+        }
+        return openingBooks.get(variant);
+    }
+
+    /**
+     * Solved 4x4 endgames, memory-mapped from the APK like the opening books
+     * (~5 MB that never touch the heap); null if the asset is missing
+     */
+    public synchronized EndgameTablebase getTablebase() {
+        if (tablebase == null && !tablebaseMissing) {
+            try (AssetFileDescriptor fd = context.getAssets().openFd(TABLEBASE_ASSET);
+                 FileInputStream in = new FileInputStream(fd.getFileDescriptor())) {
+                tablebase = EndgameTablebase.map(in.getChannel(), fd.getStartOffset(), fd.getLength());
+                Log.d(TAG, "Tablebase: " + tablebase.positionCount() + " positions, up to "
+                        + tablebase.maxEmpty() + " empty cells");
+            } catch (IOException e) {
+                Log.e(TAG, "Error mapping tablebase: " + e.getMessage());
+                tablebaseMissing = true;
+            }
+        }
+        return tablebase;
+    }
+
+    /**
+     * VCF/VCT solver run before the general search on five-in-a-row boards
+     */
+    public synchronized ThreatSearch getThreatSearch() {
+        if (threatSearch == null) {
+            threatSearch = new ThreatSearch();
+        }
+        return threatSearch;
+    }
+
+    /**
+     * Transposition table size by device tier, from the per-app heap limit.
+     * Allocated once, so the search itself never triggers a GC.
+     */
+    private long transpositionTableBytes() {
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        if (activityManager == null || activityManager.isLowRamDevice()) {
+            return 2L << 20;
+        }
+        int heapMb = activityManager.getMemoryClass();
+        if (heapMb >= 512) {
+            return 32L << 20;
+        } else if (heapMb >= 256) {
+            return 16L << 20;
+        } else if (heapMb >= 128) {
+            return 8L << 20;
+        }
+        return 4L << 20;
+    }
+
+    /**
+     * Worker threads for the parallel searches: all cores but one for the UI, at most 4
+     */
+    private static int searchThreads() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return Math.max(1, Math.min(MAX_SEARCH_THREADS, cores - 1));
+    }
+
+    /**
+     * Hard AI move on the larger boards, with the engine the variant prefers.
+     * Tablebase and opening book positions are answered without searching.
+     * Blocks for the time budget, so call it from a background thread; searches
+     * on the same engine run one at a time.
+     */
+    public SearchResult search(GameVariant variant, Position position, TimeManager time) {
+        return search(variant, position, time, null);
+    }
+
+    /**
+     * Search for a ponder job. The job is checked again under each engine's
+     * lock, right before the search starts: a cancel that lands after the
+     * earlier check would otherwise be missed and the search would hold the
+     * engine for its whole budget.
+     */
+    private SearchResult search(GameVariant variant, Position position, TimeManager time, PonderJob job) {
+        if (variant.hasEndgameTablebase() && position instanceof GridBoard) {
+            EndgameTablebase endgames = getTablebase();
+            GridBoard board = (GridBoard) position;
+            int move = endgames == null ? Position.NO_MOVE : endgames.bestMove(board);
+            if (move != Position.NO_MOVE) {
+                // Perfect play, scored like a search that saw the end of the game
+                int distance = endgames.distance(board);
+                int value = endgames.value(board);
+                int score = value == PerfectPlayTable.WIN ? NegamaxSearch.WIN_SCORE - distance
+                        : value == PerfectPlayTable.LOSS ? distance - NegamaxSearch.WIN_SCORE : 0;
+                return new SearchResult(move, score, distance, 0, 0, 0);
+            }
+        }
+        OpeningBook book = getOpeningBook(variant);
+        if (book != null && position instanceof GridBoard) {
+            int move = book.move((GridBoard) position);
+            if (move != Position.NO_MOVE) {
+                return new SearchResult(move, book.score((GridBoard) position), 0, 0, 0, 0);
+            }
+        }
+        if (variant.winLength() >= THREAT_SEARCH_MIN_WIN_LENGTH && position instanceof GridBoard) {
+            // A forced win 20 plies deep is found in milliseconds by only
+            // playing fours and threes; the general search would never see it
+            ThreatSearch threats = getThreatSearch();
+            synchronized (threats) {
+                if (job != null && job.cancelled) {
+                    return NO_RESULT;
+                }
+                SearchResult win = threats.search((GridBoard) position, time.softMillis() / 4);
+                if (win.move() != Position.NO_MOVE) {
+                    Log.d(TAG, "Threat-space win: " + win);
+                    return win;
+                }
+            }
+        }
+        if (variant.prefersMcts()) {
+            MctsSearch mcts = getMctsSearch();
+            synchronized (mcts) {
+                if (job != null && job.cancelled) {
+                    return NO_RESULT;
+                }
+                return mcts.search(position, time);
+            }
+        }
+        LazySmpSearch alphaBeta = getSearch();
+        synchronized (alphaBeta) {
+            if (job != null && job.cancelled) {
+                return NO_RESULT;
+            }
+            SearchResult result = alphaBeta.search(position, time, NegamaxSearch.MAX_PLY);
+            Log.d(TAG, result + String.format(" firstMoveCutoffs=%.1f%%",
+                    alphaBeta.firstMoveCutoffRate() * 100));
+            return result;
+        }
+    }
+
+    /**
+     * Abort a running search, if any (its result is then discarded by the caller)
+     */
+    public synchronized void stopSearch() {
+        if (search != null) {
+            search.stop();
+        }
+        if (mctsSearch != null) {
+            mctsSearch.stop();
+        }
+        if (threatSearch != null) {
+            threatSearch.stop();
+        }
+    }
+
+    /**
+     * Think on the human's time: guess their reply with a short search, then
+     * search the AI's answer to it with the normal budget. Even when the guess
+     * is wrong, the transposition table (or MCTS tree) is warm for the real
+     * reply. Skipped in battery saver mode.
+     *
+     * @param position the position with the human to move (not modified)
+     * @param time     the budget the AI would get for its next move
+     */
+    public void startPondering(GameVariant variant, Position position, TimeManager time) {
+        cancelPondering();
+        PowerManager power = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+        if (power != null && power.isPowerSaveMode()) {
+            Log.d(TAG, "Battery saver on, not pondering");
+            return;
+        }
+        PonderJob job = new PonderJob();
+        job.thread = new Thread(() -> ponder(variant, position.copy(), time, job));
+        synchronized (this) {
+            ponderJob = job;
+        }
+        job.thread.start();
+    }
+
+    private void ponder(GameVariant variant, Position position, TimeManager time, PonderJob job) {
+        // Below the UI thread: the human is still using the board
+        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+        SearchResult guess = search(variant, position, TimeManager.fixed(Math.max(1, time.softMillis() / 4)), job);
+        int reply = guess.move();
+        if (job.cancelled || reply == Position.NO_MOVE) {
+            return;
+        }
+        position.makeMove(reply);
+        if (position.checkWin(reply).isWin() || position.isFull()) {
+            return; // nothing to answer
+        }
+        job.replyHash = position.hash();
+        job.replyKnown = true;
+        job.result = search(variant, position, time, job);
+        Log.d(TAG, "Pondered reply " + reply + ": " + job.result);
+    }
+
+    /**
+     * Stop pondering and return its result if it was for exactly this position
+     * (the human played the expected reply) and found a move, else null. If
+     * the expected reply is still being searched, waits for that search
+     * instead of starting over.
+     * Blocks until the ponder thread exits, so call it from the search thread.
+     */
+    public SearchResult takePonderResult(Position position) {
+        PonderJob job;
+        synchronized (this) {
+            job = ponderJob;
+            ponderJob = null;
+        }
+        if (job == null) {
+            return null;
+        }
+        boolean hit = job.replyKnown && job.replyHash == position.hash();
+        if (!hit) {
+            job.cancelled = true;
+        }
+        try {
+            while (job.thread.isAlive()) {
+                if (!hit) {
+                    // Again each time: a search that was just starting may have missed the last stop
+                    stopSearch();
+                }
+                job.thread.join(10);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        synchronized (this) {
+            if (hit) {
+                ponderHits++;
+            } else {
+                ponderMisses++;
+            }
+            Log.d(TAG, "Ponder " + (hit ? "hit" : "miss") + " (" + ponderHits + " hits, "
+                    + ponderMisses + " misses)");
+        }
+        // A search that was aborted (or never ran) is no answer: search afresh
+        SearchResult result = job.result;
+        return hit && result != null && result.move() != Position.NO_MOVE ? result : null;
+    }
+
+    /**
+     * Abandon pondering without waiting for it (pause, new round, game over)
+     */
+    public void cancelPondering() {
+        PonderJob job;
+        synchronized (this) {
+            job = ponderJob;
+            ponderJob = null;
+        }
+        if (job != null) {
+            job.cancelled = true;
+            stopSearch();
+        }
+    }
+
+    /**
+     * One pondering run; the fields are written by its thread and read after join
+     */
+    private static final class PonderJob {
+        Thread thread;
+        volatile boolean cancelled;
+        volatile boolean replyKnown;
+        volatile long replyHash;
+        volatile SearchResult result;
+    }
+}
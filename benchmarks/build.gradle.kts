@@ -0,0 +1,32 @@
+plugins {
+    java
+}
+
+// JMH benchmarks for the engine's hot paths. Plain JVM like :engine; the
+// annotation processor generates the harness at compile time.
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    implementation(project(":engine"))
+    implementation(libs.jmh.core)
+    annotationProcessor(libs.jmh.generator)
+}
+
+// Runs the benchmarks with the GC profiler, so every result has ns/op and
+// B/op (gc.alloc.rate.norm). Pick benchmarks with a regex and raw JMH flags:
+// ./gradlew :benchmarks:jmh -Pinclude=MoveBenchmark -PjmhArgs="-p variant=gomoku"
+tasks.register<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs the JMH benchmarks with allocation profiling"
+    dependsOn(tasks.classes)
+    val results = layout.buildDirectory.file("reports/jmh/results.json").get().asFile
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    args((findProperty("include") ?: ".*").toString())
+    args("-prof", "gc", "-rf", "json", "-rff", results.absolutePath)
+    findProperty("jmhArgs")?.let { args(it.toString().split(" ").filter { arg -> arg.isNotBlank() }) }
+    doFirst { results.parentFile.mkdirs() }
+}
@@ -0,0 +1,70 @@
+package com.example.tabletussle.benchmarks;
+
+import com.example.tabletussle.engine.GameVariant;
+import com.example.tabletussle.engine.Position;
+import com.example.tabletussle.engine.ai.HeuristicAi;
+import com.example.tabletussle.engine.tools.Tournament;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full AI move selection on a mid-game position of each board: the
+ * Easy/Medium rule-based move and the Hard move at the fixed effort the
+ * tournament runner uses (perfect-play lookup on 3x3, MCTS on 4x4,
+ * alpha-beta elsewhere; see Tournament.create).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AiBenchmark {
+
+    @Param({"classic", "grid4", "grid7", "gomoku", "ultimate", "qubic", "gravity"})
+    public String variant;
+
+    private Position position;
+    private HeuristicAi heuristic;
+    private Tournament.Strategy hard;
+
+    @Setup
+    public void setUp() {
+        GameVariant gameVariant = GameVariant.fromMode(variant);
+        position = BenchmarkPositions.midGame(gameVariant, 42);
+        Random random = new Random(1);
+        heuristic = new HeuristicAi(random);
+        hard = Tournament.create("hard", gameVariant, random);
+    }
+
+    /**
+     * Win, block, centre, corner/near: the smart half of Easy and Medium
+     */
+    @Benchmark
+    public int heuristicMove() {
+        return heuristic.findSmartMove(position);
+    }
+
+    /**
+     * Hard move from a cold start: the transposition table or tree left by
+     * the previous call is cleared first (included in the time)
+     */
+    @Benchmark
+    public int hardMove() {
+        hard.newGame();
+        return hard.chooseMove(position);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.tabletussle.benchmarks;
+
+import com.example.tabletussle.engine.GameVariant;
+import com.example.tabletussle.engine.Position;
+
+import java.util.Random;
+
+/**
+ * Reproducible positions for the benchmarks
+ */
+final class BenchmarkPositions {
+
+    private BenchmarkPositions() {
+    }
+
+    /**
+     * A game in progress: a quarter of the board filled by seeded random
+     * moves, none of them winning, so every benchmark sees the same position
+     */
+    static Position midGame(GameVariant variant, long seed) {
+        Position position = variant.createPosition();
+        Random random = new Random(seed);
+        int[] moves = new int[position.cellCount()];
+        int stones = Math.max(2, position.cellCount() / 4);
+        while (position.moveCount() < stones) {
+            int count = position.generateMoves(moves);
+            int move = moves[random.nextInt(count)];
+            if (!position.wouldWin(move, position.sideToMove())) {
+                position.makeMove(move);
+            }
+        }
+        return position;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.tabletussle.benchmarks;
+
+import com.example.tabletussle.engine.GameVariant;
+import com.example.tabletussle.engine.Position;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Board primitives every search and playout is built from, on a mid-game
+ * position of each board. Each operation cycles through the legal moves and
+ * leaves the position as it found it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveBenchmark {
+
+    @Param({"classic", "grid4", "grid7", "gomoku", "ultimate", "qubic", "gravity"})
+    public String variant;
+
+    private Position position;
+    private int[] legal;
+    private int next;
+    private int[] moves;
+    private Random random;
+
+    @Setup
+    public void setUp() {
+        position = BenchmarkPositions.midGame(GameVariant.fromMode(variant), 42);
+        moves = new int[position.cellCount()];
+        legal = Arrays.copyOf(moves, position.generateMoves(moves));
+        random = new Random(1);
+    }
+
+    private int nextMove() {
+        int move = legal[next];
+        next = next + 1 == legal.length ? 0 : next + 1;
+        return move;
+    }
+
+    /**
+     * Apply a move and take it back (incremental hash and patterns included)
+     */
+    @Benchmark
+    public long makeUnmakeMove() {
+        int move = nextMove();
+        position.makeMove(move);
+        long hash = position.hash();
+        position.unmakeMove(move);
+        return hash;
+    }
+
+    /**
+     * Apply a move, check the lines through it for a win, take it back
+     */
+    @Benchmark
+    public boolean makeCheckWinUnmake() {
+        int move = nextMove();
+        position.makeMove(move);
+        boolean win = position.checkWin(move).isWin();
+        position.unmakeMove(move);
+        return win;
+    }
+
+    /**
+     * Win probe without touching the board, as HeuristicAi uses it
+     */
+    @Benchmark
+    public boolean wouldWin() {
+        return position.wouldWin(nextMove(), position.sideToMove());
+    }
+
+    /**
+     * Legal move list and a uniform pick: one step of a random playout
+     */
+    @Benchmark
+    public int randomMove() {
+        int count = position.generateMoves(moves);
+        return moves[random.nextInt(count)];
+    }
+}
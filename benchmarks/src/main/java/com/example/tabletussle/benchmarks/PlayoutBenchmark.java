@@ -0,0 +1,85 @@
+package com.example.tabletussle.benchmarks;
+
+import com.example.tabletussle.engine.GameVariant;
+import com.example.tabletussle.engine.Player;
+import com.example.tabletussle.engine.Position;
+import com.example.tabletussle.engine.tools.Tournament;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole games from the empty board to a win or a full board: uniformly
+ * random (an MCTS playout) and Medium against itself (a tournament game)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlayoutBenchmark {
+
+    @Param({"classic", "grid4", "grid7", "gomoku", "ultimate", "qubic", "gravity"})
+    public String variant;
+
+    private Position position;
+    private int[] moves;
+    private Random random;
+    private Tournament.Strategy medium;
+
+    @Setup
+    public void setUp() {
+        GameVariant gameVariant = GameVariant.fromMode(variant);
+        position = gameVariant.createPosition();
+        moves = new int[position.cellCount()];
+        random = new Random(1);
+        medium = Tournament.create("medium", gameVariant, random);
+    }
+
+    /**
+     * @return the winner, Player.EMPTY for a draw
+     */
+    @Benchmark
+    public int randomPlayout() {
+        position.reset();
+        while (true) {
+            int count = position.generateMoves(moves);
+            if (count == 0) {
+                return Player.EMPTY;
+            }
+            int move = moves[random.nextInt(count)];
+            int player = position.sideToMove();
+            position.makeMove(move);
+            if (position.checkWin(move).isWin()) {
+                return player;
+            }
+        }
+    }
+
+    @Benchmark
+    public int mediumSelfPlay() {
+        position.reset();
+        while (!position.isFull()) {
+            int move = medium.chooseMove(position);
+            int player = position.sideToMove();
+            position.makeMove(move);
+            if (position.checkWin(move).isWin()) {
+                return player;
+            }
+        }
+        return Player.EMPTY;
+    }
+}
@@ -0,0 +1,83 @@
+plugins {
+    `java-library`
+}
+
+// Pure-Java game rules and AI. No Android dependencies so everything here
+// can be unit-tested and benchmarked on a plain JVM.
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    testImplementation(libs.junit)
+}
+
+// Solves every 3x3 position and regenerates the table shipped with the app.
+// Run after changing the table format: ./gradlew :engine:generatePerfectPlayTable
+tasks.register<JavaExec>("generatePerfectPlayTable") {
+    group = "build"
+    description = "Writes the perfect-play 3x3 table asset used by the Hard AI"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.example.tabletussle.engine.tools.PerfectPlayTableGenerator")
+    args(file("../app/src/main/assets/perfect_play_3x3.bin").absolutePath)
+}
+
+// Playouts/s of the parallel MCTS for 1..N threads.
+// ./gradlew :engine:mctsScaling -Pthreads=8 -Pvariant=grid7 -Pmillis=2000
+tasks.register<JavaExec>("mctsScaling") {
+    group = "verification"
+    description = "Measures parallel MCTS throughput per thread count"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.example.tabletussle.engine.tools.MctsScalingBenchmark")
+    args(
+        (findProperty("threads") ?: Runtime.getRuntime().availableProcessors()).toString(),
+        (findProperty("variant") ?: "grid7").toString(),
+        (findProperty("millis") ?: "2000").toString()
+    )
+}
+
+// Searches the first moves of the 7x7 and Gomoku boards and rewrites the
+// opening book assets. Takes a few minutes: ./gradlew :engine:generateOpeningBooks
+tasks.register<JavaExec>("generateOpeningBooks") {
+    group = "build"
+    description = "Writes the opening book assets used by the Hard AI on large boards"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.example.tabletussle.engine.tools.OpeningBookBuilder")
+    args(file("../app/src/main/assets").absolutePath)
+}
+
+// Solves the 4x4 endgames (~5 MB for 10 empty cells, a few seconds). Too big
+// to keep in git, so the app build generates it into its assets; see
+// app/build.gradle.kts. ./gradlew :engine:generateTablebase -PmaxEmpty=10
+tasks.register<JavaExec>("generateTablebase") {
+    group = "build"
+    description = "Writes the 4x4 endgame tablebase asset used by the Hard AI"
+    val maxEmpty = (findProperty("maxEmpty") ?: "10").toString()
+    val output = rootProject.file("app/build/generated/tablebase/tablebase_4x4.bin")
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.example.tabletussle.engine.tools.TablebaseGenerator")
+    args(output.absolutePath, maxEmpty)
+    inputs.files(sourceSets["main"].runtimeClasspath)
+    inputs.property("maxEmpty", maxEmpty)
+    outputs.file(output)
+}
+
+// Self-play strength and throughput gate: W/D/L with a 95% interval, games/s
+// and move latency percentiles, on all cores.
+// ./gradlew :engine:tournament -Pa=medium -Pb=easy -Pgames=1000000 -Pvariant=classic
+tasks.register<JavaExec>("tournament") {
+    group = "verification"
+    description = "Plays two AI strategies against each other and reports strength and speed"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.example.tabletussle.engine.tools.Tournament")
+    args(
+        (findProperty("a") ?: "medium").toString(),
+        (findProperty("b") ?: "easy").toString(),
+        (findProperty("games") ?: "100000").toString(),
+        (findProperty("variant") ?: "classic").toString(),
+        (findProperty("threads") ?: Runtime.getRuntime().availableProcessors()).toString(),
+        (findProperty("opening") ?: "0").toString(),
+        (findProperty("seed") ?: "1").toString()
+    )
+}
@@ -0,0 +1,29 @@
+package com.example.tabletussle.engine;
+
+import java.util.Random;
+
+/**
+ * Small bit tricks shared by the board and AI code
+ */
+public final class Bits {
+
+    private Bits() {
+    }
+
+    /**
+     * Index of the n-th (0-based) set bit of the mask
+     */
+    public static int nthSetBit(int mask, int n) {
+        for (int i = 0; i < n; i++) {
+            mask &= mask - 1;
+        }
+        return Integer.numberOfTrailingZeros(mask);
+    }
+
+    /**
+     * Index of a uniformly random set bit (mask must not be 0)
+     */
+    public static int randomSetBit(int mask, Random random) {
+        return nthSetBit(mask, random.nextInt(Integer.bitCount(mask)));
+    }
+}
@@ -0,0 +1,320 @@
+package com.example.tabletussle.engine;
+
+import java.util.Arrays;
+
+/**
+ * 3x3 tic-tac-toe board backed by two 9-bit masks, one per player.
+ *
+ * Cell index is row * 3 + col and maps to bit (1 << index). A move is just
+ * the cell index packed into an int, so making and unmaking moves never
+ * allocates.
+ */
+public final class Board implements Position {
+    public static final int SIZE = 3;
+    public static final int CELLS = 9;
+    public static final int FULL_MASK = 0x1FF;
+
+    // Number of base-3 board encodings (3^9), see index()
+    public static final int INDEX_COUNT = 19683;
+
+    public static final int CENTER_MASK = 0b000_010_000;
+    public static final int CORNER_MASK = 0b101_000_101;
+
+    // All 8 winning lines: rows, columns, diagonals
+    public static final int[] WIN_MASKS = {
+            0b000_000_111, 0b000_111_000, 0b111_000_000,
+            0b001_001_001, 0b010_010_010, 0b100_100_100,
+            0b100_010_001, 0b001_010_100
+    };
+
+    // Winning lines passing through each cell (2 to 4 per cell)
+    private static final int[][] LINES_THROUGH = new int[CELLS][];
+
+    // Shared results so a win check never allocates: [player][line index]
+    private static final WinResult[][] RESULTS = new WinResult[3][WIN_MASKS.length];
+
+    // Base-3 weight of a 9-bit mask: sum of 3^i over set bits
+    private static final int[] BASE3 = new int[FULL_MASK + 1];
+
+    private static final long[][] ZOBRIST = Zobrist.keys(CELLS);
+
+    static {
+        for (int cell = 0; cell < CELLS; cell++) {
+            int count = 0;
+            int[] lines = new int[4];
+            for (int i = 0; i < WIN_MASKS.length; i++) {
+                if ((WIN_MASKS[i] & (1 << cell)) != 0) {
+                    lines[count++] = i;
+                }
+            }
+            LINES_THROUGH[cell] = Arrays.copyOf(lines, count);
+        }
+        for (int i = 0; i < WIN_MASKS.length; i++) {
+            RESULTS[Player.X][i] = new WinResult(Player.X, WIN_MASKS[i]);
+            RESULTS[Player.O][i] = new WinResult(Player.O, WIN_MASKS[i]);
+        }
+        for (int mask = 1; mask <= FULL_MASK; mask++) {
+            int low = Integer.numberOfTrailingZeros(mask);
+            int weight = 1;
+            for (int i = 0; i < low; i++) {
+                weight *= 3;
+            }
+            BASE3[mask] = BASE3[mask & (mask - 1)] + weight;
+        }
+    }
+
+    private int xMask;
+    private int oMask;
+    private int sideToMove = Player.X;
+    private int moveCount;
+    private long hash;
+
+    public Board() {
+    }
+
+    public Board(Board other) {
+        this.xMask = other.xMask;
+        this.oMask = other.oMask;
+        this.sideToMove = other.sideToMove;
+        this.moveCount = other.moveCount;
+        this.hash = other.hash;
+    }
+
+    /**
+     * Pack a row/column pair into a move
+     */
+    public static int move(int row, int col) {
+        return row * SIZE + col;
+    }
+
+    public static int row(int move) {
+        return move / SIZE;
+    }
+
+    public static int col(int move) {
+        return move % SIZE;
+    }
+
+    /**
+     * Base-3 encoding of a position: digit i is 0 (empty), 1 (X) or 2 (O).
+     * Two table lookups, suitable for indexing precomputed tables.
+     */
+    public static int index(int xMask, int oMask) {
+        return BASE3[xMask] + 2 * BASE3[oMask];
+    }
+
+    public int index() {
+        return index(xMask, oMask);
+    }
+
+    @Override
+    public int rows() {
+        return SIZE;
+    }
+
+    @Override
+    public int columns() {
+        return SIZE;
+    }
+
+    @Override
+    public int cellCount() {
+        return CELLS;
+    }
+
+    @Override
+    public int winLength() {
+        return SIZE;
+    }
+
+    /**
+     * Clear the board for a new round
+     */
+    @Override
+    public void reset() {
+        xMask = 0;
+        oMask = 0;
+        sideToMove = Player.X;
+        moveCount = 0;
+        hash = 0;
+    }
+
+    /**
+     * Get the player occupying a cell, or Player.EMPTY
+     */
+    @Override
+    public int get(int cell) {
+        int bit = 1 << cell;
+        if ((xMask & bit) != 0) return Player.X;
+        if ((oMask & bit) != 0) return Player.O;
+        return Player.EMPTY;
+    }
+
+    public boolean isEmpty(int cell) {
+        return ((xMask | oMask) & (1 << cell)) == 0;
+    }
+
+    @Override
+    public boolean isLegal(int move) {
+        return move >= 0 && move < CELLS && isEmpty(move);
+    }
+
+    @Override
+    public boolean movesAreEmptyCells() {
+        return true;
+    }
+
+    @Override
+    public int generateMoves(int[] moves) {
+        int count = 0;
+        for (int empty = emptyMask(); empty != 0; empty &= empty - 1) {
+            moves[count++] = Integer.numberOfTrailingZeros(empty);
+        }
+        return count;
+    }
+
+    /**
+     * Bitmask of all empty cells - iterate with Integer.numberOfTrailingZeros
+     */
+    public int emptyMask() {
+        return ~(xMask | oMask) & FULL_MASK;
+    }
+
+    /**
+     * Bitmask of the cells owned by a player
+     */
+    public int mask(int player) {
+        return player == Player.X ? xMask : oMask;
+    }
+
+    @Override
+    public int sideToMove() {
+        return sideToMove;
+    }
+
+    @Override
+    public int moveCount() {
+        return moveCount;
+    }
+
+    @Override
+    public long hash() {
+        return hash;
+    }
+
+    /**
+     * Place the side to move on an empty cell and pass the turn
+     */
+    @Override
+    public void makeMove(int move) {
+        if (sideToMove == Player.X) {
+            xMask |= 1 << move;
+        } else {
+            oMask |= 1 << move;
+        }
+        hash ^= ZOBRIST[sideToMove][move];
+        moveCount++;
+        sideToMove = Player.opponent(sideToMove);
+    }
+
+    /**
+     * Take back a move made with makeMove (must be the last one)
+     */
+    @Override
+    public void unmakeMove(int move) {
+        sideToMove = Player.opponent(sideToMove);
+        moveCount--;
+        if (sideToMove == Player.X) {
+            xMask &= ~(1 << move);
+        } else {
+            oMask &= ~(1 << move);
+        }
+        hash ^= ZOBRIST[sideToMove][move];
+    }
+
+    /**
+     * Check if the player has three in a row anywhere on the board
+     */
+    public boolean hasWon(int player) {
+        return winningLine(player) != 0;
+    }
+
+    /**
+     * Get the mask of a completed line for the player, or 0 if none
+     */
+    public int winningLine(int player) {
+        int mask = mask(player);
+        for (int line : WIN_MASKS) {
+            if ((mask & line) == line) {
+                return line;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Check whether the last move completed a line. Only the lines through
+     * that cell are tested; no side effects, no allocation.
+     */
+    @Override
+    public WinResult checkWin(int lastMove) {
+        int player = get(lastMove);
+        if (player == Player.EMPTY) {
+            return WinResult.NONE;
+        }
+        int mask = mask(player);
+        for (int i : LINES_THROUGH[lastMove]) {
+            int line = WIN_MASKS[i];
+            if ((mask & line) == line) {
+                return RESULTS[player][i];
+            }
+        }
+        return WinResult.NONE;
+    }
+
+    /**
+     * Check if placing the player on an empty cell would complete a line.
+     * Pure mask test, the board is not modified.
+     */
+    @Override
+    public boolean wouldWin(int cell, int player) {
+        int mask = mask(player) | (1 << cell);
+        for (int i : LINES_THROUGH[cell]) {
+            int line = WIN_MASKS[i];
+            if ((mask & line) == line) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isFull() {
+        return moveCount == CELLS;
+    }
+
+    /**
+     * Game over when either player has a line or the board is full
+     */
+    public boolean isGameOver() {
+        return isFull() || hasWon(Player.X) || hasWon(Player.O);
+    }
+
+    @Override
+    public Board copy() {
+        return new Board(this);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(12);
+        for (int cell = 0; cell < CELLS; cell++) {
+            int player = get(cell);
+            sb.append(player == Player.EMPTY ? "." : Player.symbol(player));
+            if (col(cell) == SIZE - 1 && cell != CELLS - 1) {
+                sb.append('/');
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.tabletussle.engine;
+
+/**
+ * Board variants selectable from the room/game mode.
+ *
+ * A game mode string (GameRoom.gameMode) is either a time control alone
+ * ("classic", "timed", "blitz" - played on the 3x3 board) or a variant id,
+ * optionally followed by "_" and a time control, e.g. "gomoku_blitz".
+ * The clock part is parsed by TimeControl.
+ */
+public enum GameVariant {
+    CLASSIC("classic", "Classic 3x3", 3, 3),
+    GRID_4("grid4", "4x4 (4 in a row)", 4, 4),
+    GRID_7("grid7", "7x7 (5 in a row)", 7, 5),
+    GOMOKU("gomoku", "Gomoku 15x15", 15, 5),
+    ULTIMATE("ultimate", "Ultimate 3x3", 9, 3), // 9 sub-boards, see UltimateBoard
+    QUBIC("qubic", "3D 4x4x4", 8, 4),           // 4 layers shown as an 8x8 grid, see QubicBoard
+    GRAVITY("gravity", "Connect Four 6x7", 6, 7, 4),   // stones drop, see GravityBoard
+    GRAVITY_8("gravity8", "Connect Four 7x8", 7, 8, 4);
+
+    private final String id;
+    private final String displayName;
+    private final int rows;
+    private final int size;
+    private final int winLength;
+
+    GameVariant(String id, String displayName, int size, int winLength) {
+        this(id, displayName, size, size, winLength);
+    }
+
+    GameVariant(String id, String displayName, int rows, int columns, int winLength) {
+        this.id = id;
+        this.displayName = displayName;
+        this.rows = rows;
+        this.size = columns;
+        this.winLength = winLength;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public String displayName() {
+        return displayName;
+    }
+
+    /**
+     * Columns of the board; rows as well, except on gravity boards
+     */
+    public int size() {
+        return size;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int winLength() {
+        return winLength;
+    }
+
+    /**
+     * Whether the Hard AI uses Monte Carlo tree search rather than alpha-beta.
+     * Random playouts are informative on small boards and in Ultimate (which
+     * has no line windows to evaluate); larger boards need the window
+     * evaluator to play well.
+     */
+    public boolean prefersMcts() {
+        return this == GRID_4 || this == ULTIMATE;
+    }
+
+    /**
+     * Whether stones drop to the bottom of the column that is played
+     */
+    public boolean hasGravity() {
+        return this == GRAVITY || this == GRAVITY_8;
+    }
+
+    /**
+     * Whether an opening book asset is shipped for this variant (see OpeningBook)
+     */
+    public boolean hasOpeningBook() {
+        return this == GRID_7 || this == GOMOKU;
+    }
+
+    /**
+     * Whether the endgame tablebase covers this variant (see EndgameTablebase)
+     */
+    public boolean hasEndgameTablebase() {
+        return this == GRID_4;
+    }
+
+    /**
+     * Fresh board for this variant. The 3x3 game keeps the specialized mask board.
+     */
+    public Position createPosition() {
+        if (this == CLASSIC) {
+            return new Board();
+        }
+        if (this == ULTIMATE) {
+            return new UltimateBoard();
+        }
+        if (this == QUBIC) {
+            return new QubicBoard();
+        }
+        if (hasGravity()) {
+            return new GravityBoard(rows, size);
+        }
+        return new GridBoard(size, winLength);
+    }
+
+    /**
+     * Variant encoded in a game mode string; anything unknown plays on 3x3
+     */
+    public static GameVariant fromMode(String mode) {
+        if (mode != null) {
+            int separator = mode.indexOf('_');
+            String variantId = separator >= 0 ? mode.substring(0, separator) : mode;
+            for (GameVariant variant : values()) {
+                if (variant.id.equals(variantId)) {
+                    return variant;
+                }
+            }
+        }
+        return CLASSIC;
+    }
+
+    /**
+     * Game mode string for this variant with the given time control
+     */
+    public String toMode(String timeControl) {
+        if (this == CLASSIC) {
+            return timeControl;
+        }
+        if (timeControl == null || timeControl.equals(CLASSIC.id)) {
+            return id;
+        }
+        return id + "_" + timeControl;
+    }
+}
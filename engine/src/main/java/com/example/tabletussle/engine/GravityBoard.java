@@ -0,0 +1,368 @@
+package com.example.tabletussle.engine;
+
+import java.util.Arrays;
+
+/**
+ * Gravity (Connect Four) board: a stone drops to the lowest free cell of
+ * its column, four in a row wins.
+ *
+ * Uses the classic column-height bitboard: each column takes rows + 1 bits
+ * (bottom row first, plus an always-empty sentinel bit on top), so a stone's
+ * neighbours are 1 bit up, rows + 1 bits across and rows or rows + 2 bits
+ * along the diagonals, and shifts never wrap from one column into the next.
+ * Move generation reads one height per column and a four-in-a-row test is
+ * two shift-and-ANDs per direction. To the game screen it is a plain grid
+ * with row 0 on top; cell indices are row-major like every other Position.
+ *
+ * Like GridBoard, the board keeps a line score from X's point of view up to
+ * date in make/unmake: every window of four only one player occupies is
+ * worth LinePatterns.weight(stones) to that player.
+ */
+public final class GravityBoard implements Position, LineScored {
+
+    public static final int WIN_LENGTH = 4;
+
+    private final int rows;
+    private final int columns;
+    private final int height; // bits per column: rows + 1
+    private final int cellCount;
+
+    // Immutable layout shared between copies
+    private final int[] bitOfCell;
+    private final int[] cellOfBit;
+    private final int[] columnOrder;  // centre first: better cutoffs for the search
+    private final long[] windows;     // every horizontal, vertical and diagonal four
+    private final int[][] bitWindows; // windows containing each bit
+    private final WinResult[][] results; // [player][window]
+    private final long[][] zobrist;
+
+    // Mutable state
+    private long xBits;
+    private long oBits;
+    private final int[] heights; // next free bit of each column
+    private int sideToMove = Player.X;
+    private int moveCount;
+    private long hash;
+    private int lineScore;
+
+    public GravityBoard(int rows, int columns) {
+        if (rows < WIN_LENGTH || columns < WIN_LENGTH || (rows + 1) * columns > Long.SIZE) {
+            throw new IllegalArgumentException("Unsupported gravity board " + rows + "x" + columns);
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.height = rows + 1;
+        this.cellCount = rows * columns;
+
+        bitOfCell = new int[cellCount];
+        cellOfBit = new int[height * columns];
+        Arrays.fill(cellOfBit, NO_MOVE);
+        for (int cell = 0; cell < cellCount; cell++) {
+            int bit = (cell % columns) * height + (rows - 1 - cell / columns);
+            bitOfCell[cell] = bit;
+            cellOfBit[bit] = cell;
+        }
+
+        // Centre column(s) first, then alternately one further left and right
+        columnOrder = new int[columns];
+        for (int i = 0; i < columns; i++) {
+            int offset = (i + 1) / 2;
+            columnOrder[i] = (columns - 1) / 2 + ((i & 1) == 1 ? offset : -offset);
+        }
+
+        // Windows of four in screen coordinates: right, down, down-right, down-left
+        int[] dRow = {0, 1, 1, 1};
+        int[] dCol = {1, 0, 1, -1};
+        long[] found = new long[cellCount * dRow.length];
+        int[][] cellsOf = new int[found.length][];
+        int count = 0;
+        for (int d = 0; d < dRow.length; d++) {
+            for (int cell = 0; cell < cellCount; cell++) {
+                int endRow = cell / columns + (WIN_LENGTH - 1) * dRow[d];
+                int endCol = cell % columns + (WIN_LENGTH - 1) * dCol[d];
+                if (endRow >= rows || endCol < 0 || endCol >= columns) {
+                    continue;
+                }
+                int[] cells = new int[WIN_LENGTH];
+                long mask = 0;
+                for (int i = 0; i < WIN_LENGTH; i++) {
+                    cells[i] = cell + i * (dRow[d] * columns + dCol[d]);
+                    mask |= 1L << bitOfCell[cells[i]];
+                }
+                cellsOf[count] = cells;
+                found[count++] = mask;
+            }
+        }
+        windows = Arrays.copyOf(found, count);
+        results = new WinResult[3][count];
+        int[] perBit = new int[cellOfBit.length];
+        for (int w = 0; w < count; w++) {
+            results[Player.X][w] = new WinResult(Player.X, cellsOf[w]);
+            results[Player.O][w] = new WinResult(Player.O, cellsOf[w].clone());
+            for (long bits = windows[w]; bits != 0; bits &= bits - 1) {
+                perBit[Long.numberOfTrailingZeros(bits)]++;
+            }
+        }
+        bitWindows = new int[cellOfBit.length][];
+        for (int bit = 0; bit < cellOfBit.length; bit++) {
+            bitWindows[bit] = new int[perBit[bit]];
+            perBit[bit] = 0;
+        }
+        for (int w = 0; w < count; w++) {
+            for (long bits = windows[w]; bits != 0; bits &= bits - 1) {
+                int bit = Long.numberOfTrailingZeros(bits);
+                bitWindows[bit][perBit[bit]++] = w;
+            }
+        }
+        zobrist = Zobrist.keys(cellCount);
+
+        heights = new int[columns];
+        for (int col = 0; col < columns; col++) {
+            heights[col] = col * height;
+        }
+    }
+
+    public GravityBoard(GravityBoard other) {
+        rows = other.rows;
+        columns = other.columns;
+        height = other.height;
+        cellCount = other.cellCount;
+        bitOfCell = other.bitOfCell;
+        cellOfBit = other.cellOfBit;
+        columnOrder = other.columnOrder;
+        windows = other.windows;
+        bitWindows = other.bitWindows;
+        results = other.results;
+        zobrist = other.zobrist;
+        xBits = other.xBits;
+        oBits = other.oBits;
+        heights = other.heights.clone();
+        sideToMove = other.sideToMove;
+        moveCount = other.moveCount;
+        hash = other.hash;
+        lineScore = other.lineScore;
+    }
+
+    /**
+     * Cell a stone dropped into this column lands on, or NO_MOVE if it is full
+     */
+    public int landingCell(int column) {
+        int bit = heights[column];
+        return bit < column * height + rows ? cellOfBit[bit] : NO_MOVE;
+    }
+
+    /**
+     * Stones of a player in the column-height bit layout
+     */
+    public long bits(int player) {
+        return player == Player.X ? xBits : oBits;
+    }
+
+    /**
+     * Sum of the window values from X's point of view, maintained in make/unmake
+     */
+    @Override
+    public int lineScore() {
+        return lineScore;
+    }
+
+    /**
+     * Four in a row anywhere: two shift-and-ANDs per direction
+     */
+    private boolean hasFour(long bits) {
+        // Vertical, horizontal, then the two diagonals
+        long m = bits & (bits >>> 1);
+        if ((m & (m >>> 2)) != 0) return true;
+        m = bits & (bits >>> height);
+        if ((m & (m >>> 2 * height)) != 0) return true;
+        m = bits & (bits >>> (height + 1));
+        if ((m & (m >>> 2 * (height + 1))) != 0) return true;
+        m = bits & (bits >>> (height - 1));
+        return (m & (m >>> 2 * (height - 1))) != 0;
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int columns() {
+        return columns;
+    }
+
+    @Override
+    public int cellCount() {
+        return cellCount;
+    }
+
+    @Override
+    public int winLength() {
+        return WIN_LENGTH;
+    }
+
+    @Override
+    public int get(int cell) {
+        long bit = 1L << bitOfCell[cell];
+        if ((xBits & bit) != 0) return Player.X;
+        if ((oBits & bit) != 0) return Player.O;
+        return Player.EMPTY;
+    }
+
+    /**
+     * Only the landing cell of a column is legal
+     */
+    @Override
+    public boolean isLegal(int move) {
+        return move >= 0 && move < cellCount && landingCell(move % columns) == move;
+    }
+
+    @Override
+    public int sideToMove() {
+        return sideToMove;
+    }
+
+    @Override
+    public int moveCount() {
+        return moveCount;
+    }
+
+    @Override
+    public long hash() {
+        return hash;
+    }
+
+    /**
+     * One move per column that is not full, centre columns first
+     */
+    @Override
+    public int generateMoves(int[] moves) {
+        int count = 0;
+        for (int col : columnOrder) {
+            int cell = landingCell(col);
+            if (cell != NO_MOVE) {
+                moves[count++] = cell;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void makeMove(int move) {
+        int bit = heights[move % columns]++;
+        lineScore -= windowsScore(bit);
+        if (sideToMove == Player.X) {
+            xBits |= 1L << bit;
+        } else {
+            oBits |= 1L << bit;
+        }
+        lineScore += windowsScore(bit);
+        hash ^= zobrist[sideToMove][move];
+        moveCount++;
+        sideToMove = Player.opponent(sideToMove);
+    }
+
+    @Override
+    public void unmakeMove(int move) {
+        sideToMove = Player.opponent(sideToMove);
+        moveCount--;
+        int bit = --heights[move % columns];
+        lineScore -= windowsScore(bit);
+        xBits &= ~(1L << bit);
+        oBits &= ~(1L << bit);
+        lineScore += windowsScore(bit);
+        hash ^= zobrist[sideToMove][move];
+    }
+
+    private int windowsScore(int bit) {
+        int score = 0;
+        for (int w : bitWindows[bit]) {
+            score += windowValue(windows[w]);
+        }
+        return score;
+    }
+
+    private int windowValue(long window) {
+        int x = Long.bitCount(xBits & window);
+        int o = Long.bitCount(oBits & window);
+        if (o == 0) {
+            return LinePatterns.weight(x);
+        }
+        return x == 0 ? -LinePatterns.weight(o) : 0;
+    }
+
+    /**
+     * Line score computed from scratch over all windows (tests, evaluators)
+     */
+    @Override
+    public int scanLineScore() {
+        int score = 0;
+        for (long window : windows) {
+            score += windowValue(window);
+        }
+        return score;
+    }
+
+    /**
+     * The shift test answers whether there is a four; only then are the
+     * windows through the last move searched for the cells to highlight
+     */
+    @Override
+    public WinResult checkWin(int lastMove) {
+        int player = get(lastMove);
+        if (player == Player.EMPTY) {
+            return WinResult.NONE;
+        }
+        long bits = bits(player);
+        if (!hasFour(bits)) {
+            return WinResult.NONE;
+        }
+        for (int w : bitWindows[bitOfCell[lastMove]]) {
+            if ((bits & windows[w]) == windows[w]) {
+                return results[player][w];
+            }
+        }
+        return WinResult.NONE;
+    }
+
+    @Override
+    public boolean wouldWin(int move, int player) {
+        return hasFour(bits(player) | (1L << bitOfCell[move]));
+    }
+
+    @Override
+    public boolean isFull() {
+        return moveCount == cellCount;
+    }
+
+    @Override
+    public void reset() {
+        xBits = 0;
+        oBits = 0;
+        for (int col = 0; col < columns; col++) {
+            heights[col] = col * height;
+        }
+        sideToMove = Player.X;
+        moveCount = 0;
+        hash = 0;
+        lineScore = 0;
+    }
+
+    @Override
+    public GravityBoard copy() {
+        return new GravityBoard(this);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(cellCount + rows);
+        for (int cell = 0; cell < cellCount; cell++) {
+            int player = get(cell);
+            sb.append(player == Player.EMPTY ? "." : Player.symbol(player));
+            if (cell % columns == columns - 1 && cell != cellCount - 1) {
+                sb.append('/');
+            }
+        }
+        return sb.toString();
+    }
+}
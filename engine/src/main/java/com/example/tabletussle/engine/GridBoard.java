@@ -0,0 +1,463 @@
+package com.example.tabletussle.engine;
+
+/**
+ * N x N k-in-a-row board (4x4/4, 7x7/5, Gomoku 15x15/5, ...).
+ *
+ * Stones are kept as one bitboard per row and player. Every horizontal,
+ * vertical and diagonal window of k cells has a stone counter per player
+ * that make/unmake update incrementally, so both moves and win checks cost
+ * O(windows through the cell) = O(k) no matter how large the board is.
+ * For k up to LinePatterns.MAX_LENGTH each window also keeps its base-3
+ * pattern index, and the sum of the pattern scores is kept the same way.
+ */
+public final class GridBoard implements Position, LineScored {
+
+    public static final int MAX_SIZE = 31; // one int per row
+
+    // Window directions: right, down, down-right, down-left
+    private static final int[] DIRECTION_ROW = {0, 1, 1, 1};
+    private static final int[] DIRECTION_COL = {1, 0, 1, -1};
+
+    private final int size;
+    private final int winLength;
+    private final int cellCount;
+    private final int rowMask;
+
+    // Immutable layout shared between copies
+    private final int[] windowCells;   // window w = cells [w * k, w * k + k)
+    private final int[][] cellWindows; // windows containing each cell
+    private final int[][] cellPowers;  // 3^step of the cell in each of those windows
+    private final int[] patternScores; // LinePatterns table, or null if k is too long
+    private final WinResult[][] results; // [player][window]
+    private final long[][] zobrist;
+
+    // Mutable state
+    private final int[] xRows;
+    private final int[] oRows;
+    private final byte[] xCounts; // X stones per window
+    private final byte[] oCounts; // O stones per window
+    private final int[] patterns; // base-3 index per window
+    private int lineScore;
+    private int sideToMove = Player.X;
+    private int moveCount;
+    private long hash;
+
+    public GridBoard(int size, int winLength) {
+        if (size < 1 || size > MAX_SIZE || winLength < 1 || winLength > size) {
+            throw new IllegalArgumentException("Unsupported board " + size + "x" + size + "/" + winLength);
+        }
+        this.size = size;
+        this.winLength = winLength;
+        this.cellCount = size * size;
+        this.rowMask = (1 << size) - 1;
+
+        // Count windows first so the tables can be exact-sized
+        int windows = 0;
+        int[] perCell = new int[cellCount];
+        for (int d = 0; d < DIRECTION_ROW.length; d++) {
+            for (int r = 0; r < size; r++) {
+                for (int c = 0; c < size; c++) {
+                    if (fits(r, c, d)) {
+                        for (int i = 0; i < winLength; i++) {
+                            perCell[cellAt(r, c, d, i)]++;
+                        }
+                        windows++;
+                    }
+                }
+            }
+        }
+
+        windowCells = new int[windows * winLength];
+        cellWindows = new int[cellCount][];
+        cellPowers = new int[cellCount][];
+        for (int cell = 0; cell < cellCount; cell++) {
+            cellWindows[cell] = new int[perCell[cell]];
+            cellPowers[cell] = new int[perCell[cell]];
+            perCell[cell] = 0;
+        }
+        results = new WinResult[3][windows];
+
+        int w = 0;
+        for (int d = 0; d < DIRECTION_ROW.length; d++) {
+            for (int r = 0; r < size; r++) {
+                for (int c = 0; c < size; c++) {
+                    if (!fits(r, c, d)) {
+                        continue;
+                    }
+                    int[] line = new int[winLength];
+                    int power = 1;
+                    for (int i = 0; i < winLength; i++) {
+                        int cell = cellAt(r, c, d, i);
+                        line[i] = cell;
+                        windowCells[w * winLength + i] = cell;
+                        cellPowers[cell][perCell[cell]] = power;
+                        cellWindows[cell][perCell[cell]++] = w;
+                        power *= 3;
+                    }
+                    results[Player.X][w] = new WinResult(Player.X, line);
+                    results[Player.O][w] = new WinResult(Player.O, line);
+                    w++;
+                }
+            }
+        }
+
+        xRows = new int[size];
+        oRows = new int[size];
+        xCounts = new byte[windows];
+        oCounts = new byte[windows];
+        patterns = new int[windows];
+        patternScores = LinePatterns.supports(winLength) ? LinePatterns.scores(winLength) : null;
+        zobrist = Zobrist.keys(cellCount);
+    }
+
+    private GridBoard(GridBoard other) {
+        size = other.size;
+        winLength = other.winLength;
+        cellCount = other.cellCount;
+        rowMask = other.rowMask;
+        windowCells = other.windowCells;
+        cellWindows = other.cellWindows;
+        cellPowers = other.cellPowers;
+        patternScores = other.patternScores;
+        results = other.results;
+        zobrist = other.zobrist;
+        xRows = other.xRows.clone();
+        oRows = other.oRows.clone();
+        xCounts = other.xCounts.clone();
+        oCounts = other.oCounts.clone();
+        patterns = other.patterns.clone();
+        lineScore = other.lineScore;
+        sideToMove = other.sideToMove;
+        moveCount = other.moveCount;
+        hash = other.hash;
+    }
+
+    private boolean fits(int row, int col, int direction) {
+        int endRow = row + DIRECTION_ROW[direction] * (winLength - 1);
+        int endCol = col + DIRECTION_COL[direction] * (winLength - 1);
+        return endRow >= 0 && endRow < size && endCol >= 0 && endCol < size;
+    }
+
+    private int cellAt(int row, int col, int direction, int step) {
+        return (row + DIRECTION_ROW[direction] * step) * size + col + DIRECTION_COL[direction] * step;
+    }
+
+    public int move(int row, int col) {
+        return row * size + col;
+    }
+
+    @Override
+    public int rows() {
+        return size;
+    }
+
+    @Override
+    public int columns() {
+        return size;
+    }
+
+    @Override
+    public int cellCount() {
+        return cellCount;
+    }
+
+    @Override
+    public int winLength() {
+        return winLength;
+    }
+
+    /**
+     * Number of k-cell windows (potential winning lines) on the board
+     */
+    public int windowCount() {
+        return xCounts.length;
+    }
+
+    /**
+     * Windows containing a cell (shared array, do not modify)
+     */
+    public int[] windowsThrough(int cell) {
+        return cellWindows[cell];
+    }
+
+    /**
+     * Cell at position step (0 to k-1) along a window
+     */
+    public int windowCell(int window, int step) {
+        return windowCells[window * winLength + step];
+    }
+
+    /**
+     * Stones the player has in a window
+     */
+    public int stonesInWindow(int window, int player) {
+        return player == Player.X ? xCounts[window] : oCounts[window];
+    }
+
+    /**
+     * Base-3 pattern index of a window (see LinePatterns), 0 when k is too long
+     */
+    public int pattern(int window) {
+        return patterns[window];
+    }
+
+    /**
+     * Whether lineScore() is maintained (k <= LinePatterns.MAX_LENGTH)
+     */
+    @Override
+    public boolean hasLineScore() {
+        return patternScores != null;
+    }
+
+    /**
+     * Sum of the LinePatterns scores of all windows, from X's point of view
+     */
+    @Override
+    public int lineScore() {
+        return lineScore;
+    }
+
+    /**
+     * Line score recomputed from the cells of every window: the pattern
+     * scores when k has a table, else the plain weights of the stone counters
+     */
+    @Override
+    public int scanLineScore() {
+        int score = 0;
+        for (int w = windowCount() - 1; w >= 0; w--) {
+            if (patternScores != null) {
+                int pattern = 0;
+                for (int step = winLength - 1; step >= 0; step--) {
+                    pattern = pattern * 3 + get(windowCell(w, step));
+                }
+                score += patternScores[pattern];
+                continue;
+            }
+            int x = stonesInWindow(w, Player.X);
+            int o = stonesInWindow(w, Player.O);
+            if (o == 0) {
+                score += LinePatterns.weight(x);
+            } else if (x == 0) {
+                score -= LinePatterns.weight(o);
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Bitboard of one row for a player (bit c = column c)
+     */
+    public int rowBits(int row, int player) {
+        return player == Player.X ? xRows[row] : oRows[row];
+    }
+
+    @Override
+    public int get(int cell) {
+        int row = cell / size;
+        int bit = 1 << (cell - row * size);
+        if ((xRows[row] & bit) != 0) return Player.X;
+        if ((oRows[row] & bit) != 0) return Player.O;
+        return Player.EMPTY;
+    }
+
+    @Override
+    public boolean isLegal(int move) {
+        return move >= 0 && move < cellCount && get(move) == Player.EMPTY;
+    }
+
+    @Override
+    public int sideToMove() {
+        return sideToMove;
+    }
+
+    @Override
+    public int moveCount() {
+        return moveCount;
+    }
+
+    @Override
+    public long hash() {
+        return hash;
+    }
+
+    @Override
+    public boolean movesAreEmptyCells() {
+        return true;
+    }
+
+    @Override
+    public int generateMoves(int[] moves) {
+        int count = 0;
+        for (int r = 0; r < size; r++) {
+            int base = r * size;
+            for (int empty = ~(xRows[r] | oRows[r]) & rowMask; empty != 0; empty &= empty - 1) {
+                moves[count++] = base + Integer.numberOfTrailingZeros(empty);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Empty cells within two steps (Chebyshev distance) of any stone, built
+     * from the row bitboards with shifts. Far-away cells never matter in a
+     * k-in-a-row search, and skipping them keeps the branching factor low.
+     * Boards where that would not prune anything use all legal moves.
+     */
+    @Override
+    public int generateCandidateMoves(int[] moves) {
+        if (size <= winLength + 1) {
+            return generateMoves(moves);
+        }
+        if (moveCount == 0) {
+            moves[0] = (size / 2) * size + size / 2;
+            return 1;
+        }
+        int count = 0;
+        for (int r = 0; r < size; r++) {
+            int near = 0;
+            for (int dr = -2; dr <= 2; dr++) {
+                int row = r + dr;
+                if (row >= 0 && row < size) {
+                    int stones = xRows[row] | oRows[row];
+                    near |= stones | stones << 1 | stones >>> 1 | stones << 2 | stones >>> 2;
+                }
+            }
+            int base = r * size;
+            for (int empty = near & ~(xRows[r] | oRows[r]) & rowMask; empty != 0; empty &= empty - 1) {
+                moves[count++] = base + Integer.numberOfTrailingZeros(empty);
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void makeMove(int move) {
+        int row = move / size;
+        int bit = 1 << (move - row * size);
+        byte[] counts;
+        if (sideToMove == Player.X) {
+            xRows[row] |= bit;
+            counts = xCounts;
+        } else {
+            oRows[row] |= bit;
+            counts = oCounts;
+        }
+        for (int w : cellWindows[move]) {
+            counts[w]++;
+        }
+        if (patternScores != null) {
+            updatePatterns(move, sideToMove);
+        }
+        hash ^= zobrist[sideToMove][move];
+        moveCount++;
+        sideToMove = Player.opponent(sideToMove);
+    }
+
+    @Override
+    public void unmakeMove(int move) {
+        sideToMove = Player.opponent(sideToMove);
+        moveCount--;
+        int row = move / size;
+        int bit = 1 << (move - row * size);
+        byte[] counts;
+        if (sideToMove == Player.X) {
+            xRows[row] &= ~bit;
+            counts = xCounts;
+        } else {
+            oRows[row] &= ~bit;
+            counts = oCounts;
+        }
+        for (int w : cellWindows[move]) {
+            counts[w]--;
+        }
+        if (patternScores != null) {
+            updatePatterns(move, -sideToMove);
+        }
+        hash ^= zobrist[sideToMove][move];
+    }
+
+    /**
+     * Add (digit > 0) or remove (digit < 0) a stone in the base-3 index of
+     * every window through the cell, and rescore just those windows
+     */
+    private void updatePatterns(int cell, int digit) {
+        int[] windows = cellWindows[cell];
+        int[] powers = cellPowers[cell];
+        int score = lineScore;
+        for (int i = 0; i < windows.length; i++) {
+            int w = windows[i];
+            int before = patterns[w];
+            int after = before + digit * powers[i];
+            patterns[w] = after;
+            score += patternScores[after] - patternScores[before];
+        }
+        lineScore = score;
+    }
+
+    @Override
+    public WinResult checkWin(int lastMove) {
+        int player = get(lastMove);
+        if (player == Player.EMPTY) {
+            return WinResult.NONE;
+        }
+        byte[] counts = player == Player.X ? xCounts : oCounts;
+        for (int w : cellWindows[lastMove]) {
+            if (counts[w] == winLength) {
+                return results[player][w];
+            }
+        }
+        return WinResult.NONE;
+    }
+
+    @Override
+    public boolean wouldWin(int move, int player) {
+        byte[] mine = player == Player.X ? xCounts : oCounts;
+        byte[] theirs = player == Player.X ? oCounts : xCounts;
+        for (int w : cellWindows[move]) {
+            if (mine[w] == winLength - 1 && theirs[w] == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isFull() {
+        return moveCount == cellCount;
+    }
+
+    @Override
+    public void reset() {
+        for (int r = 0; r < size; r++) {
+            xRows[r] = 0;
+            oRows[r] = 0;
+        }
+        for (int w = 0; w < xCounts.length; w++) {
+            xCounts[w] = 0;
+            oCounts[w] = 0;
+            patterns[w] = 0;
+        }
+        lineScore = 0;
+        sideToMove = Player.X;
+        moveCount = 0;
+        hash = 0;
+    }
+
+    @Override
+    public GridBoard copy() {
+        return new GridBoard(this);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(cellCount + size);
+        for (int cell = 0; cell < cellCount; cell++) {
+            int player = get(cell);
+            sb.append(player == Player.EMPTY ? "." : Player.symbol(player));
+            if (cell % size == size - 1 && cell != cellCount - 1) {
+                sb.append('/');
+            }
+        }
+        return sb.toString();
+    }
+}
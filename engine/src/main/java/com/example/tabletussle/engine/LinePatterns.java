@@ -0,0 +1,96 @@
+package com.example.tabletussle.engine;
+
+/**
+ * Precomputed scores of every k-cell line pattern, for k up to MAX_LENGTH.
+ *
+ * A window is encoded in base 3, one digit per cell (0 empty, 1 X, 2 O),
+ * so the digit for the cell at step s of the window is worth 3^s and a move
+ * changes a window's index by player * 3^s. GridBoard keeps the index of
+ * every window up to date in make/unmake and sums the scores, so the
+ * evaluation is maintained in O(windows through the move).
+ *
+ * A window only one player occupies is worth weight(stones) to that player,
+ * adjusted by the shape of the stones: a solid run with an empty cell on
+ * both sides inside the window (.XXX.) counts double, a solid run against
+ * the window's edge (XXX..) counts as is, and a broken run (X.XX.) counts
+ * three quarters. Windows one stone short of a line are threats whatever
+ * their shape and keep the plain weight. Mixed windows can never be won
+ * and are worth nothing. Scores are from X's point of view.
+ */
+public final class LinePatterns {
+
+    /** Longest window that gets a table (3^8 = 6561 entries) */
+    public static final int MAX_LENGTH = 8;
+
+    private static final int[] WEIGHTS = {0, 1, 8, 64, 512, 4096, 32768};
+
+    private static final int[][] TABLES = new int[MAX_LENGTH + 1][];
+
+    private LinePatterns() {
+    }
+
+    public static boolean supports(int winLength) {
+        return winLength >= 1 && winLength <= MAX_LENGTH;
+    }
+
+    /**
+     * Value of a window holding this many stones of one player only
+     */
+    public static int weight(int stones) {
+        return WEIGHTS[Math.min(stones, WEIGHTS.length - 1)];
+    }
+
+    /**
+     * Value of a window of length k holding one player's stones from step
+     * first to step last
+     */
+    private static int shapeScore(int stones, int first, int last, int k) {
+        int value = weight(stones);
+        if (stones == 0 || stones >= k - 1) {
+            return value;
+        }
+        if (last - first + 1 > stones) {
+            return value - value / 4; // broken: X.XX.
+        }
+        if (first > 0 && last < k - 1) {
+            return 2 * value;         // open: .XXX.
+        }
+        return value;                 // against the edge: XXX..
+    }
+
+    /**
+     * Score table for windows of length k, indexed by pattern (shared, do not modify)
+     */
+    public static synchronized int[] scores(int k) {
+        if (!supports(k)) {
+            throw new IllegalArgumentException("No pattern table for length " + k);
+        }
+        if (TABLES[k] == null) {
+            int patterns = 1;
+            for (int i = 0; i < k; i++) {
+                patterns *= 3;
+            }
+            int[] table = new int[patterns];
+            for (int pattern = 0; pattern < patterns; pattern++) {
+                int x = 0;
+                int o = 0;
+                int first = -1;
+                int last = -1;
+                int step = 0;
+                for (int rest = pattern; rest != 0; rest /= 3, step++) {
+                    int digit = rest % 3;
+                    if (digit == Player.X) x++;
+                    else if (digit == Player.O) o++;
+                    if (digit != Player.EMPTY) {
+                        if (first < 0) first = step;
+                        last = step;
+                    }
+                }
+                table[pattern] = o == 0 ? shapeScore(x, first, last, k)
+                        : x == 0 ? -shapeScore(o, first, last, k) : 0;
+            }
+            TABLES[k] = table;
+        }
+        return TABLES[k];
+    }
+}
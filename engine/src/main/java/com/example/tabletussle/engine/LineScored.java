@@ -0,0 +1,27 @@
+package com.example.tabletussle.engine;
+
+/**
+ * A board that scores its lines for the evaluators: every line (window of
+ * winLength cells) that only one player occupies is worth
+ * LinePatterns.weight(stones) to that player, summed from X's point of view.
+ * GridBoard also tells the shapes of the stones apart (see LinePatterns).
+ */
+public interface LineScored {
+
+    /**
+     * The line score, maintained in make/unmake. Only valid if hasLineScore().
+     */
+    int lineScore();
+
+    /**
+     * Whether lineScore() is maintained; scanLineScore() always works
+     */
+    default boolean hasLineScore() {
+        return true;
+    }
+
+    /**
+     * The same score computed from scratch over every line (tests, WindowEvaluator)
+     */
+    int scanLineScore();
+}
@@ -0,0 +1,34 @@
+package com.example.tabletussle.engine;
+
+/**
+ * Player/cell constants shared by every board implementation
+ */
+public final class Player {
+    public static final int EMPTY = 0;
+    public static final int X = 1; // Always moves first
+    public static final int O = 2;
+
+    private Player() {
+    }
+
+    /**
+     * Get the other player (X <-> O)
+     */
+    public static int opponent(int player) {
+        return player ^ 3;
+    }
+
+    /**
+     * Display symbol for a cell value
+     */
+    public static String symbol(int player) {
+        switch (player) {
+            case X:
+                return "X";
+            case O:
+                return "O";
+            default:
+                return "";
+        }
+    }
+}
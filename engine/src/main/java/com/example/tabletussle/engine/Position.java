@@ -0,0 +1,99 @@
+package com.example.tabletussle.engine;
+
+/**
+ * Common view of every board variant, used by the game screen and by the
+ * generic AI code.
+ *
+ * Moves are cell indices (row-major) packed into an int. Implementations
+ * keep make/unmake allocation-free so search code can call them millions
+ * of times per second.
+ */
+public interface Position {
+
+    int NO_MOVE = -1;
+
+    int rows();
+
+    int columns();
+
+    int cellCount();
+
+    /**
+     * Number of stones in a row needed to win
+     */
+    int winLength();
+
+    /**
+     * Player occupying a cell, or Player.EMPTY
+     */
+    int get(int cell);
+
+    boolean isLegal(int move);
+
+    int sideToMove();
+
+    int moveCount();
+
+    /**
+     * 64-bit Zobrist hash of the position, updated incrementally on make/unmake
+     */
+    long hash();
+
+    /**
+     * Write all legal moves into the buffer (at least cellCount() long)
+     * @return the number of moves written
+     */
+    int generateMoves(int[] moves);
+
+    /**
+     * Moves worth searching. Defaults to all legal moves; large boards
+     * restrict this to cells near existing stones.
+     * @return the number of moves written
+     */
+    default int generateCandidateMoves(int[] moves) {
+        return generateMoves(moves);
+    }
+
+    /**
+     * Are the legal moves always exactly the empty cells? Then a move list
+     * stays valid as its cells are played, so random playouts can generate
+     * it once. False by default: a move may restrict the next ones (Ultimate)
+     * or open new cells (gravity).
+     */
+    default boolean movesAreEmptyCells() {
+        return false;
+    }
+
+    /**
+     * Play a legal move for the side to move and pass the turn
+     */
+    void makeMove(int move);
+
+    /**
+     * Take back the last move made with makeMove
+     */
+    void unmakeMove(int move);
+
+    /**
+     * Did the last move complete a line? Only lines through that cell are tested.
+     */
+    WinResult checkWin(int lastMove);
+
+    /**
+     * Would the player complete a line by playing this empty cell?
+     * The position is not modified.
+     */
+    boolean wouldWin(int move, int player);
+
+    boolean isFull();
+
+    /**
+     * Clear the board for a new round
+     */
+    void reset();
+
+    /**
+     * Independent copy, e.g. for a background search thread
+     */
+    Position copy();
+}
@@ -0,0 +1,335 @@
+package com.example.tabletussle.engine;
+
+import java.util.Arrays;
+
+/**
+ * 3D tic-tac-toe (Qubic): four in a row on a 4x4x4 cube, along any of its
+ * 76 lines. The 64 cells map exactly onto the bits of two longs, one per
+ * player, so every line test is a mask-and-compare.
+ *
+ * To the game screen the cube is an 8x8 grid of its four 4x4 layers laid
+ * out two by two (layer 0 top left, 1 top right, 2 bottom left, 3 bottom
+ * right). The cell index is row-major on that grid and is also the bit index.
+ *
+ * Like GridBoard, the board keeps a line score from X's point of view up to
+ * date in make/unmake: every line only one player occupies is worth
+ * LinePatterns.weight(stones) to that player.
+ */
+public final class QubicBoard implements Position, LineScored {
+    public static final int LAYERS = 4;
+    public static final int SIZE = 8; // grid of the 2x2 layers
+    public static final int CELLS = 64;
+    public static final int LINE_COUNT = 76;
+
+    private static final long[] LINES = new long[LINE_COUNT];
+    private static final int[][] LINES_THROUGH = new int[CELLS][]; // 4 or 7 per cell
+
+    // Shared results so a win check never allocates: [player][line]
+    private static final WinResult[][] RESULTS = new WinResult[3][LINE_COUNT];
+
+    private static final long[][] ZOBRIST = Zobrist.keys(CELLS);
+
+    static {
+        int count = 0;
+        // The 13 directions with a positive first non-zero component cover every line once
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    boolean forward = dx > 0 || (dx == 0 && (dy > 0 || (dy == 0 && dz > 0)));
+                    if (!forward) {
+                        continue;
+                    }
+                    for (int cell = 0; cell < CELLS; cell++) {
+                        int x = x(cell);
+                        int y = y(cell);
+                        int z = layer(cell);
+                        int ex = x + 3 * dx;
+                        int ey = y + 3 * dy;
+                        int ez = z + 3 * dz;
+                        if (ex < 0 || ex > 3 || ey < 0 || ey > 3 || ez < 0 || ez > 3) {
+                            continue;
+                        }
+                        long line = 0;
+                        int[] cells = new int[4];
+                        for (int i = 0; i < 4; i++) {
+                            cells[i] = cell(x + i * dx, y + i * dy, z + i * dz);
+                            line |= 1L << cells[i];
+                        }
+                        RESULTS[Player.X][count] = new WinResult(Player.X, cells);
+                        RESULTS[Player.O][count] = new WinResult(Player.O, cells.clone());
+                        LINES[count++] = line;
+                    }
+                }
+            }
+        }
+        if (count != LINE_COUNT) {
+            throw new IllegalStateException("Expected 76 lines, found " + count);
+        }
+        for (int cell = 0; cell < CELLS; cell++) {
+            int through = 0;
+            int[] lines = new int[7];
+            for (int i = 0; i < LINE_COUNT; i++) {
+                if ((LINES[i] & (1L << cell)) != 0) {
+                    lines[through++] = i;
+                }
+            }
+            LINES_THROUGH[cell] = Arrays.copyOf(lines, through);
+        }
+    }
+
+    private long xBits;
+    private long oBits;
+    private int sideToMove = Player.X;
+    private int moveCount;
+    private long hash;
+    private int lineScore;
+
+    public QubicBoard() {
+    }
+
+    public QubicBoard(QubicBoard other) {
+        xBits = other.xBits;
+        oBits = other.oBits;
+        sideToMove = other.sideToMove;
+        moveCount = other.moveCount;
+        hash = other.hash;
+        lineScore = other.lineScore;
+    }
+
+    /**
+     * Grid cell of cube coordinates (x, y within a layer, z = layer)
+     */
+    public static int cell(int x, int y, int z) {
+        return ((z / 2) * 4 + y) * SIZE + (z % 2) * 4 + x;
+    }
+
+    public static int x(int cell) {
+        return cell % SIZE % 4;
+    }
+
+    public static int y(int cell) {
+        return cell / SIZE % 4;
+    }
+
+    public static int layer(int cell) {
+        return (cell / SIZE / 4) * 2 + cell % SIZE / 4;
+    }
+
+    /**
+     * Bit mask of one of the 76 lines
+     */
+    public static long line(int index) {
+        return LINES[index];
+    }
+
+    /**
+     * Bits of the cells owned by a player
+     */
+    public long bits(int player) {
+        return player == Player.X ? xBits : oBits;
+    }
+
+    /**
+     * Sum of the line values from X's point of view, maintained in make/unmake
+     */
+    @Override
+    public int lineScore() {
+        return lineScore;
+    }
+
+    @Override
+    public int rows() {
+        return SIZE;
+    }
+
+    @Override
+    public int columns() {
+        return SIZE;
+    }
+
+    @Override
+    public int cellCount() {
+        return CELLS;
+    }
+
+    @Override
+    public int winLength() {
+        return 4;
+    }
+
+    @Override
+    public int get(int cell) {
+        long bit = 1L << cell;
+        if ((xBits & bit) != 0) return Player.X;
+        if ((oBits & bit) != 0) return Player.O;
+        return Player.EMPTY;
+    }
+
+    @Override
+    public boolean isLegal(int move) {
+        return move >= 0 && move < CELLS && ((xBits | oBits) & (1L << move)) == 0;
+    }
+
+    @Override
+    public int sideToMove() {
+        return sideToMove;
+    }
+
+    @Override
+    public int moveCount() {
+        return moveCount;
+    }
+
+    @Override
+    public long hash() {
+        return hash;
+    }
+
+    @Override
+    public boolean movesAreEmptyCells() {
+        return true;
+    }
+
+    @Override
+    public int generateMoves(int[] moves) {
+        int count = 0;
+        for (long empty = ~(xBits | oBits); empty != 0; empty &= empty - 1) {
+            moves[count++] = Long.numberOfTrailingZeros(empty);
+        }
+        return count;
+    }
+
+    @Override
+    public void makeMove(int move) {
+        lineScore -= linesThroughScore(move);
+        if (sideToMove == Player.X) {
+            xBits |= 1L << move;
+        } else {
+            oBits |= 1L << move;
+        }
+        lineScore += linesThroughScore(move);
+        hash ^= ZOBRIST[sideToMove][move];
+        moveCount++;
+        sideToMove = Player.opponent(sideToMove);
+    }
+
+    @Override
+    public void unmakeMove(int move) {
+        sideToMove = Player.opponent(sideToMove);
+        moveCount--;
+        lineScore -= linesThroughScore(move);
+        if (sideToMove == Player.X) {
+            xBits &= ~(1L << move);
+        } else {
+            oBits &= ~(1L << move);
+        }
+        lineScore += linesThroughScore(move);
+        hash ^= ZOBRIST[sideToMove][move];
+    }
+
+    private int linesThroughScore(int cell) {
+        int score = 0;
+        for (int i : LINES_THROUGH[cell]) {
+            score += lineValue(LINES[i]);
+        }
+        return score;
+    }
+
+    private int lineValue(long line) {
+        int x = Long.bitCount(xBits & line);
+        int o = Long.bitCount(oBits & line);
+        if (o == 0) {
+            return LinePatterns.weight(x);
+        }
+        return x == 0 ? -LinePatterns.weight(o) : 0;
+    }
+
+    /**
+     * Line score computed from scratch over all 76 lines (tests, evaluators)
+     */
+    @Override
+    public int scanLineScore() {
+        int score = 0;
+        for (long line : LINES) {
+            score += lineValue(line);
+        }
+        return score;
+    }
+
+    /**
+     * Does the player own a complete line anywhere? Tests all 76 masks.
+     */
+    public boolean hasWon(int player) {
+        long bits = bits(player);
+        for (long line : LINES) {
+            if ((bits & line) == line) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Only the lines through the last move are tested
+     */
+    @Override
+    public WinResult checkWin(int lastMove) {
+        int player = get(lastMove);
+        if (player == Player.EMPTY) {
+            return WinResult.NONE;
+        }
+        long bits = bits(player);
+        for (int i : LINES_THROUGH[lastMove]) {
+            if ((bits & LINES[i]) == LINES[i]) {
+                return RESULTS[player][i];
+            }
+        }
+        return WinResult.NONE;
+    }
+
+    @Override
+    public boolean wouldWin(int move, int player) {
+        long bits = bits(player) | (1L << move);
+        for (int i : LINES_THROUGH[move]) {
+            if ((bits & LINES[i]) == LINES[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isFull() {
+        return moveCount == CELLS;
+    }
+
+    @Override
+    public void reset() {
+        xBits = 0;
+        oBits = 0;
+        sideToMove = Player.X;
+        moveCount = 0;
+        hash = 0;
+        lineScore = 0;
+    }
+
+    @Override
+    public QubicBoard copy() {
+        return new QubicBoard(this);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(CELLS + LAYERS * 4);
+        for (int z = 0; z < LAYERS; z++) {
+            for (int y = 0; y < 4; y++) {
+                for (int x = 0; x < 4; x++) {
+                    int player = get(cell(x, y, z));
+                    sb.append(player == Player.EMPTY ? "." : Player.symbol(player));
+                }
+                sb.append(y == 3 ? (z == LAYERS - 1 ? "" : " | ") : "/");
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.tabletussle.engine;
+
+/**
+ * The 8 rotations/reflections (dihedral group D4) of a square board.
+ *
+ * A transform t sends cell c to apply(t, c). The canonical form of a
+ * position is its image under the transform that gives the smallest key;
+ * callers store only canonical positions and keep the transform id so a
+ * move found for the canonical board can be mapped back with toOriginal().
+ *
+ * Every position-keyed structure (AI tables, books, statistics, duplicate
+ * detection) shrinks by up to 8x when keyed through this class.
+ */
+public final class Symmetry {
+
+    public static final int TRANSFORMS = 8;
+    public static final int IDENTITY = 0;
+    public static final int ROTATE_90 = 1;      // clockwise
+    public static final int ROTATE_180 = 2;
+    public static final int ROTATE_270 = 3;
+    public static final int MIRROR_COLUMNS = 4; // left <-> right
+    public static final int MIRROR_ROWS = 5;    // top <-> bottom
+    public static final int TRANSPOSE = 6;      // main diagonal
+    public static final int ANTI_TRANSPOSE = 7; // anti diagonal
+
+    // Transform that undoes each transform
+    private static final int[] INVERSE = {0, 3, 2, 1, 4, 5, 6, 7};
+
+    private static final int MAX_CACHED_SIZE = 32;
+    private static final Symmetry[] CACHE = new Symmetry[MAX_CACHED_SIZE + 1];
+
+    // 3x3 fast path: image of every 9-bit mask under every transform
+    private static final int[][] MASK3 = new int[TRANSFORMS][Board.FULL_MASK + 1];
+
+    static {
+        Symmetry three = of(Board.SIZE);
+        for (int t = 0; t < TRANSFORMS; t++) {
+            for (int mask = 1; mask <= Board.FULL_MASK; mask++) {
+                int low = Integer.numberOfTrailingZeros(mask);
+                MASK3[t][mask] = MASK3[t][mask & (mask - 1)] | 1 << three.apply(t, low);
+            }
+        }
+    }
+
+    private final int size;
+    private final int[][] forward;  // forward[t][cell] -> image cell
+    private final int[][] backward; // backward[t][image] -> original cell
+
+    private Symmetry(int size) {
+        this.size = size;
+        int cells = size * size;
+        forward = new int[TRANSFORMS][cells];
+        backward = new int[TRANSFORMS][cells];
+        int last = size - 1;
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                int cell = r * size + c;
+                forward[IDENTITY][cell] = cell;
+                forward[ROTATE_90][cell] = c * size + (last - r);
+                forward[ROTATE_180][cell] = (last - r) * size + (last - c);
+                forward[ROTATE_270][cell] = (last - c) * size + r;
+                forward[MIRROR_COLUMNS][cell] = r * size + (last - c);
+                forward[MIRROR_ROWS][cell] = (last - r) * size + c;
+                forward[TRANSPOSE][cell] = c * size + r;
+                forward[ANTI_TRANSPOSE][cell] = (last - c) * size + (last - r);
+            }
+        }
+        for (int t = 0; t < TRANSFORMS; t++) {
+            for (int cell = 0; cell < cells; cell++) {
+                backward[t][forward[t][cell]] = cell;
+            }
+        }
+    }
+
+    /**
+     * Permutation tables for a size x size board (cached)
+     */
+    public static Symmetry of(int size) {
+        if (size < 1 || size > MAX_CACHED_SIZE) {
+            throw new IllegalArgumentException("Unsupported board size: " + size);
+        }
+        synchronized (CACHE) {
+            if (CACHE[size] == null) {
+                CACHE[size] = new Symmetry(size);
+            }
+            return CACHE[size];
+        }
+    }
+
+    public static int inverse(int transform) {
+        return INVERSE[transform];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Image of a cell under the transform
+     */
+    public int apply(int transform, int cell) {
+        return forward[transform][cell];
+    }
+
+    /**
+     * Map a move from the original board onto the canonical board
+     */
+    public int toCanonical(int transform, int move) {
+        return forward[transform][move];
+    }
+
+    /**
+     * Map a move found on the canonical board back onto the original board
+     */
+    public int toOriginal(int transform, int canonicalMove) {
+        return backward[transform][canonicalMove];
+    }
+
+    /**
+     * Write the image of a row-major cell array (Player values) into out
+     */
+    public void transform(int transform, int[] cells, int[] out) {
+        int[] map = forward[transform];
+        for (int cell = 0; cell < cells.length; cell++) {
+            out[map[cell]] = cells[cell];
+        }
+    }
+
+    /**
+     * Transform whose image of the cell array is lexicographically smallest.
+     * Works for any board size; no allocation.
+     */
+    public int canonicalTransform(int[] cells) {
+        int best = IDENTITY;
+        for (int t = 1; t < TRANSFORMS; t++) {
+            int[] current = backward[t];
+            int[] champion = backward[best];
+            for (int i = 0; i < cells.length; i++) {
+                int a = cells[current[i]];
+                int b = cells[champion[i]];
+                if (a != b) {
+                    if (a < b) {
+                        best = t;
+                    }
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Image of a bitboard (bit i = cell i) for boards of up to 64 cells
+     */
+    public long transformBits(int transform, long bits) {
+        int[] map = forward[transform];
+        long result = 0;
+        while (bits != 0) {
+            result |= 1L << map[Long.numberOfTrailingZeros(bits)];
+            bits &= bits - 1;
+        }
+        return result;
+    }
+
+    /**
+     * Canonical transform for a bitboard pair on boards of up to 64 cells.
+     * Picks the image with the smallest (X bits, O bits) pair.
+     */
+    public int canonicalTransform(long xBits, long oBits) {
+        int best = IDENTITY;
+        long bestX = xBits;
+        long bestO = oBits;
+        for (int t = 1; t < TRANSFORMS; t++) {
+            long x = transformBits(t, xBits);
+            int cmp = Long.compareUnsigned(x, bestX);
+            if (cmp > 0) {
+                continue;
+            }
+            long o = transformBits(t, oBits);
+            if (cmp < 0 || Long.compareUnsigned(o, bestO) < 0) {
+                best = t;
+                bestX = x;
+                bestO = o;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Image of a 3x3 cell mask, one table lookup
+     */
+    public static int transformMask3(int transform, int mask) {
+        return MASK3[transform][mask];
+    }
+
+    /**
+     * Canonical form of a 3x3 position in 8 table lookups.
+     * @return packed (canonical Board.index() << 3) | transform, see key() and transform()
+     */
+    public static int canonical3(int xMask, int oMask) {
+        int bestKey = Board.index(xMask, oMask);
+        int bestTransform = IDENTITY;
+        for (int t = 1; t < TRANSFORMS; t++) {
+            int key = Board.index(MASK3[t][xMask], MASK3[t][oMask]);
+            if (key < bestKey) {
+                bestKey = key;
+                bestTransform = t;
+            }
+        }
+        return bestKey << 3 | bestTransform;
+    }
+
+    public static int canonical3(Board board) {
+        return canonical3(board.mask(Player.X), board.mask(Player.O));
+    }
+
+    /**
+     * Canonical key part of a value packed by canonical3()
+     */
+    public static int key(int canonical) {
+        return canonical >>> 3;
+    }
+
+    /**
+     * Transform part of a value packed by canonical3()
+     */
+    public static int transform(int canonical) {
+        return canonical & 0x7;
+    }
+}
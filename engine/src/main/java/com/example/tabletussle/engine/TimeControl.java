@@ -0,0 +1,65 @@
+package com.example.tabletussle.engine;
+
+/**
+ * Clock part of a game mode string (see GameVariant): "classic" is untimed,
+ * "timed" and "blitz" give each player a fixed bank of time per game.
+ */
+public enum TimeControl {
+    CLASSIC("classic", "Untimed", 0, 0),
+    TIMED("timed", "Timed (2 min + 2 s)", 120_000, 2_000),
+    BLITZ("blitz", "Blitz (30 s)", 30_000, 0);
+
+    private final String id;
+    private final String displayName;
+    private final long initialMillis;
+    private final long incrementMillis;
+
+    TimeControl(String id, String displayName, long initialMillis, long incrementMillis) {
+        this.id = id;
+        this.displayName = displayName;
+        this.initialMillis = initialMillis;
+        this.incrementMillis = incrementMillis;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public String displayName() {
+        return displayName;
+    }
+
+    /**
+     * Time each player starts with (0 = no clock)
+     */
+    public long initialMillis() {
+        return initialMillis;
+    }
+
+    /**
+     * Time added to a player's clock after each of their moves
+     */
+    public long incrementMillis() {
+        return incrementMillis;
+    }
+
+    public boolean isTimed() {
+        return initialMillis > 0;
+    }
+
+    /**
+     * Time control encoded in a game mode string; anything unknown is untimed
+     */
+    public static TimeControl fromMode(String mode) {
+        if (mode != null) {
+            int separator = mode.lastIndexOf('_');
+            String clockId = separator >= 0 ? mode.substring(separator + 1) : mode;
+            for (TimeControl control : values()) {
+                if (control.id.equals(clockId)) {
+                    return control;
+                }
+            }
+        }
+        return CLASSIC;
+    }
+}
@@ -0,0 +1,366 @@
+package com.example.tabletussle.engine;
+
+/**
+ * Ultimate tic-tac-toe: a 3x3 grid of 3x3 sub-boards. Winning a sub-board
+ * claims its square on the big board; three claimed squares in a row win.
+ * The cell a player picks inside a sub-board sends the opponent to the
+ * matching sub-board, or anywhere if that one is already won or full.
+ *
+ * Each sub-board is a pair of 9-bit masks like Board, so every sub-board
+ * question (is it won, which cells would win it) is one lookup in a
+ * 512-entry table. To the game screen it is a plain 9x9 grid: cell indices
+ * are row-major over the 81 cells.
+ */
+public final class UltimateBoard implements Position {
+    public static final int SIZE = 9;
+    public static final int CELLS = 81;
+    public static final int ANY_BOARD = -1;
+
+    // Sub-board and square (0-8, row-major) of each grid cell, and back
+    private static final int[] BOARD_OF = new int[CELLS];
+    private static final int[] SQUARE_OF = new int[CELLS];
+    private static final int[][] CELL_AT = new int[9][9];
+
+    // For each 9-bit mask: does it hold a line, and which cells would complete one
+    private static final boolean[] HAS_LINE = new boolean[Board.FULL_MASK + 1];
+    private static final int[] COMPLETING = new int[Board.FULL_MASK + 1];
+
+    // Shared results so a win check never allocates: [player][line of sub-boards]
+    private static final WinResult[][] RESULTS = new WinResult[3][Board.WIN_MASKS.length];
+
+    private static final long[][] ZOBRIST = Zobrist.keys(CELLS);
+    // The send constraint is part of the position: index forced board + 1
+    private static final long[] FORCED_KEYS = new long[10];
+
+    static {
+        for (int cell = 0; cell < CELLS; cell++) {
+            int row = cell / SIZE;
+            int col = cell % SIZE;
+            BOARD_OF[cell] = (row / 3) * 3 + col / 3;
+            SQUARE_OF[cell] = (row % 3) * 3 + col % 3;
+            CELL_AT[BOARD_OF[cell]][SQUARE_OF[cell]] = cell;
+        }
+        for (int mask = 0; mask <= Board.FULL_MASK; mask++) {
+            for (int line : Board.WIN_MASKS) {
+                if ((mask & line) == line) {
+                    HAS_LINE[mask] = true;
+                }
+                int missing = line & ~mask;
+                if (Integer.bitCount(missing) == 1) {
+                    COMPLETING[mask] |= missing;
+                }
+            }
+        }
+        for (int i = 0; i < Board.WIN_MASKS.length; i++) {
+            // Every cell of the three sub-boards, to highlight them
+            int[] cells = new int[27];
+            int count = 0;
+            for (int boards = Board.WIN_MASKS[i]; boards != 0; boards &= boards - 1) {
+                for (int cell : CELL_AT[Integer.numberOfTrailingZeros(boards)]) {
+                    cells[count++] = cell;
+                }
+            }
+            RESULTS[Player.X][i] = new WinResult(Player.X, cells);
+            RESULTS[Player.O][i] = new WinResult(Player.O, cells.clone());
+        }
+        for (int i = 1; i < FORCED_KEYS.length; i++) {
+            FORCED_KEYS[i] = Zobrist.mix(0x0171_7A7EL * i);
+        }
+    }
+
+    private final int[] xMasks = new int[9];
+    private final int[] oMasks = new int[9];
+    private int xBoards;      // sub-boards won by X
+    private int oBoards;      // sub-boards won by O
+    private int closedBoards; // won or full: no more moves there
+    private int forced = ANY_BOARD;
+    private final int[] forcedHistory = new int[CELLS + 1]; // forced board before each move
+    private int sideToMove = Player.X;
+    private int moveCount;
+    private long hash;
+
+    public UltimateBoard() {
+    }
+
+    public UltimateBoard(UltimateBoard other) {
+        System.arraycopy(other.xMasks, 0, xMasks, 0, 9);
+        System.arraycopy(other.oMasks, 0, oMasks, 0, 9);
+        System.arraycopy(other.forcedHistory, 0, forcedHistory, 0, forcedHistory.length);
+        xBoards = other.xBoards;
+        oBoards = other.oBoards;
+        closedBoards = other.closedBoards;
+        forced = other.forced;
+        sideToMove = other.sideToMove;
+        moveCount = other.moveCount;
+        hash = other.hash;
+    }
+
+    public static int boardOf(int cell) {
+        return BOARD_OF[cell];
+    }
+
+    public static int squareOf(int cell) {
+        return SQUARE_OF[cell];
+    }
+
+    public static int cell(int board, int square) {
+        return CELL_AT[board][square];
+    }
+
+    /**
+     * Sub-board the side to move must play in, or ANY_BOARD
+     */
+    public int forcedBoard() {
+        return forced;
+    }
+
+    /**
+     * Winner of a sub-board, or Player.EMPTY
+     */
+    public int boardWinner(int board) {
+        int bit = 1 << board;
+        if ((xBoards & bit) != 0) return Player.X;
+        if ((oBoards & bit) != 0) return Player.O;
+        return Player.EMPTY;
+    }
+
+    /**
+     * Sub-boards won by a player, as a 9-bit mask (bit = board index)
+     */
+    public int boardsWon(int player) {
+        return player == Player.X ? xBoards : oBoards;
+    }
+
+    /**
+     * Sub-boards that take no more moves (won or full), as a 9-bit mask
+     */
+    public int closedBoards() {
+        return closedBoards;
+    }
+
+    /**
+     * Cells of a sub-board owned by a player, as a 9-bit mask (bit = square)
+     */
+    public int mask(int board, int player) {
+        return player == Player.X ? xMasks[board] : oMasks[board];
+    }
+
+    /**
+     * Squares that would complete a line for a mask that holds two of it
+     */
+    public static int completingSquares(int mask) {
+        return COMPLETING[mask];
+    }
+
+    @Override
+    public int rows() {
+        return SIZE;
+    }
+
+    @Override
+    public int columns() {
+        return SIZE;
+    }
+
+    @Override
+    public int cellCount() {
+        return CELLS;
+    }
+
+    @Override
+    public int winLength() {
+        return 3;
+    }
+
+    @Override
+    public int get(int cell) {
+        int bit = 1 << SQUARE_OF[cell];
+        int board = BOARD_OF[cell];
+        if ((xMasks[board] & bit) != 0) return Player.X;
+        if ((oMasks[board] & bit) != 0) return Player.O;
+        return Player.EMPTY;
+    }
+
+    @Override
+    public boolean isLegal(int move) {
+        if (move < 0 || move >= CELLS) {
+            return false;
+        }
+        int board = BOARD_OF[move];
+        return (forced == ANY_BOARD || forced == board)
+                && (closedBoards & (1 << board)) == 0
+                && ((xMasks[board] | oMasks[board]) & (1 << SQUARE_OF[move])) == 0;
+    }
+
+    @Override
+    public int sideToMove() {
+        return sideToMove;
+    }
+
+    @Override
+    public int moveCount() {
+        return moveCount;
+    }
+
+    @Override
+    public long hash() {
+        return hash;
+    }
+
+    @Override
+    public int generateMoves(int[] moves) {
+        if (forced != ANY_BOARD) {
+            return addMoves(forced, moves, 0);
+        }
+        int count = 0;
+        for (int open = ~closedBoards & Board.FULL_MASK; open != 0; open &= open - 1) {
+            count = addMoves(Integer.numberOfTrailingZeros(open), moves, count);
+        }
+        return count;
+    }
+
+    private int addMoves(int board, int[] moves, int count) {
+        int[] cells = CELL_AT[board];
+        for (int empty = ~(xMasks[board] | oMasks[board]) & Board.FULL_MASK; empty != 0; empty &= empty - 1) {
+            moves[count++] = cells[Integer.numberOfTrailingZeros(empty)];
+        }
+        return count;
+    }
+
+    @Override
+    public void makeMove(int move) {
+        int board = BOARD_OF[move];
+        int square = SQUARE_OF[move];
+        int bit = 1 << board;
+        int mask;
+        if (sideToMove == Player.X) {
+            mask = xMasks[board] |= 1 << square;
+            if (HAS_LINE[mask]) {
+                xBoards |= bit;
+            }
+        } else {
+            mask = oMasks[board] |= 1 << square;
+            if (HAS_LINE[mask]) {
+                oBoards |= bit;
+            }
+        }
+        if (HAS_LINE[mask] || (xMasks[board] | oMasks[board]) == Board.FULL_MASK) {
+            closedBoards |= bit;
+        }
+        forcedHistory[moveCount] = forced;
+        hash ^= ZOBRIST[sideToMove][move] ^ FORCED_KEYS[forced + 1];
+        forced = (closedBoards & (1 << square)) == 0 ? square : ANY_BOARD;
+        hash ^= FORCED_KEYS[forced + 1];
+        moveCount++;
+        sideToMove = Player.opponent(sideToMove);
+    }
+
+    @Override
+    public void unmakeMove(int move) {
+        sideToMove = Player.opponent(sideToMove);
+        moveCount--;
+        int board = BOARD_OF[move];
+        int bit = 1 << board;
+        if (sideToMove == Player.X) {
+            xMasks[board] &= ~(1 << SQUARE_OF[move]);
+        } else {
+            oMasks[board] &= ~(1 << SQUARE_OF[move]);
+        }
+        // Only the move's own sub-board can have changed state
+        xBoards &= ~bit;
+        oBoards &= ~bit;
+        closedBoards &= ~bit;
+        if (HAS_LINE[xMasks[board]]) {
+            xBoards |= bit;
+            closedBoards |= bit;
+        } else if (HAS_LINE[oMasks[board]]) {
+            oBoards |= bit;
+            closedBoards |= bit;
+        } else if ((xMasks[board] | oMasks[board]) == Board.FULL_MASK) {
+            closedBoards |= bit;
+        }
+        hash ^= FORCED_KEYS[forced + 1];
+        forced = forcedHistory[moveCount];
+        hash ^= ZOBRIST[sideToMove][move] ^ FORCED_KEYS[forced + 1];
+    }
+
+    /**
+     * The game is won by a line of sub-boards, so only a move that won its
+     * sub-board can win; the result lists every cell of the three sub-boards
+     */
+    @Override
+    public WinResult checkWin(int lastMove) {
+        int player = get(lastMove);
+        if (player == Player.EMPTY) {
+            return WinResult.NONE;
+        }
+        int won = boardsWon(player);
+        int board = BOARD_OF[lastMove];
+        if ((won & (1 << board)) == 0 || !HAS_LINE[won]) {
+            return WinResult.NONE;
+        }
+        for (int i = 0; i < Board.WIN_MASKS.length; i++) {
+            int line = Board.WIN_MASKS[i];
+            if ((line & (1 << board)) != 0 && (won & line) == line) {
+                return RESULTS[player][i];
+            }
+        }
+        return WinResult.NONE;
+    }
+
+    /**
+     * Would this cell win its sub-board and with it a line of sub-boards?
+     * Two table lookups, no changes to the board.
+     */
+    @Override
+    public boolean wouldWin(int move, int player) {
+        int board = BOARD_OF[move];
+        int own = player == Player.X ? xMasks[board] : oMasks[board];
+        if ((COMPLETING[own] & (1 << SQUARE_OF[move])) == 0) {
+            return false;
+        }
+        return (COMPLETING[boardsWon(player)] & (1 << board)) != 0;
+    }
+
+    /**
+     * No sub-board takes moves any more: a draw unless someone has won
+     */
+    @Override
+    public boolean isFull() {
+        return closedBoards == Board.FULL_MASK;
+    }
+
+    @Override
+    public void reset() {
+        for (int board = 0; board < 9; board++) {
+            xMasks[board] = 0;
+            oMasks[board] = 0;
+        }
+        xBoards = 0;
+        oBoards = 0;
+        closedBoards = 0;
+        forced = ANY_BOARD;
+        sideToMove = Player.X;
+        moveCount = 0;
+        hash = 0;
+    }
+
+    @Override
+    public UltimateBoard copy() {
+        return new UltimateBoard(this);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(CELLS + SIZE + 4);
+        for (int cell = 0; cell < CELLS; cell++) {
+            int player = get(cell);
+            sb.append(player == Player.EMPTY ? "." : Player.symbol(player));
+            if (cell % SIZE == SIZE - 1 && cell != CELLS - 1) {
+                sb.append('/');
+            }
+        }
+        sb.append(" -> ").append(forced == ANY_BOARD ? "any" : String.valueOf(forced));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.tabletussle.engine;
+
+import java.util.Arrays;
+
+/**
+ * Outcome of a win check: who completed a line and which cells form it.
+ * Pure value - producing one never touches the UI.
+ */
+public final class WinResult {
+
+    public static final WinResult NONE = new WinResult(Player.EMPTY, new int[0]);
+
+    private final int winner;
+    private final int[] cells;
+    private final int lineMask;
+
+    /**
+     * Result for boards of up to 32 cells, line given as a bitmask
+     */
+    public WinResult(int winner, int lineMask) {
+        this.winner = winner;
+        this.lineMask = lineMask;
+        this.cells = new int[Integer.bitCount(lineMask)];
+        int i = 0;
+        for (int mask = lineMask; mask != 0; mask &= mask - 1) {
+            cells[i++] = Integer.numberOfTrailingZeros(mask);
+        }
+    }
+
+    /**
+     * Result for boards of any size, line given as cell indices
+     */
+    public WinResult(int winner, int[] cells) {
+        this.winner = winner;
+        this.cells = cells;
+        int mask = 0;
+        for (int cell : cells) {
+            if (cell >= Integer.SIZE) {
+                mask = 0;
+                break;
+            }
+            mask |= 1 << cell;
+        }
+        this.lineMask = mask;
+    }
+
+    public boolean isWin() {
+        return winner != Player.EMPTY;
+    }
+
+    /**
+     * Player who completed the line, or Player.EMPTY
+     */
+    public int winner() {
+        return winner;
+    }
+
+    /**
+     * Bitmask of the winning cells (bit i = cell i).
+     * 0 if there is no win or the line uses cells beyond index 31 - use cells() then.
+     */
+    public int lineMask() {
+        return lineMask;
+    }
+
+    /**
+     * Cell indices of the winning line (shared array, do not modify)
+     */
+    public int[] cells() {
+        return cells;
+    }
+
+    @Override
+    public String toString() {
+        return isWin() ? Player.symbol(winner) + " wins " + Arrays.toString(cells) : "no win";
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.tabletussle.engine;
+
+/**
+ * Zobrist keys: one random 64-bit key per (player, cell). A position hash is
+ * the XOR of the keys of its stones, so boards update it incrementally with
+ * a single XOR on make and unmake.
+ *
+ * Keys come from a fixed-seed SplitMix64 generator, so hashes are stable
+ * across runs and can be stored in files (books, tables).
+ */
+public final class Zobrist {
+
+    private static final long SEED = 0x7AB1E7055L;
+    private static final int MAX_CACHED_CELLS = 1024;
+    private static final long[][][] CACHE = new long[MAX_CACHED_CELLS + 1][][];
+
+    private Zobrist() {
+    }
+
+    /**
+     * Keys for a board of the given cell count: keys[player][cell],
+     * keys[Player.EMPTY] is all zeros. Shared arrays, do not modify.
+     */
+    public static long[][] keys(int cellCount) {
+        if (cellCount < 1 || cellCount > MAX_CACHED_CELLS) {
+            throw new IllegalArgumentException("Unsupported cell count: " + cellCount);
+        }
+        synchronized (CACHE) {
+            if (CACHE[cellCount] == null) {
+                long state = SEED + cellCount;
+                long[][] keys = new long[3][cellCount];
+                for (int player = Player.X; player <= Player.O; player++) {
+                    for (int cell = 0; cell < cellCount; cell++) {
+                        state += 0x9E3779B97F4A7C15L;
+                        keys[player][cell] = mix(state);
+                    }
+                }
+                CACHE[cellCount] = keys;
+            }
+            return CACHE[cellCount];
+        }
+    }
+
+    /**
+     * SplitMix64 finalizer - also handy for spreading other 64-bit values
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
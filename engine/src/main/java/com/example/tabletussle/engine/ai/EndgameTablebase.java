@@ -0,0 +1,404 @@
+package com.example.tabletussle.engine.ai;
+
+import com.example.tabletussle.engine.GridBoard;
+import com.example.tabletussle.engine.Player;
+import com.example.tabletussle.engine.Position;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Solved 4x4 (four in a row) endgames: value and distance to the end of
+ * the game for every position with at most maxEmpty empty cells.
+ *
+ * Generated by retrograde analysis: positions with 0 empty cells are
+ * scored first, then each layer with one more empty cell is solved from the
+ * layer below it (every move fills a cell), with the positions of a layer
+ * split across a ForkJoinPool.
+ *
+ * Positions are numbered without gaps: per number of empty cells e, by the
+ * combinatorial rank of the empty-cell set, then of the X stones among the
+ * occupied cells (the side to move and the stone counts follow from e).
+ * Each position takes one 4-bit code, two per byte:
+ *   0      draw
+ *   1-14   the game ends after that many plies with perfect play; odd means
+ *          the side to move wins, even that it loses
+ *   15     not a game position (someone already has four in a row)
+ * A probe is one rank computation and one byte read, straight from a
+ * memory-mapped file on the device.
+ */
+public final class EndgameTablebase {
+
+    public static final int SIZE = 4;
+    public static final int CELLS = SIZE * SIZE;
+    /** Largest layer that fits the 4-bit distance codes */
+    public static final int MAX_EMPTY = 14;
+
+    private static final int MAGIC = 0x54543434; // "TT44"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+
+    private static final int DRAW_CODE = 0;
+    private static final int TERMINAL_CODE = 15;
+    private static final int SPLIT_THRESHOLD = 64; // empty-cell sets per fork-join leaf
+
+    private static final int[] LINES = winningLines();
+    private static final int[][] CHOOSE = binomials();
+    // Every subset of the 16 cells, grouped by size in rank order
+    private static final int[][] SUBSETS = subsetsByRank();
+
+    private final ByteBuffer codes;
+    private final int maxEmpty;
+    private final long[] layerOffsets; // first index of each layer
+
+    private EndgameTablebase(ByteBuffer codes, int maxEmpty) {
+        this.codes = codes;
+        this.maxEmpty = maxEmpty;
+        this.layerOffsets = layerOffsets(maxEmpty);
+    }
+
+    /**
+     * Solve every position with at most maxEmpty empty cells
+     */
+    public static EndgameTablebase generate(int maxEmpty, ForkJoinPool pool) {
+        if (maxEmpty < 0 || maxEmpty > MAX_EMPTY) {
+            throw new IllegalArgumentException("maxEmpty must be 0-" + MAX_EMPTY);
+        }
+        long[] offsets = layerOffsets(maxEmpty);
+        long total = offsets[maxEmpty + 1];
+        byte[] packed = new byte[(int) ((total + 1) / 2)];
+        EndgameTablebase table = new EndgameTablebase(ByteBuffer.wrap(packed), maxEmpty);
+
+        for (int empty = 0; empty <= maxEmpty; empty++) {
+            // Solve unpacked (one byte per position) so tasks never share a
+            // byte, then pack the finished layer
+            byte[] layer = new byte[(int) (offsets[empty + 1] - offsets[empty])];
+            pool.invoke(new SolveLayer(table, empty, layer, 0, SUBSETS[empty].length));
+            long base = offsets[empty];
+            for (int i = 0; i < layer.length; i++) {
+                long index = base + i;
+                int shift = (int) (index & 1) * 4;
+                packed[(int) (index >>> 1)] |= (byte) (layer[i] << shift);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Solves the positions of one layer for a range of empty-cell sets
+     */
+    private static final class SolveLayer extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final EndgameTablebase table;
+        private final int empty;
+        private final byte[] layer;
+        private final int from;
+        private final int to;
+
+        SolveLayer(EndgameTablebase table, int empty, byte[] layer, int from, int to) {
+            this.table = table;
+            this.empty = empty;
+            this.layer = layer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new SolveLayer(table, empty, layer, from, mid),
+                        new SolveLayer(table, empty, layer, mid, to));
+                return;
+            }
+            int occupied = CELLS - empty;
+            int xCount = (occupied + 1) / 2;
+            int[] xSubsets = SUBSETS[xCount];
+            int perSet = CHOOSE[occupied][xCount];
+            for (int e = from; e < to; e++) {
+                int emptyMask = SUBSETS[empty][e];
+                int occupiedMask = ~emptyMask & 0xFFFF;
+                for (int x = 0; x < perSet; x++) {
+                    int xMask = deposit(xSubsets[x], occupiedMask);
+                    int oMask = occupiedMask & ~xMask;
+                    layer[e * perSet + x] = (byte) table.solve(emptyMask, xMask, oMask);
+                }
+            }
+        }
+    }
+
+    /**
+     * Code of one position from the (already solved) layer below
+     */
+    private int solve(int emptyMask, int xMask, int oMask) {
+        if (hasLine(xMask) || hasLine(oMask)) {
+            return TERMINAL_CODE;
+        }
+        if (emptyMask == 0) {
+            return DRAW_CODE;
+        }
+        boolean xToMove = Integer.bitCount(xMask) == Integer.bitCount(oMask);
+        int bestWin = Integer.MAX_VALUE;
+        int longestLoss = 0;
+        boolean canDraw = false;
+        for (int free = emptyMask; free != 0; free &= free - 1) {
+            int bit = free & -free;
+            int x = xToMove ? xMask | bit : xMask;
+            int o = xToMove ? oMask : oMask | bit;
+            if (hasLine(xToMove ? x : o)) {
+                return 1; // wins on the spot
+            }
+            int child = code(emptyMask & ~bit, x);
+            if (child == DRAW_CODE) {
+                canDraw = true;
+            } else if ((child & 1) == 0) {
+                bestWin = Math.min(bestWin, child + 1); // opponent loses
+            } else {
+                longestLoss = Math.max(longestLoss, child + 1);
+            }
+        }
+        return bestWin != Integer.MAX_VALUE ? bestWin : canDraw ? DRAW_CODE : longestLoss;
+    }
+
+    private int code(int emptyMask, int xMask) {
+        long index = index(emptyMask, xMask);
+        int packed = codes.get((int) (index >>> 1));
+        return (packed >>> ((int) (index & 1) * 4)) & 0xF;
+    }
+
+    private long index(int emptyMask, int xMask) {
+        int empty = Integer.bitCount(emptyMask);
+        int occupied = CELLS - empty;
+        int xCount = Integer.bitCount(xMask);
+        return layerOffsets[empty]
+                + (long) rank(emptyMask) * CHOOSE[occupied][xCount]
+                + rank(extract(xMask, ~emptyMask & 0xFFFF));
+    }
+
+    /**
+     * Whether a 4x4 board with at most maxEmpty empty cells is in the table
+     */
+    public boolean covers(GridBoard board) {
+        return board.rows() == SIZE && board.winLength() == SIZE
+                && CELLS - board.moveCount() <= maxEmpty;
+    }
+
+    /**
+     * PerfectPlayTable.WIN, DRAW or LOSS for the side to move, UNKNOWN if
+     * the board is not covered or the game is already over
+     */
+    public int value(GridBoard board) {
+        if (!covers(board)) {
+            return PerfectPlayTable.UNKNOWN;
+        }
+        int code = probe(board);
+        return code == TERMINAL_CODE ? PerfectPlayTable.UNKNOWN
+                : code == DRAW_CODE ? PerfectPlayTable.DRAW
+                : (code & 1) == 1 ? PerfectPlayTable.WIN : PerfectPlayTable.LOSS;
+    }
+
+    /**
+     * Plies until a decisive game ends with perfect play (0 for draws)
+     */
+    public int distance(GridBoard board) {
+        int code = covers(board) ? probe(board) : DRAW_CODE;
+        return code == TERMINAL_CODE ? 0 : code;
+    }
+
+    /**
+     * A move keeping the side to move's value: the quickest win, a draw, or
+     * the slowest loss. Position.NO_MOVE if the board is not covered.
+     */
+    public int bestMove(GridBoard board) {
+        if (!covers(board) || probe(board) == TERMINAL_CODE || board.isFull()) {
+            return Position.NO_MOVE;
+        }
+        int target = probe(board);
+        int[] moves = new int[CELLS];
+        int count = board.generateMoves(moves);
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            board.makeMove(move);
+            int child = board.checkWin(move).isWin() ? TERMINAL_CODE : probe(board);
+            board.unmakeMove(move);
+            boolean keeps = child == TERMINAL_CODE ? target == 1
+                    : child == DRAW_CODE ? target == DRAW_CODE
+                    : child + 1 == target;
+            if (keeps) {
+                return move;
+            }
+        }
+        return Position.NO_MOVE;
+    }
+
+    private int probe(GridBoard board) {
+        int xMask = 0;
+        int oMask = 0;
+        for (int row = 0; row < SIZE; row++) {
+            xMask |= board.rowBits(row, Player.X) << (row * SIZE);
+            oMask |= board.rowBits(row, Player.O) << (row * SIZE);
+        }
+        return code(~(xMask | oMask) & 0xFFFF, xMask);
+    }
+
+    public int maxEmpty() {
+        return maxEmpty;
+    }
+
+    /**
+     * Number of positions in the table
+     */
+    public long positionCount() {
+        return layerOffsets[maxEmpty + 1];
+    }
+
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(maxEmpty);
+        data.writeInt(codes.capacity());
+        for (int i = 0; i < codes.capacity(); i++) {
+            data.writeByte(codes.get(i));
+        }
+        data.flush();
+    }
+
+    /**
+     * Map a table file written by write() read-only
+     */
+    public static EndgameTablebase map(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            FileChannel channel = raf.getChannel();
+            return map(channel, 0, channel.size());
+        }
+    }
+
+    /**
+     * Map a table stored inside a larger file, e.g. an uncompressed APK asset
+     */
+    public static EndgameTablebase map(FileChannel channel, long offset, long length) throws IOException {
+        return wrap(channel.map(FileChannel.MapMode.READ_ONLY, offset, length));
+    }
+
+    public static EndgameTablebase wrap(ByteBuffer buffer) throws IOException {
+        ByteBuffer data = buffer.slice();
+        if (data.capacity() < HEADER_BYTES || data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            throw new IOException("Not a 4x4 tablebase");
+        }
+        int maxEmpty = data.getInt(8);
+        int length = data.getInt(12);
+        if (maxEmpty < 0 || maxEmpty > MAX_EMPTY
+                || length != (layerOffsets(maxEmpty)[maxEmpty + 1] + 1) / 2
+                || data.capacity() < HEADER_BYTES + length) {
+            throw new IOException("Corrupt 4x4 tablebase");
+        }
+        data.position(HEADER_BYTES);
+        data.limit(HEADER_BYTES + length);
+        return new EndgameTablebase(data.slice(), maxEmpty);
+    }
+
+    // --- Indexing ---
+
+    private static long[] layerOffsets(int maxEmpty) {
+        long[] offsets = new long[maxEmpty + 2];
+        for (int empty = 0; empty <= maxEmpty; empty++) {
+            int occupied = CELLS - empty;
+            offsets[empty + 1] = offsets[empty]
+                    + (long) CHOOSE[CELLS][empty] * CHOOSE[occupied][(occupied + 1) / 2];
+        }
+        return offsets;
+    }
+
+    /**
+     * Rank of a set among the sets of the same size (combinatorial number system)
+     */
+    private static int rank(int set) {
+        int rank = 0;
+        int i = 1;
+        for (int rest = set; rest != 0; rest &= rest - 1) {
+            rank += CHOOSE[Integer.numberOfTrailingZeros(rest)][i++];
+        }
+        return rank;
+    }
+
+    /**
+     * Gather the bits of value selected by mask into the low bits
+     */
+    private static int extract(int value, int mask) {
+        int result = 0;
+        int bit = 0;
+        for (int rest = mask; rest != 0; rest &= rest - 1, bit++) {
+            if ((value & rest & -rest) != 0) {
+                result |= 1 << bit;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Spread the low bits of value over the set bits of mask (inverse of extract)
+     */
+    private static int deposit(int value, int mask) {
+        int result = 0;
+        int bit = 0;
+        for (int rest = mask; rest != 0; rest &= rest - 1, bit++) {
+            if ((value & 1 << bit) != 0) {
+                result |= rest & -rest;
+            }
+        }
+        return result;
+    }
+
+    private static boolean hasLine(int mask) {
+        for (int line : LINES) {
+            if ((mask & line) == line) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] winningLines() {
+        int[] lines = new int[2 * SIZE + 2];
+        int n = 0;
+        for (int i = 0; i < SIZE; i++) {
+            lines[n++] = 0xF << (i * SIZE);  // row
+            lines[n++] = 0x1111 << i;        // column
+        }
+        lines[n++] = 0x8421; // main diagonal
+        lines[n] = 0x1248;   // anti diagonal
+        return lines;
+    }
+
+    private static int[][] binomials() {
+        int[][] choose = new int[CELLS + 1][CELLS + 1];
+        for (int n = 0; n <= CELLS; n++) {
+            choose[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                choose[n][k] = choose[n - 1][k - 1] + choose[n - 1][k];
+            }
+        }
+        return choose;
+    }
+
+    private static int[][] subsetsByRank() {
+        int[][] subsets = new int[CELLS + 1][];
+        for (int size = 0; size <= CELLS; size++) {
+            subsets[size] = new int[CHOOSE[CELLS][size]];
+        }
+        for (int set = 0; set < 1 << CELLS; set++) {
+            subsets[Integer.bitCount(set)][rank(set)] = set;
+        }
+        return subsets;
+    }
+}
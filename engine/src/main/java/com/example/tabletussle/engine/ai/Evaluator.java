@@ -0,0 +1,20 @@
+package com.example.tabletussle.engine.ai;
+
+import com.example.tabletussle.engine.Position;
+
+/**
+ * Static evaluation used at the search horizon
+ */
+public interface Evaluator {
+
+    /**
+     * For positions the search always solves to the end (3x3)
+     */
+    Evaluator NONE = position -> 0;
+
+    /**
+     * Heuristic score from the point of view of the side to move.
+     * Must stay well below NegamaxSearch.WIN_SCORE.
+     */
+    int evaluate(Position position);
+}
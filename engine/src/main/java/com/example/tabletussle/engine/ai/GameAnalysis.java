@@ -0,0 +1,202 @@
+package com.example.tabletussle.engine.ai;
+
+import com.example.tabletussle.engine.Position;
+
+import java.util.Arrays;
+
+/**
+ * Post-game review: replays a finished game and marks every move as best,
+ * inaccuracy or blunder against the search's verdict.
+ *
+ * Each position of the game is searched once. The score of the position
+ * before a move is the best the mover could get; minus the score of the
+ * position after it is what the move actually got. The difference decides
+ * the mark: giving away a win is an inaccuracy, walking into a forced loss
+ * a blunder, and unresolved scores are compared against the line weights.
+ *
+ * The work is done one move per step() so a caller can run it on a
+ * background thread, stop between moves, and keep what is done so far.
+ * The search is passed to step(), so the thread that runs the review can
+ * also be the one that creates it (and its transposition table).
+ */
+public final class GameAnalysis {
+
+    public static final int BEST = 0;
+    public static final int INACCURACY = 1;
+    public static final int BLUNDER = 2;
+
+    // Score drops that count when neither side is proven to win (LinePatterns weights)
+    private static final int INACCURACY_DROP = 64;
+    private static final int BLUNDER_DROP = 512;
+    private static final char[] CODES = {'B', 'I', 'X'};
+
+    private final Position position;
+    private final int firstPlayer;
+    private final int[] moves;
+    private final TimeManager perPosition;
+
+    private final int[] marks;
+    private final int[] bestMoves;
+    private volatile int analyzed; // marks below it are safe to read from any thread
+    private boolean haveScore; // score/bestMove hold the search of the current position
+    private int score;
+    private int bestMove;
+    private volatile boolean stopped;
+    private volatile NegamaxSearch searching; // search of the running step, for stop()
+
+    /**
+     * @param start - position the game started from; copied, not modified
+     * @param moves - the moves of the game, in order
+     */
+    public GameAnalysis(Position start, int[] moves, int count, TimeManager perPosition) {
+        this.position = start.copy();
+        this.firstPlayer = start.sideToMove();
+        this.moves = Arrays.copyOf(moves, count);
+        this.perPosition = perPosition;
+        this.marks = new int[count];
+        this.bestMoves = new int[count];
+    }
+
+    /**
+     * Analyse the next move of the game
+     * @param search - used for every step of this review, one step at a time
+     * @return false once every move is done, or when stopped
+     */
+    public boolean step(NegamaxSearch search) {
+        // Taken before stopped is read: a stop() from now on aborts the searches
+        int stops = search.stopCount();
+        searching = search;
+        if (stopped || isComplete()) {
+            return false;
+        }
+        if (!haveScore) {
+            SearchResult before = search.search(position, perPosition, NegamaxSearch.MAX_PLY, stops);
+            if (stopped) {
+                return false;
+            }
+            score = before.score();
+            bestMove = before.move();
+            haveScore = true;
+        }
+
+        int move = moves[analyzed];
+        position.makeMove(move);
+        int played;
+        int reply = Position.NO_MOVE;
+        if (position.checkWin(move).isWin()) {
+            played = NegamaxSearch.WIN_SCORE - 1;
+            haveScore = false;
+        } else if (position.isFull()) {
+            played = 0;
+            haveScore = false;
+        } else {
+            SearchResult after = search.search(position, perPosition, NegamaxSearch.MAX_PLY, stops);
+            if (stopped) {
+                position.unmakeMove(move);
+                return false;
+            }
+            played = -after.score();
+            reply = after.move();
+        }
+        marks[analyzed] = move == bestMove ? BEST : mark(score, played);
+        bestMoves[analyzed] = bestMove;
+        analyzed++;
+        if (haveScore) {
+            // The position after this move is the one before the next
+            score = -played;
+            bestMove = reply;
+        }
+        return true;
+    }
+
+    private static int mark(int best, int played) {
+        if (played <= -NegamaxSearch.WIN_THRESHOLD && best > -NegamaxSearch.WIN_THRESHOLD) {
+            return BLUNDER; // a forced loss that could have been avoided
+        }
+        if (best >= NegamaxSearch.WIN_THRESHOLD && played < NegamaxSearch.WIN_THRESHOLD) {
+            return INACCURACY; // a forced win let go
+        }
+        if (Math.abs(best) >= NegamaxSearch.WIN_THRESHOLD || Math.abs(played) >= NegamaxSearch.WIN_THRESHOLD) {
+            return BEST; // same outcome, only the distance differs
+        }
+        int drop = best - played;
+        return drop >= BLUNDER_DROP ? BLUNDER : drop >= INACCURACY_DROP ? INACCURACY : BEST;
+    }
+
+    /**
+     * Ask a running step (on another thread) to return as soon as possible.
+     * Moves already analysed are kept.
+     */
+    public void stop() {
+        stopped = true;
+        NegamaxSearch search = searching;
+        if (search != null) {
+            search.stop();
+        }
+    }
+
+    public boolean isComplete() {
+        return analyzed == moves.length;
+    }
+
+    public int moveCount() {
+        return moves.length;
+    }
+
+    /**
+     * Moves analysed so far, from the first
+     */
+    public int analyzedMoves() {
+        return analyzed;
+    }
+
+    /**
+     * Move of the game at this ply
+     */
+    public int move(int ply) {
+        return moves[ply];
+    }
+
+    /**
+     * Mark of an analysed move: BEST, INACCURACY or BLUNDER
+     */
+    public int mark(int ply) {
+        return marks[ply];
+    }
+
+    /**
+     * The search's choice in the position before an analysed move
+     */
+    public int bestMove(int ply) {
+        return bestMoves[ply];
+    }
+
+    /**
+     * How many of a player's analysed moves got this mark
+     */
+    public int count(int mark, int player) {
+        int count = 0;
+        for (int ply = 0; ply < analyzed; ply++) {
+            boolean byPlayer = (ply % 2 == 0) == (player == firstPlayer);
+            if (byPlayer && marks[ply] == mark) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Compact form for storing with the game: one "mark best-move" entry per
+     * analysed move, e.g. "B4,I0,X8" (B = best, I = inaccuracy, X = blunder)
+     */
+    public String encode() {
+        StringBuilder sb = new StringBuilder(analyzed * 4);
+        for (int ply = 0; ply < analyzed; ply++) {
+            if (ply > 0) {
+                sb.append(',');
+            }
+            sb.append(CODES[marks[ply]]).append(bestMoves[ply]);
+        }
+        return sb.toString();
+    }
+}
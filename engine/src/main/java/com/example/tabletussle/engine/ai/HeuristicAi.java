@@ -0,0 +1,152 @@
+package com.example.tabletussle.engine.ai;
+
+import com.example.tabletussle.engine.Player;
+import com.example.tabletussle.engine.Position;
+
+import java.util.Random;
+
+/**
+ * Rule-based AI used by the single player mode.
+ * Priority: Win > Block > Center > Corner (3x3) / Near a stone (larger boards) > Random
+ *
+ * Works on any Position through make/unmake-free probes (wouldWin), reusing
+ * one move buffer, so choosing a move allocates nothing.
+ */
+public final class HeuristicAi {
+
+    private final Random random;
+    private int[] moves = new int[0];
+
+    public HeuristicAi(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Pick a move for the side to move.
+     * @param smartPercent - chance (0-100) of playing the strategic move instead of a random one
+     * @return the chosen cell, or Position.NO_MOVE if the board is full
+     */
+    public int chooseMove(Position position, int smartPercent) {
+        if (random.nextInt(100) < smartPercent) {
+            return findSmartMove(position);
+        }
+        return findRandomMove(position);
+    }
+
+    /**
+     * Best move according to the priority list above
+     */
+    public int findSmartMove(Position position) {
+        int me = position.sideToMove();
+
+        // 1st Priority: Check if AI can win
+        int winMove = findWinningMove(position, me);
+        if (winMove != Position.NO_MOVE) {
+            return winMove;
+        }
+
+        // 2nd Priority: Block opponent from winning
+        int blockMove = findWinningMove(position, Player.opponent(me));
+        if (blockMove != Position.NO_MOVE) {
+            return blockMove;
+        }
+
+        // 3rd Priority: Take center if available
+        int rows = position.rows();
+        int columns = position.columns();
+        int center = (rows / 2) * columns + columns / 2;
+        if (position.isLegal(center)) {
+            return center;
+        }
+
+        if (rows <= 3 && columns <= 3) {
+            // 4th Priority: Take a corner
+            int corner = pickLegal(position, 0, columns - 1, (rows - 1) * columns, rows * columns - 1);
+            if (corner != Position.NO_MOVE) {
+                return corner;
+            }
+        } else {
+            // 4th Priority: Play next to an existing stone
+            int near = findNearMove(position);
+            if (near != Position.NO_MOVE) {
+                return near;
+            }
+        }
+
+        // 5th Priority: Take any available space
+        return findRandomMove(position);
+    }
+
+    /**
+     * Find a cell that completes a line for the specified player
+     */
+    public int findWinningMove(Position position, int player) {
+        int count = generate(position);
+        for (int i = 0; i < count; i++) {
+            if (position.wouldWin(moves[i], player)) {
+                return moves[i];
+            }
+        }
+        return Position.NO_MOVE; // No winning move found
+    }
+
+    /**
+     * Pick a random empty cell
+     */
+    public int findRandomMove(Position position) {
+        int count = generate(position);
+        if (count == 0) {
+            return Position.NO_MOVE;
+        }
+        return moves[random.nextInt(count)];
+    }
+
+    /**
+     * Random empty cell touching (8-neighbourhood) an occupied one
+     */
+    private int findNearMove(Position position) {
+        int count = generate(position);
+        int rows = position.rows();
+        int columns = position.columns();
+        int near = 0;
+        for (int i = 0; i < count; i++) {
+            int row = moves[i] / columns;
+            int col = moves[i] % columns;
+            boolean touching = false;
+            for (int dr = -1; dr <= 1 && !touching; dr++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    int r = row + dr;
+                    int c = col + dc;
+                    if (r >= 0 && r < rows && c >= 0 && c < columns
+                            && position.get(r * columns + c) != Player.EMPTY) {
+                        touching = true;
+                        break;
+                    }
+                }
+            }
+            if (touching) {
+                moves[near++] = moves[i]; // compact in place
+            }
+        }
+        return near == 0 ? Position.NO_MOVE : moves[random.nextInt(near)];
+    }
+
+    private int pickLegal(Position position, int... candidates) {
+        int count = 0;
+        int chosen = Position.NO_MOVE;
+        for (int cell : candidates) {
+            // Reservoir sampling keeps the pick uniform without a list
+            if (position.isLegal(cell) && random.nextInt(++count) == 0) {
+                chosen = cell;
+            }
+        }
+        return chosen;
+    }
+
+    private int generate(Position position) {
+        if (moves.length < position.cellCount()) {
+            moves = new int[position.cellCount()];
+        }
+        return position.generateMoves(moves);
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.tabletussle.engine.ai;
+
+import com.example.tabletussle.engine.Position;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates every candidate move of the side to move for the hint heatmap.
+ *
+ * Each move gets its own fork-join task, which plays it on a copy of the
+ * position and searches the reply with its own NegamaxSearch. All tasks
+ * share one transposition table, so positions that several cells lead to
+ * are only searched once. Results are passed to the listener as soon as
+ * each cell is done, on the worker thread that searched it, so a caller
+ * can draw the heatmap cell by cell instead of waiting for the slowest.
+ */
+public final class HintSearch {
+
+    public static final int WIN = 1;
+    public static final int DRAW = 0;
+    public static final int LOSS = -1;
+    public static final int UNCLEAR = 2; // search ran out of time before a proof
+
+    // Heuristic scores this large shade a cell fully (an open three on most boards)
+    private static final double FULL_SHADE_SCORE = 512;
+
+    /**
+     * Receives the cells as they finish, on a worker thread
+     */
+    public interface Listener {
+        void onHint(Hint hint);
+    }
+
+    /**
+     * Evaluation of one move, from the point of view of the side that plays it
+     */
+    public static final class Hint {
+        private final int move;
+        private final int score;
+        private final int depth;
+        private final int verdict;
+
+        Hint(int move, int score, int depth, int verdict) {
+            this.move = move;
+            this.score = score;
+            this.depth = depth;
+            this.verdict = verdict;
+        }
+
+        public int move() {
+            return move;
+        }
+
+        public int score() {
+            return score;
+        }
+
+        public int depth() {
+            return depth;
+        }
+
+        /**
+         * WIN, DRAW or LOSS when the search proved it, UNCLEAR otherwise
+         */
+        public int verdict() {
+            return verdict;
+        }
+
+        /**
+         * Shade from -1 (loss) to 1 (win); unclear cells lean by their score
+         */
+        public double value() {
+            if (verdict != UNCLEAR) {
+                return verdict;
+            }
+            return Math.max(-0.9, Math.min(0.9, score / FULL_SHADE_SCORE));
+        }
+
+        @Override
+        public String toString() {
+            String name = verdict == WIN ? "win" : verdict == LOSS ? "loss" : verdict == DRAW ? "draw" : "unclear";
+            return "Hint{move=" + move + ", " + name + ", score=" + score + ", depth=" + depth + "}";
+        }
+    }
+
+    private final TranspositionTable table;
+    private final Evaluator evaluator;
+    private final ForkJoinPool pool;
+    private Run current;
+
+    /**
+     * @param parallelism - cells searched at the same time
+     */
+    public HintSearch(TranspositionTable table, Evaluator evaluator, int parallelism) {
+        this.table = table;
+        this.evaluator = evaluator;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Start evaluating the candidate moves of the position, each within the
+     * given budget, and return at once. A run still in progress is cancelled.
+     * The position is not modified; every task works on its own copy.
+     * @return the task, done once every cell was reported
+     */
+    public synchronized ForkJoinTask<?> start(Position position, TimeManager perCell, Listener listener) {
+        cancel();
+        table.newSearch();
+        Position snapshot = position.copy();
+        int[] moves = new int[snapshot.cellCount()];
+        int count = snapshot.generateCandidateMoves(moves);
+        current = new Run(snapshot, moves, count, perCell, listener);
+        return pool.submit(current);
+    }
+
+    /**
+     * Evaluate the candidate moves and wait for all of them (tools, tests)
+     */
+    public List<Hint> analyze(Position position, TimeManager perCell) {
+        List<Hint> hints = new ArrayList<>();
+        start(position, perCell, hint -> {
+            synchronized (hints) {
+                hints.add(hint);
+            }
+        }).join();
+        return hints;
+    }
+
+    /**
+     * Stop the current run; cells that finish afterwards are not reported
+     */
+    public synchronized void cancel() {
+        if (current != null) {
+            current.cancelled = true;
+            for (NegamaxSearch search : current.searching) {
+                search.stop();
+            }
+            current = null;
+        }
+    }
+
+    /**
+     * Cancel and release the worker threads; the object is unusable afterwards
+     */
+    public void shutdown() {
+        cancel();
+        pool.shutdownNow();
+    }
+
+    private final class Run extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Position position;
+        private final int[] moves;
+        private final int count;
+        private final TimeManager perCell;
+        private final Listener listener;
+        private final Set<NegamaxSearch> searching = ConcurrentHashMap.newKeySet();
+        private volatile boolean cancelled;
+
+        Run(Position position, int[] moves, int count, TimeManager perCell, Listener listener) {
+            this.position = position;
+            this.moves = moves;
+            this.count = count;
+            this.perCell = perCell;
+            this.listener = listener;
+        }
+
+        @Override
+        protected void compute() {
+            List<RecursiveAction> cells = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                final int move = moves[i];
+                cells.add(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        if (cancelled) {
+                            return;
+                        }
+                        Hint hint = evaluate(move);
+                        if (hint != null && !cancelled) {
+                            listener.onHint(hint);
+                        }
+                    }
+                });
+            }
+            invokeAll(cells);
+        }
+
+        private Hint evaluate(int move) {
+            Position copy = position.copy();
+            copy.makeMove(move);
+            if (copy.checkWin(move).isWin()) {
+                return new Hint(move, NegamaxSearch.WIN_SCORE - 1, 1, WIN);
+            }
+            if (copy.isFull()) {
+                return new Hint(move, 0, 1, DRAW);
+            }
+            NegamaxSearch search = new NegamaxSearch(table, evaluator);
+            search.setAgesTable(false);
+            searching.add(search);
+            if (cancelled) {
+                return null; // cancel() may have missed this search; never start it
+            }
+            // A cancel landing just before the search starts costs at most this cell's budget
+            SearchResult reply = search.search(copy, perCell, NegamaxSearch.MAX_PLY);
+            searching.remove(search);
+
+            // The reply's score is the opponent's: negate it for the mover
+            int score = -reply.score();
+            int emptyCells = copy.cellCount() - copy.moveCount();
+            int verdict = score >= NegamaxSearch.WIN_THRESHOLD ? WIN
+                    : score <= -NegamaxSearch.WIN_THRESHOLD ? LOSS
+                    : reply.depth() >= emptyCells ? DRAW : UNCLEAR;
+            return new Hint(move, score, reply.depth() + 1, verdict);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.tabletussle.engine.ai;
+
+import com.example.tabletussle.engine.Position;
+
+/**
+ * Lazy SMP: several threads run the same iterative-deepening alpha-beta
+ * search on the same root, sharing one transposition table. Threads do
+ * not coordinate at all; each benefits from the bounds and best moves the
+ * others leave in the table, which is enough to scale with the cores.
+ *
+ * Thread 0 is the main search and decides when to stop. Odd helpers search
+ * every iteration one ply deeper, and each helper breaks move-ordering ties
+ * with its own seed, so the threads drift apart instead of exploring
+ * identical trees. The deepest completed result wins.
+ */
+public final class LazySmpSearch {
+
+    private final TranspositionTable table;
+    private final NegamaxSearch[] searchers;
+
+    /**
+     * @param threads - searching threads, 1 = plain NegamaxSearch on the calling thread
+     */
+    public LazySmpSearch(TranspositionTable table, Evaluator evaluator, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one thread: " + threads);
+        }
+        this.table = table;
+        searchers = new NegamaxSearch[threads];
+        for (int i = 0; i < threads; i++) {
+            searchers[i] = new NegamaxSearch(table, evaluator);
+            searchers[i].setDepthOffset(i % 2);
+            searchers[i].setOrderingSeed(i);
+            searchers[i].setAgesTable(false);
+        }
+    }
+
+    public TranspositionTable table() {
+        return table;
+    }
+
+    public int threads() {
+        return searchers.length;
+    }
+
+    /**
+     * Search with all threads until the main thread's budget runs out.
+     * The position is not modified; every thread works on its own copy.
+     */
+    public SearchResult search(Position position, TimeManager time, int maxDepth) {
+        long start = System.nanoTime();
+        int helpers = searchers.length - 1;
+        SearchResult[] results = new SearchResult[searchers.length];
+        table.newSearch();
+        // Taken before any thread starts, so a stop() that reaches a helper
+        // before its search begins still stops it
+        int[] stops = new int[searchers.length];
+        for (int i = 0; i < searchers.length; i++) {
+            stops[i] = searchers[i].stopCount();
+        }
+
+        Thread[] running = new Thread[helpers];
+        // Helpers only stop when the main thread is done
+        TimeManager helperTime = TimeManager.fixed(time.hardMillis());
+        for (int i = 1; i <= helpers; i++) {
+            final int index = i;
+            Position copy = position.copy();
+            running[i - 1] = new Thread(() -> results[index] =
+                    searchers[index].search(copy, helperTime, maxDepth, stops[index]), "smp-helper-" + i);
+            running[i - 1].start();
+        }
+
+        results[0] = searchers[0].search(position.copy(), time, maxDepth, stops[0]);
+
+        for (int i = 1; i <= helpers; i++) {
+            searchers[i].stop();
+        }
+        // The searchers are reused by the next search, so every helper must
+        // be gone before returning, even when interrupted; the flag is restored after
+        boolean interrupted = false;
+        for (Thread thread : running) {
+            while (true) {
+                try {
+                    thread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Deepest finished iteration wins; the main thread on ties
+        SearchResult best = results[0];
+        long nodes = 0;
+        double hits = 0;
+        for (SearchResult result : results) {
+            if (result == null) {
+                continue;
+            }
+            nodes += result.nodes();
+            hits += result.ttHitRate() * result.nodes();
+            if (result.move() != Position.NO_MOVE && result.depth() > best.depth()) {
+                best = result;
+            }
+        }
+        return new SearchResult(best.move(), best.score(), best.depth(), nodes,
+                System.nanoTime() - start, nodes == 0 ? 0 : hits / nodes);
+    }
+
+    /**
+     * First-move cutoff rate of the main thread's last search (see
+     * NegamaxSearch.firstMoveCutoffRate)
+     */
+    public double firstMoveCutoffRate() {
+        return searchers[0].firstMoveCutoffRate();
+    }
+
+    /**
+     * Ask a running search (on another thread) to return as soon as possible
+     */
+    public void stop() {
+        for (NegamaxSearch searcher : searchers) {
+            searcher.stop();
+        }
+    }
+}
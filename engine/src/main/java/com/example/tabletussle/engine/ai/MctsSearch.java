@@ -0,0 +1,557 @@
+package com.example.tabletussle.engine.ai;
+
+import com.example.tabletussle.engine.Player;
+import com.example.tabletussle.engine.Position;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Monte Carlo tree search: UCT selection and uniformly random playouts.
+ * Needs no evaluation function, so it plays any Position out of the box.
+ *
+ * Nodes live in a pool of parallel primitive arrays (see NodePool); the
+ * children of a node are one contiguous block, so a node only stores the
+ * index of its first child and the block length.
+ *
+ * Several worker threads can search one shared tree. Node statistics are
+ * updated lock-free with atomic adds, a node is expanded by whichever worker
+ * wins a CAS on its child pointer, and a worker walking down adds a virtual
+ * loss to each node it passes so the others spread out over different paths
+ * instead of all following the current best line.
+ *
+ * The tree is kept between searches. When the next search starts from a
+ * child or grandchild of the previous root (our move, then the opponent's
+ * reply), that subtree is compacted into the spare pool and becomes the
+ * new root, so its playouts are not thrown away.
+ */
+public final class MctsSearch {
+
+    private static final double EXPLORATION = 1.41; // ~sqrt(2), rewards in [0, 1]
+    private static final int CHECK_INTERVAL = 64;   // playouts between clock checks
+    // Visits a worker adds to a node on the way down; all but one are taken
+    // back with the real result. Each counts as a lost playout meanwhile.
+    private static final int VIRTUAL_LOSS = 3;
+
+    private final Random random;
+    private final Worker[] workers;
+    private NodePool pool;
+    private NodePool spare;
+
+    private Position rootPosition; // position at the tree root (private copy)
+    private final AtomicInteger stopCount = new AtomicInteger(); // stop() calls so far
+    private int stopsBefore; // stopCount when the running search was requested
+    private long playouts;
+    private long reusedVisits;
+    private int maxDepth;
+
+    /**
+     * Single-threaded search
+     * @param capacity - maximum tree size in nodes (17 bytes each, twice over for the spare pool)
+     */
+    public MctsSearch(int capacity, Random random) {
+        this(capacity, random, 1);
+    }
+
+    /**
+     * @param threads - worker threads sharing the tree (1 = search on the calling thread)
+     */
+    public MctsSearch(int capacity, Random random, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one thread: " + threads);
+        }
+        this.random = random;
+        pool = new NodePool(capacity);
+        spare = new NodePool(capacity);
+        workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker();
+        }
+    }
+
+    public int threads() {
+        return workers.length;
+    }
+
+    /**
+     * Search until the time budget's soft limit is used up
+     */
+    public SearchResult search(Position position, TimeManager time) {
+        long deadline = System.nanoTime() + time.softMillis() * 1_000_000L;
+        return run(position, Long.MAX_VALUE, deadline, stopCount.get());
+    }
+
+    /**
+     * Search a fixed number of playouts (reproducible with a seeded Random
+     * and one thread)
+     */
+    public SearchResult search(Position position, long playoutBudget) {
+        return run(position, playoutBudget, Long.MAX_VALUE, stopCount.get());
+    }
+
+    /**
+     * Ask a running search (on another thread) to return as soon as possible
+     */
+    public void stop() {
+        stopCount.incrementAndGet();
+    }
+
+    /**
+     * Forget the tree, so the next search starts from scratch (a new game)
+     */
+    public void clearTree() {
+        rootPosition = null;
+    }
+
+    /**
+     * Visits already in the tree when the last search started (0 without reuse)
+     */
+    public long reusedVisits() {
+        return reusedVisits;
+    }
+
+    /**
+     * Nodes currently in the tree
+     */
+    public int treeSize() {
+        return pool.size.get();
+    }
+
+    /**
+     * Playout throughput for 1 to maxThreads workers, each on a fresh tree
+     * for the same position and time
+     * @return playouts per second, index = thread count - 1
+     */
+    public static double[] measureScaling(Position position, int maxThreads, int capacity, long millis) {
+        double[] rates = new double[maxThreads];
+        for (int threads = 1; threads <= maxThreads; threads++) {
+            MctsSearch search = new MctsSearch(capacity, new Random(threads), threads);
+            rates[threads - 1] = search.search(position, TimeManager.fixed(millis)).nodesPerSecond();
+        }
+        return rates;
+    }
+
+    /**
+     * @param stopsBefore - stopCount on entry: any stop() after that aborts
+     *                      this search, however early it lands
+     */
+    private SearchResult run(Position position, long playoutBudget, long deadlineNanos, int stopsBefore) {
+        long start = System.nanoTime();
+        this.stopsBefore = stopsBefore;
+        reuseOrReset(position);
+        reusedVisits = pool.visits.get(NodePool.ROOT);
+
+        int threads = workers.length;
+        for (int i = 0; i < threads; i++) {
+            // Split the playout budget; the first workers take the remainder
+            long share = playoutBudget == Long.MAX_VALUE ? Long.MAX_VALUE
+                    : playoutBudget / threads + (i < playoutBudget % threads ? 1 : 0);
+            workers[i].prepare(position, threads == 1 ? random : new Random(random.nextLong()),
+                    share, deadlineNanos);
+        }
+
+        if (threads == 1) {
+            workers[0].run();
+        } else {
+            Thread[] running = new Thread[threads];
+            for (int i = 0; i < threads; i++) {
+                running[i] = new Thread(workers[i], "mcts-worker-" + i);
+                running[i].start();
+            }
+            // Every worker must be gone before the pools are touched again,
+            // so an interrupt only stops the search; the flag is restored after
+            boolean interrupted = false;
+            for (Thread thread : running) {
+                while (true) {
+                    try {
+                        thread.join();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                        stop();
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        playouts = 0;
+        maxDepth = 0;
+        for (Worker worker : workers) {
+            playouts += worker.playouts;
+            maxDepth = Math.max(maxDepth, worker.maxDepth);
+        }
+        return result(start);
+    }
+
+    private SearchResult result(long start) {
+        NodePool p = pool;
+        int bestMove = Position.NO_MOVE;
+        int score = 0;
+        int first = p.firstChild.get(NodePool.ROOT);
+        if (first >= 0) {
+            int best = first;
+            for (int child = first + 1; child < first + p.childCount[NodePool.ROOT]; child++) {
+                if (p.state[best] == NodePool.WIN) {
+                    break; // winning at once beats any statistics
+                }
+                if (p.state[child] == NodePool.WIN || p.visits.get(child) > p.visits.get(best)) {
+                    best = child;
+                }
+            }
+            bestMove = p.move[best];
+            int visits = p.visits.get(best);
+            if (p.state[best] == NodePool.WIN) {
+                score = NegamaxSearch.WIN_SCORE - 1;
+            } else if (visits > 0) {
+                // Mean reward mapped to -1000 (always lost) .. 1000 (always won)
+                score = (int) Math.round((p.score.get(best) / (double) visits - 1) * 1000);
+            }
+        }
+        return new SearchResult(bestMove, score, maxDepth, playouts, System.nanoTime() - start, 0);
+    }
+
+    /**
+     * Keep the subtree for the new position if it is the current root, a
+     * child or a grandchild of it; otherwise start a fresh tree.
+     */
+    private void reuseOrReset(Position position) {
+        int node = rootPosition != null && rootPosition.cellCount() == position.cellCount()
+                ? find(NodePool.ROOT, position, 2) : NodePool.NONE;
+        if (node == NodePool.NONE) {
+            pool.reset();
+        } else if (node != NodePool.ROOT) {
+            spare.copySubtree(pool, node);
+            NodePool old = pool;
+            pool = spare;
+            spare = old;
+        }
+        rootPosition = position.copy();
+    }
+
+    /**
+     * Node below (and including) start whose position matches, searching
+     * plies levels deep by replaying moves on rootPosition
+     */
+    private int find(int node, Position position, int plies) {
+        if (rootPosition.moveCount() == position.moveCount()) {
+            return rootPosition.hash() == position.hash() ? node : NodePool.NONE;
+        }
+        int first = pool.firstChild.get(node);
+        if (plies == 0 || first < 0 || rootPosition.moveCount() > position.moveCount()) {
+            return NodePool.NONE;
+        }
+        for (int child = first; child < first + pool.childCount[node]; child++) {
+            int move = pool.move[child];
+            rootPosition.makeMove(move);
+            int found = find(child, position, plies - 1);
+            rootPosition.unmakeMove(move);
+            if (found != NodePool.NONE) {
+                return found;
+            }
+        }
+        return NodePool.NONE;
+    }
+
+    /**
+     * One search thread: its own board copy, random source and buffers
+     */
+    private final class Worker implements Runnable {
+        private Position board;
+        private Random random;
+        private long budget;
+        private long deadlineNanos;
+        private int[] path = new int[0];
+        private int[] moveStack = new int[0];
+        private int[] playoutMoves = new int[0];
+        private int[] candidates = new int[0];
+
+        long playouts;
+        int maxDepth;
+
+        void prepare(Position position, Random random, long budget, long deadlineNanos) {
+            this.board = position.copy();
+            this.random = random;
+            this.budget = budget;
+            this.deadlineNanos = deadlineNanos;
+            playouts = 0;
+            maxDepth = 0;
+            int cells = position.cellCount();
+            if (candidates.length < cells) {
+                path = new int[cells + 2];
+                moveStack = new int[cells + 1];
+                playoutMoves = new int[cells];
+                candidates = new int[cells];
+            }
+        }
+
+        @Override
+        public void run() {
+            while (playouts < budget && stopCount.get() == stopsBefore) {
+                playout();
+                playouts++;
+                if (playouts % CHECK_INTERVAL == 0 && System.nanoTime() >= deadlineNanos) {
+                    break;
+                }
+            }
+        }
+
+        /**
+         * One iteration: select down the tree, expand, play out randomly, back up.
+         * The board is restored before returning.
+         */
+        private void playout() {
+            NodePool p = pool;
+            int rootSide = board.sideToMove();
+            int node = NodePool.ROOT;
+            int depth = 0;
+            int made = 0;
+            path[depth++] = node;
+            p.visits.incrementAndGet(NodePool.ROOT);
+
+            int winner;
+            while (true) {
+                byte state = p.state[node];
+                if (state == NodePool.WIN) {
+                    winner = Player.opponent(board.sideToMove()); // the move into this node won
+                    break;
+                }
+                if (state == NodePool.DRAW) {
+                    winner = Player.EMPTY;
+                    break;
+                }
+                if (p.firstChild.get(node) < 0) {
+                    // Expand on the second visit so one-off leaves cost no memory
+                    // (a first visit only carries this worker's virtual loss)
+                    boolean firstVisit = node != NodePool.ROOT && p.visits.get(node) <= VIRTUAL_LOSS;
+                    if (firstVisit || !expand(p, node)) {
+                        winner = rollout(made);
+                        break;
+                    }
+                }
+                node = select(p, node);
+                p.visits.addAndGet(node, VIRTUAL_LOSS);
+                board.makeMove(p.move[node]);
+                moveStack[made++] = p.move[node];
+                path[depth++] = node;
+            }
+            maxDepth = Math.max(maxDepth, depth - 1);
+
+            // Back up: node at path depth d was entered by the root side when d is odd.
+            // Taking back all but one virtual visit leaves exactly one real visit.
+            for (int d = 1; d < depth; d++) {
+                int n = path[d];
+                int mover = (d & 1) == 1 ? rootSide : Player.opponent(rootSide);
+                int reward = winner == mover ? 2 : winner == Player.EMPTY ? 1 : 0;
+                if (reward != 0) {
+                    p.score.addAndGet(n, reward);
+                }
+                p.visits.addAndGet(n, 1 - VIRTUAL_LOSS);
+            }
+
+            while (made > 0) {
+                board.unmakeMove(moveStack[--made]);
+            }
+        }
+
+        /**
+         * Random moves until the game ends, then take them back. Uses moveStack
+         * above the tree moves (made) as scratch. The move list is generated
+         * once and shrunk as cells are played when the position allows it
+         * (Position.movesAreEmptyCells), else again after every move.
+         * @return the winner, or Player.EMPTY for a draw
+         */
+        private int rollout(int made) {
+            boolean shrink = board.movesAreEmptyCells();
+            int count = board.generateMoves(playoutMoves);
+            int start = made;
+            int winner = Player.EMPTY;
+            while (count > 0) {
+                int pick = random.nextInt(count);
+                int move = playoutMoves[pick];
+                int mover = board.sideToMove();
+                board.makeMove(move);
+                moveStack[made++] = move;
+                if (board.checkWin(move).isWin()) {
+                    winner = mover;
+                    break;
+                }
+                if (shrink) {
+                    playoutMoves[pick] = playoutMoves[--count];
+                } else {
+                    count = board.generateMoves(playoutMoves);
+                }
+            }
+            while (made > start) {
+                board.unmakeMove(moveStack[--made]);
+            }
+            return winner;
+        }
+
+        /**
+         * Create all children of a node. Winning children are marked on the
+         * spot with wouldWin; the others are played to see whether they end
+         * the game (isFull, which is not always every cell filled).
+         * @return false if another worker is expanding the node, the pool is
+         *         full or there is no move
+         */
+        private boolean expand(NodePool p, int node) {
+            if (!p.firstChild.compareAndSet(node, NodePool.NONE, NodePool.EXPANDING)) {
+                return false;
+            }
+            int count = board.generateCandidateMoves(candidates);
+            int first = count == 0 ? NodePool.NONE : p.allocate(count);
+            if (first == NodePool.NONE) {
+                p.firstChild.set(node, NodePool.NONE);
+                return false;
+            }
+            int side = board.sideToMove();
+            for (int i = 0; i < count; i++) {
+                int child = first + i;
+                int move = candidates[i];
+                p.move[child] = (short) move;
+                p.state[child] = board.wouldWin(move, side) ? NodePool.WIN
+                        : endsInDraw(move) ? NodePool.DRAW : NodePool.OPEN;
+            }
+            p.childCount[node] = (short) count;
+            // Volatile write: publishes the children's fields to other workers
+            p.firstChild.set(node, first);
+            return true;
+        }
+
+        /**
+         * Does this (non-winning) move end the game?
+         */
+        private boolean endsInDraw(int move) {
+            board.makeMove(move);
+            boolean full = board.isFull();
+            board.unmakeMove(move);
+            return full;
+        }
+
+        /**
+         * UCT: child maximising mean reward + exploration bonus; unvisited children first
+         */
+        private int select(NodePool p, int node) {
+            int first = p.firstChild.get(node);
+            int end = first + p.childCount[node];
+            double logParent = Math.log(Math.max(1, p.visits.get(node)));
+            int best = first;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int child = first; child < end; child++) {
+                int visits = p.visits.get(child);
+                if (visits == 0) {
+                    return child;
+                }
+                double value = p.score.get(child) / (2.0 * visits)
+                        + EXPLORATION * Math.sqrt(logParent / visits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * Tree storage: one array per node field, node 0 is the root.
+     *
+     * Fields changed while workers run (child pointer, visits, score) are
+     * atomic arrays. The others are written once by the expanding worker
+     * before the volatile write of the parent's child pointer publishes them.
+     */
+    static final class NodePool {
+        static final int ROOT = 0;
+        static final int NONE = -1;
+        static final int EXPANDING = -2; // child pointer while a worker expands the node
+        static final byte OPEN = 0;
+        static final byte WIN = 1;  // the move into the node wins
+        static final byte DRAW = 2; // the move into the node ends the game without a win
+
+        final AtomicIntegerArray firstChild;
+        final short[] childCount;
+        final short[] move;
+        final AtomicIntegerArray visits;
+        final AtomicIntegerArray score; // 2 per win, 1 per draw for the player who moved into the node
+        final byte[] state;
+        final AtomicInteger size = new AtomicInteger();
+        private final int capacity;
+
+        NodePool(int capacity) {
+            this.capacity = capacity;
+            firstChild = new AtomicIntegerArray(capacity);
+            childCount = new short[capacity];
+            move = new short[capacity];
+            visits = new AtomicIntegerArray(capacity);
+            score = new AtomicIntegerArray(capacity);
+            state = new byte[capacity];
+            reset();
+        }
+
+        void reset() {
+            size.set(1);
+            clear(ROOT);
+            move[ROOT] = (short) Position.NO_MOVE;
+            state[ROOT] = OPEN;
+        }
+
+        private void clear(int node) {
+            firstChild.set(node, NONE);
+            childCount[node] = 0;
+            visits.set(node, 0);
+            score.set(node, 0);
+        }
+
+        /**
+         * Block of count fresh nodes, or NONE if the pool is full
+         */
+        int allocate(int count) {
+            int first;
+            do {
+                first = size.get();
+                if (first + count > capacity) {
+                    return NONE;
+                }
+            } while (!size.compareAndSet(first, first + count));
+            for (int i = 0; i < count; i++) {
+                clear(first + i);
+            }
+            return first;
+        }
+
+        /**
+         * Breadth-first copy of the subtree at source node from into this pool,
+         * with that node as the new root. Child blocks stay contiguous.
+         * Only called between searches, with no worker running.
+         */
+        void copySubtree(NodePool source, int from) {
+            // firstChild doubles as the queue of source indices until each
+            // node is processed, then receives the node's new first child
+            firstChild.set(ROOT, from);
+            int next = 1;
+            for (int i = 0; i < next; i++) {
+                int old = firstChild.get(i);
+                childCount[i] = source.childCount[old];
+                move[i] = source.move[old];
+                visits.set(i, source.visits.get(old));
+                score.set(i, source.score.get(old));
+                state[i] = source.state[old];
+                int oldFirst = source.firstChild.get(old);
+                if (oldFirst < 0) {
+                    firstChild.set(i, NONE);
+                    continue;
+                }
+                firstChild.set(i, next);
+                for (int k = 0; k < childCount[i]; k++) {
+                    firstChild.set(next++, oldFirst + k);
+                }
+            }
+            size.set(next);
+            move[ROOT] = (short) Position.NO_MOVE;
+        }
+    }
+}
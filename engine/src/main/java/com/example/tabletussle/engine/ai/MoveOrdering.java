@@ -0,0 +1,141 @@
+package com.example.tabletussle.engine.ai;
+
+import com.example.tabletussle.engine.Player;
+import com.example.tabletussle.engine.Position;
+
+/**
+ * Move ordering for NegamaxSearch. Alpha-beta only prunes well when the
+ * best move is tried first, so candidates are sorted by:
+ *   1. the hash move from the transposition table
+ *   2. moves that win on the spot
+ *   3. moves that block the opponent's immediate win
+ *   4. the two killer moves of this ply (quiet moves that caused a cutoff
+ *      in a sibling node)
+ *   5. the history score of the cell (how often it caused cutoffs, weighted
+ *      by depth, anywhere in the tree)
+ *
+ * One instance per search thread; all tables are allocated up front so
+ * ordering allocates nothing.
+ */
+final class MoveOrdering {
+
+    private static final int HASH_MOVE = 1 << 30;
+    private static final int WIN = 1 << 29;
+    private static final int BLOCK = 1 << 28;
+    private static final int KILLER_1 = 1 << 27;
+    private static final int KILLER_2 = 1 << 26;
+    private static final int HISTORY_LIMIT = 1 << 25; // stays below the killers
+    private static final int TIE_NOISE = 3; // mask: a few points, only reorders cells with little history
+
+    private int[][] killers = new int[0][];
+    private int[] history = new int[0];
+    private int[][] scores = new int[0][];
+    private long noise; // xorshift state, 0 = ties keep the generated order
+
+    // Statistics since the last reset
+    private long cutoffs;
+    private long firstMoveCutoffs;
+
+    /**
+     * Size the tables for a search and start its statistics. History from
+     * the previous search is halved rather than dropped: it is still a good
+     * hint one move later.
+     */
+    void begin(int plies, int cells) {
+        if (killers.length < plies || history.length < cells) {
+            killers = new int[plies][2];
+            history = new int[cells];
+            scores = new int[plies][cells];
+        }
+        for (int[] pair : killers) {
+            pair[0] = Position.NO_MOVE;
+            pair[1] = Position.NO_MOVE;
+        }
+        for (int cell = 0; cell < history.length; cell++) {
+            history[cell] >>= 1;
+            if (noise != 0) {
+                noise ^= noise << 13;
+                noise ^= noise >>> 7;
+                noise ^= noise << 17;
+                history[cell] += (int) (noise & TIE_NOISE);
+            }
+        }
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+    }
+
+    /**
+     * Add a little seeded noise to the history at every begin(), so cells
+     * nothing has been learned about yet are tried in a different order
+     * than with another seed; 0 turns it off
+     */
+    void setSeed(long seed) {
+        noise = seed == 0 ? 0 : seed * 0x9E3779B97F4A7C15L;
+    }
+
+    /**
+     * Sort the first count moves of the buffer, best first
+     */
+    void order(Position position, int[] moves, int count, int hashMove, int ply) {
+        int[] score = scores[ply];
+        int me = position.sideToMove();
+        int opponent = Player.opponent(me);
+        int killer1 = killers[ply][0];
+        int killer2 = killers[ply][1];
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            score[i] = move == hashMove ? HASH_MOVE
+                    : position.wouldWin(move, me) ? WIN
+                    : position.wouldWin(move, opponent) ? BLOCK
+                    : move == killer1 ? KILLER_1
+                    : move == killer2 ? KILLER_2
+                    : history[move];
+        }
+        // Insertion sort: candidate lists are short and mostly ordered
+        for (int i = 1; i < count; i++) {
+            int move = moves[i];
+            int s = score[i];
+            int j = i - 1;
+            while (j >= 0 && score[j] < s) {
+                moves[j + 1] = moves[j];
+                score[j + 1] = score[j];
+                j--;
+            }
+            moves[j + 1] = move;
+            score[j + 1] = s;
+        }
+    }
+
+    /**
+     * A move failed high at ply
+     * @param index - its place in the ordered list (0 = first move tried)
+     */
+    void onCutoff(Position position, int move, int ply, int depth, int index) {
+        cutoffs++;
+        if (index == 0) {
+            firstMoveCutoffs++;
+        }
+        if (position.wouldWin(move, position.sideToMove())) {
+            return; // already ordered first without help
+        }
+        int[] pair = killers[ply];
+        if (pair[0] != move) {
+            pair[1] = pair[0];
+            pair[0] = move;
+        }
+        history[move] += depth * depth;
+        if (history[move] >= HISTORY_LIMIT) {
+            for (int cell = 0; cell < history.length; cell++) {
+                history[cell] >>= 1;
+            }
+        }
+    }
+
+    /**
+     * Fraction of cutoffs produced by the first move searched (0 to 1);
+     * close to 1 means the ordering almost always guessed right
+     */
+    double firstMoveCutoffRate() {
+        return cutoffs == 0 ? 0 : (double) firstMoveCutoffs / cutoffs;
+    }
+}
@@ -0,0 +1,334 @@
+package com.example.tabletussle.engine.ai;
+
+import com.example.tabletussle.engine.Position;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Negamax with alpha-beta pruning and a transposition table, either to a
+ * fixed depth or by iterative deepening within a TimeManager budget.
+ *
+ * Works on any Position through make/unmake and its incremental Zobrist
+ * hash. Move buffers are allocated once per ply, so the search itself
+ * allocates nothing after the first call.
+ *
+ * Scores are from the point of view of the side to move. A win found at
+ * ply p scores WIN_SCORE - p, so the search prefers the quickest win and
+ * the slowest loss; the table stores such scores relative to the node.
+ */
+public final class NegamaxSearch {
+
+    public static final int WIN_SCORE = 100_000_000;
+    public static final int MAX_PLY = 1024;
+    /** Scores at or beyond this are forced wins/losses */
+    public static final int WIN_THRESHOLD = WIN_SCORE - MAX_PLY;
+
+    private static final int INFINITY = WIN_SCORE + 1;
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+    private static final int CHECK_INTERVAL = 1024; // nodes between clock checks
+
+    private final TranspositionTable table;
+    private final Evaluator evaluator;
+    private final MoveOrdering ordering = new MoveOrdering();
+    private int[][] moveBuffers = new int[0][];
+
+    private long nodes;
+    private long ttProbes;
+    private long ttHits;
+    private int depthOffset; // Lazy SMP helpers run each iteration deeper
+    private boolean agesTable = true; // false when LazySmpSearch owns the table
+    private long deadlineNanos = NO_DEADLINE;
+    private boolean aborted;
+    private final AtomicInteger stopCount = new AtomicInteger(); // stop() calls so far
+    private int stopsBefore; // stopCount when this search was requested
+
+    // Result of the last root iteration
+    private int rootMove;
+    private int rootScore;
+
+    public NegamaxSearch(TranspositionTable table, Evaluator evaluator) {
+        this.table = table;
+        this.evaluator = evaluator;
+    }
+
+    public TranspositionTable table() {
+        return table;
+    }
+
+    /**
+     * Search the side to move's best move to a fixed depth (in plies).
+     * The position is left exactly as it was passed in.
+     */
+    public SearchResult search(Position position, int depth) {
+        long start = begin(position, depth, NO_DEADLINE, stopCount.get());
+        searchRoot(position, depth, Position.NO_MOVE);
+        return result(rootMove, rootScore, depth, start);
+    }
+
+    /**
+     * Iterative deepening: search depth 1, 2, 3... until the budget runs out,
+     * maxDepth is reached or the result is forced. The TT entries of each
+     * iteration order the moves of the next one, so the repeated shallow
+     * work is cheap.
+     *
+     * If the hard limit hits mid-iteration, moves that iteration already
+     * proved better than the previous best are kept; the rest is dropped.
+     */
+    public SearchResult search(Position position, TimeManager time, int maxDepth) {
+        return search(position, time, maxDepth, stopCount.get());
+    }
+
+    /**
+     * Iterative deepening that a stop() issued after stopCount() returned
+     * stopsBefore aborts, even if it lands before this search gets going.
+     * LazySmpSearch reads the counts before starting its helper threads.
+     */
+    SearchResult search(Position position, TimeManager time, int maxDepth, int stopsBefore) {
+        int emptyCells = position.cellCount() - position.moveCount();
+        maxDepth = Math.min(maxDepth, emptyCells);
+        long start = begin(position, maxDepth, System.nanoTime() + time.hardMillis() * 1_000_000L, stopsBefore);
+        long softNanos = time.softMillis() * 1_000_000L;
+
+        int bestMove = Position.NO_MOVE;
+        int bestScore = 0;
+        int completedDepth = 0;
+        for (int iteration = 1; iteration <= maxDepth; iteration++) {
+            int depth = Math.min(maxDepth, iteration + depthOffset);
+            boolean finished = searchRoot(position, depth, bestMove);
+            if (rootMove != Position.NO_MOVE) {
+                bestMove = rootMove;
+                bestScore = rootScore;
+            }
+            if (!finished) {
+                break;
+            }
+            completedDepth = depth;
+            if (Math.abs(bestScore) >= WIN_THRESHOLD || onlyMove(position)) {
+                break; // more depth cannot change the answer
+            }
+            if (System.nanoTime() - start > softNanos / 2) {
+                break; // the next iteration would not finish in time
+            }
+        }
+        deadlineNanos = NO_DEADLINE;
+        return result(bestMove, bestScore, completedDepth, start);
+    }
+
+    /**
+     * Search every iteration this many plies deeper than the iteration number.
+     * Used by LazySmpSearch so helper threads do not mirror the main thread.
+     */
+    void setDepthOffset(int depthOffset) {
+        this.depthOffset = depthOffset;
+    }
+
+    /**
+     * Break move-ordering ties in a pseudo-random order of this seed (0 = none).
+     * Used by LazySmpSearch so helpers at the same depth search different trees.
+     */
+    void setOrderingSeed(long seed) {
+        ordering.setSeed(seed);
+    }
+
+    /**
+     * Whether each search starts a new table generation (see
+     * TranspositionTable.newSearch); LazySmpSearch does that once for all threads
+     */
+    void setAgesTable(boolean agesTable) {
+        this.agesTable = agesTable;
+    }
+
+    /**
+     * Ask a running search (on another thread) to return as soon as possible
+     */
+    public void stop() {
+        stopCount.incrementAndGet();
+    }
+
+    /**
+     * Stop requests so far; see search(Position, TimeManager, int, int)
+     */
+    int stopCount() {
+        return stopCount.get();
+    }
+
+    private long begin(Position position, int depth, long deadline, int stopsBefore) {
+        ensureBuffers(depth + 1, position.cellCount());
+        ordering.begin(moveBuffers.length, position.cellCount());
+        nodes = 0;
+        ttProbes = 0;
+        ttHits = 0;
+        aborted = false;
+        this.stopsBefore = stopsBefore;
+        deadlineNanos = deadline;
+        if (agesTable) {
+            table.newSearch();
+        }
+        return System.nanoTime();
+    }
+
+    private SearchResult result(int move, int score, int depth, long start) {
+        return new SearchResult(move, move == Position.NO_MOVE ? 0 : score,
+                depth, nodes, System.nanoTime() - start, ttHitRate());
+    }
+
+    /**
+     * One root iteration. Leaves the best fully searched move in rootMove
+     * (NO_MOVE if not even the first move finished).
+     * @param preferred - searched first, normally the previous iteration's best
+     * @return false if the search was aborted
+     */
+    private boolean searchRoot(Position position, int depth, int preferred) {
+        int[] moves = moveBuffers[0];
+        int count = position.generateCandidateMoves(moves);
+        ordering.order(position, moves, count, preferred != Position.NO_MOVE
+                ? preferred : TranspositionTable.move(table.probe(position.hash())), 0);
+
+        rootMove = Position.NO_MOVE;
+        rootScore = -INFINITY;
+        int alpha = -INFINITY;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int score = scoreMove(position, move, depth, 0, alpha, INFINITY);
+            if (aborted) {
+                return false;
+            }
+            if (score > rootScore) {
+                rootScore = score;
+                rootMove = move;
+                alpha = Math.max(alpha, score);
+            }
+        }
+        if (rootMove != Position.NO_MOVE) {
+            table.store(position.hash(), depth, toTable(rootScore, 0), TranspositionTable.EXACT, rootMove);
+        }
+        return true;
+    }
+
+    private boolean onlyMove(Position position) {
+        return position.generateCandidateMoves(moveBuffers[0]) == 1;
+    }
+
+    /**
+     * Play a move at ply and score it for the player making it
+     */
+    private int scoreMove(Position position, int move, int depth, int ply, int alpha, int beta) {
+        position.makeMove(move);
+        int score;
+        if (position.checkWin(move).isWin()) {
+            score = WIN_SCORE - (ply + 1);
+        } else if (position.isFull()) {
+            score = 0;
+        } else {
+            score = -negamax(position, depth - 1, ply + 1, -beta, -alpha);
+        }
+        position.unmakeMove(move);
+        return score;
+    }
+
+    private int negamax(Position position, int depth, int ply, int alpha, int beta) {
+        if (++nodes % CHECK_INTERVAL == 0
+                && (stopCount.get() != stopsBefore || System.nanoTime() >= deadlineNanos)) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0; // unwound by the callers, never stored
+        }
+        if (depth <= 0 || ply >= MAX_PLY) {
+            return evaluator.evaluate(position);
+        }
+
+        long key = position.hash();
+        long entry = table.probe(key);
+        ttProbes++;
+        int hashMove = Position.NO_MOVE;
+        if (entry != TranspositionTable.MISS) {
+            ttHits++;
+            hashMove = TranspositionTable.move(entry);
+            if (TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int[] moves = moveBuffers[ply];
+        int count = position.generateCandidateMoves(moves);
+        ordering.order(position, moves, count, hashMove, ply);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = Position.NO_MOVE;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int score = scoreMove(position, move, depth, ply, alpha, beta);
+            if (aborted) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        ordering.onCutoff(position, move, ply, depth, i);
+                        break; // cutoff
+                    }
+                }
+            }
+        }
+
+        int bound = bestScore <= originalAlpha ? TranspositionTable.UPPER
+                : bestScore >= beta ? TranspositionTable.LOWER
+                : TranspositionTable.EXACT;
+        table.store(key, depth, toTable(bestScore, ply), bound, bestMove);
+        return bestScore;
+    }
+
+    // Win scores count plies from the root; the table keeps them relative
+    // to the stored node so an entry stays valid at any ply.
+    private static int toTable(int score, int ply) {
+        if (score >= WIN_THRESHOLD) return score + ply;
+        if (score <= -WIN_THRESHOLD) return score - ply;
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= WIN_THRESHOLD) return score - ply;
+        if (score <= -WIN_THRESHOLD) return score + ply;
+        return score;
+    }
+
+    private void ensureBuffers(int plies, int cells) {
+        int needed = Math.min(plies, MAX_PLY) + 1;
+        if (moveBuffers.length < needed || moveBuffers[0].length < cells) {
+            moveBuffers = new int[needed][cells];
+        }
+    }
+
+    /**
+     * Fraction of transposition table probes in the last search that hit (0 to 1)
+     */
+    public double ttHitRate() {
+        return ttProbes == 0 ? 0 : (double) ttHits / ttProbes;
+    }
+
+    /**
+     * Fraction of beta cutoffs in the last search caused by the first move
+     * tried (0 to 1), a measure of how good the move ordering is
+     */
+    public double firstMoveCutoffRate() {
+        return ordering.firstMoveCutoffRate();
+    }
+
+    /**
+     * Nodes visited by the last search
+     */
+    public long nodes() {
+        return nodes;
+    }
+}
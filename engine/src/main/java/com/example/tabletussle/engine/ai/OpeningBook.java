@@ -0,0 +1,245 @@
+package com.example.tabletussle.engine.ai;
+
+import com.example.tabletussle.engine.GameVariant;
+import com.example.tabletussle.engine.GridBoard;
+import com.example.tabletussle.engine.Player;
+import com.example.tabletussle.engine.Position;
+import com.example.tabletussle.engine.Symmetry;
+import com.example.tabletussle.engine.Zobrist;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Precomputed best replies for the first moves of one board variant, read
+ * straight from a memory-mapped file: the entries never touch the Java
+ * heap and a lookup is a binary search over the mapping.
+ *
+ * Positions are stored in canonical form (see Symmetry), so one entry
+ * covers all 8 rotations/reflections of a position. File layout (big-endian):
+ *   header: magic, version, board size, win length, entry count (5 ints)
+ *   entries sorted by key, 16 bytes each:
+ *     long  Zobrist hash of the canonical position
+ *     int   best move on the canonical board
+ *     int   its search score
+ *
+ * Books are written by OpeningBookBuilder and shipped as app assets.
+ */
+public final class OpeningBook {
+
+    public static final int ENTRY_BYTES = 16;
+
+    private static final int MAGIC = 0x54544F42; // "TTOB"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 20;
+
+    private final ByteBuffer entries;
+    private final int size;
+    private final int winLength;
+    private final int count;
+
+    private OpeningBook(ByteBuffer entries, int size, int winLength, int count) {
+        this.entries = entries;
+        this.size = size;
+        this.winLength = winLength;
+        this.count = count;
+    }
+
+    /**
+     * Map a whole book file read-only
+     */
+    public static OpeningBook map(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            FileChannel channel = raf.getChannel();
+            return map(channel, 0, channel.size());
+        }
+    }
+
+    /**
+     * Map a book stored inside a larger file, e.g. an uncompressed APK asset.
+     * The mapping stays valid after the channel is closed.
+     */
+    public static OpeningBook map(FileChannel channel, long offset, long length) throws IOException {
+        return wrap(channel.map(FileChannel.MapMode.READ_ONLY, offset, length));
+    }
+
+    /**
+     * Book backed by any buffer positioned at its header (tests, small books)
+     */
+    public static OpeningBook wrap(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_BYTES) {
+            throw new IOException("Not an opening book");
+        }
+        ByteBuffer data = buffer.slice();
+        if (data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            throw new IOException("Not an opening book");
+        }
+        int size = data.getInt(8);
+        int winLength = data.getInt(12);
+        int count = data.getInt(16);
+        if (count < 0 || data.capacity() < HEADER_BYTES + (long) count * ENTRY_BYTES) {
+            throw new IOException("Truncated opening book");
+        }
+        data.position(HEADER_BYTES);
+        return new OpeningBook(data.slice(), size, winLength, count);
+    }
+
+    /**
+     * Book move for the position, or Position.NO_MOVE if it is not in the
+     * book (or the book is for another board)
+     */
+    public int move(GridBoard board) {
+        if (board.rows() != size || board.winLength() != winLength || count == 0) {
+            return Position.NO_MOVE;
+        }
+        Symmetry symmetry = Symmetry.of(size);
+        int transform = canonicalTransform(board);
+        int index = find(canonicalKey(board, transform));
+        if (index < 0) {
+            return Position.NO_MOVE;
+        }
+        int move = symmetry.toOriginal(transform, entries.getInt(index * ENTRY_BYTES + 8));
+        return board.isLegal(move) ? move : Position.NO_MOVE;
+    }
+
+    /**
+     * Search score stored with the book move (0 if not in the book)
+     */
+    public int score(GridBoard board) {
+        if (board.rows() != size || board.winLength() != winLength) {
+            return 0;
+        }
+        int index = find(canonicalKey(board, canonicalTransform(board)));
+        return index < 0 ? 0 : entries.getInt(index * ENTRY_BYTES + 12);
+    }
+
+    private int find(long key) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midKey = entries.getLong(mid * ENTRY_BYTES);
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Asset file name of a variant's book
+     */
+    public static String assetName(GameVariant variant) {
+        return "opening_book_" + variant.id() + ".bin";
+    }
+
+    public int entryCount() {
+        return count;
+    }
+
+    public int boardSize() {
+        return size;
+    }
+
+    public int winLength() {
+        return winLength;
+    }
+
+    /**
+     * Transform that brings the board into canonical form
+     */
+    public static int canonicalTransform(GridBoard board) {
+        int[] cells = new int[board.cellCount()];
+        for (int cell = 0; cell < cells.length; cell++) {
+            cells[cell] = board.get(cell);
+        }
+        return Symmetry.of(board.rows()).canonicalTransform(cells);
+    }
+
+    /**
+     * Zobrist hash of the board's image under the transform, i.e. the hash
+     * GridBoard would have for the canonical position
+     */
+    public static long canonicalKey(GridBoard board, int transform) {
+        Symmetry symmetry = Symmetry.of(board.rows());
+        long[][] keys = Zobrist.keys(board.cellCount());
+        long key = 0;
+        for (int cell = 0; cell < board.cellCount(); cell++) {
+            int player = board.get(cell);
+            if (player != Player.EMPTY) {
+                key ^= keys[player][symmetry.apply(transform, cell)];
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Collects book moves and writes them in the sorted file format
+     */
+    public static final class Builder {
+
+        private final int size;
+        private final int winLength;
+        private final Map<Long, long[]> entries = new TreeMap<>(); // key -> {move, score}
+
+        public Builder(int size, int winLength) {
+            this.size = size;
+            this.winLength = winLength;
+        }
+
+        /**
+         * Whether a symmetric equivalent of the position was already added
+         */
+        public boolean contains(GridBoard board) {
+            return entries.containsKey(canonicalKey(board, canonicalTransform(board)));
+        }
+
+        /**
+         * Move added for the position (or a symmetric twin), mapped onto this
+         * board; Position.NO_MOVE if none
+         */
+        public int move(GridBoard board) {
+            int transform = canonicalTransform(board);
+            long[] entry = entries.get(canonicalKey(board, transform));
+            return entry == null ? Position.NO_MOVE : Symmetry.of(size).toOriginal(transform, (int) entry[0]);
+        }
+
+        public void add(GridBoard board, int move, int score) {
+            int transform = canonicalTransform(board);
+            int canonicalMove = Symmetry.of(size).toCanonical(transform, move);
+            entries.put(canonicalKey(board, transform), new long[]{canonicalMove, score});
+        }
+
+        public int size() {
+            return entries.size();
+        }
+
+        public void write(OutputStream out) throws IOException {
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+            data.writeInt(MAGIC);
+            data.writeInt(VERSION);
+            data.writeInt(size);
+            data.writeInt(winLength);
+            data.writeInt(entries.size());
+            // TreeMap iterates in signed key order, the order find() expects
+            for (Map.Entry<Long, long[]> entry : entries.entrySet()) {
+                data.writeLong(entry.getKey());
+                data.writeInt((int) entry.getValue()[0]);
+                data.writeInt((int) entry.getValue()[1]);
+            }
+            data.flush();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.tabletussle.engine.ai;
+
+import com.example.tabletussle.engine.LineScored;
+import com.example.tabletussle.engine.Player;
+import com.example.tabletussle.engine.Position;
+
+/**
+ * Reads the line score a board keeps incrementally (see LineScored; on a
+ * GridBoard from its base-3 window patterns, see LinePatterns), so
+ * evaluating costs O(1) instead of a scan of every line. Boards with longer
+ * windows than the pattern tables cover fall back to the scan, which scores
+ * the same way. Positions without lines to score evaluate to 0.
+ */
+public final class PatternEvaluator implements Evaluator {
+
+    @Override
+    public int evaluate(Position position) {
+        if (!(position instanceof LineScored)) {
+            return 0;
+        }
+        LineScored board = (LineScored) position;
+        int score = board.hasLineScore() ? board.lineScore() : board.scanLineScore();
+        return position.sideToMove() == Player.X ? score : -score;
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.tabletussle.engine.ai;
+
+import com.example.tabletussle.engine.Bits;
+import com.example.tabletussle.engine.Board;
+import com.example.tabletussle.engine.Player;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+/**
+ * Solved 3x3 game: for every legal position, the set of optimal moves and
+ * the game-theoretic value for the side to move.
+ *
+ * Indexed by Board.index() (base-3, 19683 slots). Each slot is one short:
+ *   bits 0-8   best-move mask (all moves reaching the optimal score)
+ *   bits 9-10  value: LOSS, DRAW or WIN (0 = not a legal position)
+ *   bits 11-14 plies until the game ends with perfect play
+ *
+ * The table is generated at build time by PerfectPlayTableGenerator and
+ * shipped as an app asset, so a lookup is O(1) with no search at runtime.
+ */
+public final class PerfectPlayTable {
+
+    public static final int UNKNOWN = 0;
+    public static final int LOSS = 1;
+    public static final int DRAW = 2;
+    public static final int WIN = 3;
+
+    private static final int MAGIC = 0x54545433; // "TTT3"
+    private static final int VERSION = 1;
+
+    private static final int MOVES_MASK = Board.FULL_MASK;
+    private static final int VALUE_SHIFT = 9;
+    private static final int DISTANCE_SHIFT = 11;
+
+    private final short[] entries;
+
+    private PerfectPlayTable(short[] entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Solve every reachable position with negamax over the whole game tree.
+     * Wins are scored so the quickest win (and slowest loss) is preferred.
+     */
+    public static PerfectPlayTable solve() {
+        short[] entries = new short[Board.INDEX_COUNT];
+        byte[] scores = new byte[Board.INDEX_COUNT];
+        solve(new Board(), entries, scores);
+        return new PerfectPlayTable(entries);
+    }
+
+    private static int solve(Board board, short[] entries, byte[] scores) {
+        int index = board.index();
+        if (entries[index] != 0) {
+            return scores[index];
+        }
+
+        int score;
+        int bestMoves = 0;
+        if (board.hasWon(Player.opponent(board.sideToMove()))) {
+            // Previous move won: the side to move has lost
+            score = -(Board.CELLS + 1 - board.moveCount());
+        } else if (board.isFull()) {
+            score = 0;
+        } else {
+            score = Integer.MIN_VALUE;
+            for (int empty = board.emptyMask(); empty != 0; empty &= empty - 1) {
+                int move = Integer.numberOfTrailingZeros(empty);
+                board.makeMove(move);
+                int moveScore = -solve(board, entries, scores);
+                board.unmakeMove(move);
+
+                if (moveScore > score) {
+                    score = moveScore;
+                    bestMoves = 1 << move;
+                } else if (moveScore == score) {
+                    bestMoves |= 1 << move;
+                }
+            }
+        }
+
+        int value = score > 0 ? WIN : score < 0 ? LOSS : DRAW;
+        // A decisive score encodes the move count at which the game ends
+        int distance = score == 0
+                ? Board.CELLS - board.moveCount()
+                : Board.CELLS + 1 - Math.abs(score) - board.moveCount();
+        entries[index] = (short) (bestMoves | value << VALUE_SHIFT | distance << DISTANCE_SHIFT);
+        scores[index] = (byte) score;
+        return score;
+    }
+
+    /**
+     * Load a table written by write()
+     */
+    public static PerfectPlayTable read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+            throw new IOException("Not a perfect-play table");
+        }
+        int count = data.readInt();
+        if (count != Board.INDEX_COUNT) {
+            throw new IOException("Unexpected table size: " + count);
+        }
+        short[] entries = new short[count];
+        for (int i = 0; i < count; i++) {
+            entries[i] = data.readShort();
+        }
+        return new PerfectPlayTable(entries);
+    }
+
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(entries.length);
+        for (short entry : entries) {
+            data.writeShort(entry);
+        }
+        data.flush();
+    }
+
+    /**
+     * Mask of all optimal moves for the side to move (0 if the game is over)
+     */
+    public int bestMoves(Board board) {
+        return entries[board.index()] & MOVES_MASK;
+    }
+
+    /**
+     * LOSS, DRAW or WIN for the side to move, UNKNOWN for unreachable positions
+     */
+    public int value(Board board) {
+        return value(board.index());
+    }
+
+    public int value(int index) {
+        return (entries[index] >>> VALUE_SHIFT) & 0x3;
+    }
+
+    /**
+     * Plies remaining until the game ends under perfect play
+     */
+    public int distance(Board board) {
+        return (entries[board.index()] >>> DISTANCE_SHIFT) & 0xF;
+    }
+
+    /**
+     * One of the optimal moves, chosen at random so play does not repeat
+     * @return the chosen cell, or Board.NO_MOVE if the game is over
+     */
+    public int bestMove(Board board, Random random) {
+        int moves = bestMoves(board);
+        if (moves == 0) {
+            return Board.NO_MOVE;
+        }
+        return Bits.randomSetBit(moves, random);
+    }
+
+    /**
+     * Number of legal positions in the table (5478 for tic-tac-toe)
+     */
+    public int positionCount() {
+        int count = 0;
+        for (short entry : entries) {
+            if (entry != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.tabletussle.engine.ai;
+
+import com.example.tabletussle.engine.Position;
+
+/**
+ * Outcome of one search: best move, its score and throughput counters
+ */
+public final class SearchResult {
+
+    private final int move;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long elapsedNanos;
+    private final double ttHitRate;
+
+    public SearchResult(int move, int score, int depth, long nodes, long elapsedNanos, double ttHitRate) {
+        this.move = move;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+        this.ttHitRate = ttHitRate;
+    }
+
+    /**
+     * Best move found, or Position.NO_MOVE if the position had none
+     */
+    public int move() {
+        return move;
+    }
+
+    /**
+     * Score for the side to move; |score| near NegamaxSearch.WIN_SCORE means a forced result
+     */
+    public int score() {
+        return score;
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    public long nodes() {
+        return nodes;
+    }
+
+    public long elapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double nodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Transposition table hit rate during this search (0 to 1)
+     */
+    public double ttHitRate() {
+        return ttHitRate;
+    }
+
+    public boolean isForcedWin() {
+        return score >= NegamaxSearch.WIN_THRESHOLD;
+    }
+
+    public boolean isForcedLoss() {
+        return score <= -NegamaxSearch.WIN_THRESHOLD;
+    }
+
+    @Override
+    public String toString() {
+        return "move=" + move + " score=" + score + " depth=" + depth + " nodes=" + nodes
+                + String.format(" nps=%.0f tt=%.1f%%", nodesPerSecond(), ttHitRate * 100)
+                + (move == Position.NO_MOVE ? " (no move)" : "");
+    }
+}
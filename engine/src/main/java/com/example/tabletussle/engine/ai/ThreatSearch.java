@@ -0,0 +1,310 @@
+package com.example.tabletussle.engine.ai;
+
+import com.example.tabletussle.engine.GridBoard;
+import com.example.tabletussle.engine.Player;
+import com.example.tabletussle.engine.Position;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threat-space search for k-in-a-row boards: proves forced wins for the side
+ * to move by only playing threats the opponent has to answer.
+ *
+ *   four  - a move after which the attacker wins next move unless the
+ *           opponent blocks the one winning cell (two such cells win outright)
+ *   three - a move after which the attacker threatens to make two fours at
+ *           once (an open three, in Gomoku terms)
+ *
+ * VCF (victory by continuous fours) only uses fours, so every defender
+ * reply is forced and lines 20+ plies deep cost a few hundred nodes. VCT
+ * (victory by continuous threats) also allows a few threes; the defender
+ * may then answer anywhere in the attacker's three-stone windows or with a
+ * four of its own, and every such reply has to be refuted.
+ *
+ * Only wins are claimed, never losses: whenever the defender gets a
+ * counter-threat the attacker cannot answer with a threat, the line fails.
+ * Not thread-safe; allocates its buffers once per board size.
+ */
+public final class ThreatSearch {
+
+    public static final int DEFAULT_MAX_NODES = 200_000;
+    /** Open threes allowed in one VCT line */
+    public static final int MAX_THREES = 3;
+
+    private static final int MAX_PLY = 48;
+    private static final int FAIL = -1;
+    private static final int CHECK_INTERVAL = 1024; // nodes between clock checks
+
+    private final int maxNodes;
+    private int[][] moveBuffers = new int[0][];
+    private int[] marks = new int[0];
+    private int stamp;
+
+    private int attacker;
+    private int defender;
+    private int winLength;
+    private long nodes;
+    private long deadlineNanos;
+    private boolean aborted;
+    private final AtomicInteger stopCount = new AtomicInteger(); // stop() calls so far
+    private int stopsBefore; // stopCount when this search was requested
+    private int rootMove;
+
+    public ThreatSearch() {
+        this(DEFAULT_MAX_NODES);
+    }
+
+    public ThreatSearch(int maxNodes) {
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Look for a forced win for the side to move: VCF first, then VCT with
+     * up to MAX_THREES threes. The board is left as it was passed in.
+     * @return the first move of the win (score WIN_SCORE - plies, depth = plies),
+     *         or a result with Position.NO_MOVE if none was proven in time
+     */
+    public SearchResult search(GridBoard board, long millis) {
+        stopsBefore = stopCount.get();
+        long start = System.nanoTime();
+        int cells = board.cellCount();
+        if (moveBuffers.length == 0 || moveBuffers[0].length < cells) {
+            moveBuffers = new int[MAX_PLY + 2][cells];
+            marks = new int[cells];
+            stamp = 0;
+        }
+        attacker = board.sideToMove();
+        defender = Player.opponent(attacker);
+        winLength = board.winLength();
+        nodes = 0;
+        aborted = false;
+        deadlineNanos = start + millis * 1_000_000L;
+
+        int plies = FAIL;
+        for (int threes = 0; threes <= MAX_THREES && plies == FAIL && !aborted; threes++) {
+            rootMove = Position.NO_MOVE;
+            plies = winLength < 3 ? FAIL : attack(board, 0, threes);
+        }
+        if (plies == FAIL) {
+            return new SearchResult(Position.NO_MOVE, 0, 0, nodes, System.nanoTime() - start, 0);
+        }
+        return new SearchResult(rootMove, NegamaxSearch.WIN_SCORE - plies, plies,
+                nodes, System.nanoTime() - start, 0);
+    }
+
+    /**
+     * Ask a running search (on another thread) to return as soon as possible
+     */
+    public void stop() {
+        stopCount.incrementAndGet();
+    }
+
+    /**
+     * Nodes visited by the last search
+     */
+    public long nodes() {
+        return nodes;
+    }
+
+    /**
+     * Attacker to move. Plies until the attacker's winning stone, or FAIL
+     */
+    private int attack(GridBoard board, int ply, int threes) {
+        if (++nodes > maxNodes || (nodes % CHECK_INTERVAL == 0
+                && (stopCount.get() != stopsBefore || System.nanoTime() >= deadlineNanos))) {
+            aborted = true;
+        }
+        if (aborted) {
+            return FAIL;
+        }
+        int[] moves = moveBuffers[ply];
+        if (winningCells(board, attacker, moves, 1) > 0) {
+            if (ply == 0) {
+                rootMove = moves[0];
+            }
+            return 1;
+        }
+        int blocks = winningCells(board, defender, moves, 2);
+        if (blocks == 2 || ply >= MAX_PLY) {
+            return FAIL;
+        }
+        if (blocks == 1) {
+            // Must block; only useful if the block is itself a threat
+            int block = moves[0];
+            int plies = tryThreat(board, block, ply, threes);
+            if (plies != FAIL && ply == 0) {
+                rootMove = block;
+            }
+            return plies;
+        }
+
+        // Fours first, then (cells not already tried) threes
+        int count = cellsCompleting(board, attacker, winLength - 2, moves, 0);
+        if (threes > 0) {
+            count = cellsCompleting(board, attacker, winLength - 3, moves, count);
+        }
+        for (int i = 0; i < count; i++) {
+            int plies = tryThreat(board, moves[i], ply, threes);
+            if (plies != FAIL) {
+                if (ply == 0) {
+                    rootMove = moves[i];
+                }
+                return plies;
+            }
+            if (aborted) {
+                return FAIL;
+            }
+        }
+        return FAIL;
+    }
+
+    /**
+     * Attacker plays move; succeeds if it is a four or (with threes left)
+     * a three that leads to a win
+     */
+    private int tryThreat(GridBoard board, int move, int ply, int threes) {
+        board.makeMove(move);
+        int[] wins = moveBuffers[ply + 1];
+        int plies = FAIL;
+        int count = winningCells(board, attacker, wins, 2);
+        if (count == 2) {
+            plies = 3; // double four: one block, then the other cell wins
+        } else if (count == 1) {
+            if (winningCells(board, defender, moveBuffers[ply + 2], 1) == 0) {
+                int block = wins[0];
+                board.makeMove(block);
+                int rest = attack(board, ply + 2, threes);
+                board.unmakeMove(block);
+                plies = rest == FAIL ? FAIL : rest + 2;
+            }
+        } else if (threes > 0 && isThree(board, move)) {
+            int rest = defend(board, ply + 1, threes - 1);
+            plies = rest == FAIL ? FAIL : rest + 1;
+        }
+        board.unmakeMove(move);
+        return plies;
+    }
+
+    /**
+     * Defender to move against a three. Every reply that touches the
+     * attacker's (k-2)-stone windows, and every defender four, must lose;
+     * anything else lets the attacker make two fours at once.
+     */
+    private int defend(GridBoard board, int ply, int threes) {
+        int[] moves = moveBuffers[ply];
+        if (winningCells(board, defender, moves, 1) > 0) {
+            return FAIL;
+        }
+        int count = cellsCompleting(board, attacker, winLength - 2, moves, 0);
+        count = cellsCompleting(board, defender, winLength - 2, moves, count);
+
+        int worst = 0;
+        for (int i = 0; i < count; i++) {
+            int reply = moves[i];
+            board.makeMove(reply);
+            int plies = attack(board, ply + 1, threes);
+            board.unmakeMove(reply);
+            if (plies == FAIL) {
+                return FAIL;
+            }
+            worst = Math.max(worst, plies);
+        }
+        return worst + 1;
+    }
+
+    /**
+     * Whether the attacker's move (already played) threatens a double four:
+     * some empty cell of its (k-2)-stone windows would create two winning cells
+     */
+    private boolean isThree(GridBoard board, int move) {
+        for (int w : board.windowsThrough(move)) {
+            if (board.stonesInWindow(w, attacker) != winLength - 2
+                    || board.stonesInWindow(w, defender) != 0) {
+                continue;
+            }
+            for (int step = 0; step < winLength; step++) {
+                int cell = board.windowCell(w, step);
+                if (board.get(cell) != Player.EMPTY) {
+                    continue;
+                }
+                board.makeMove(cell);
+                int first = Position.NO_MOVE;
+                boolean doubleFour = false;
+                for (int w2 : board.windowsThrough(cell)) {
+                    if (board.stonesInWindow(w2, attacker) == winLength - 1
+                            && board.stonesInWindow(w2, defender) == 0) {
+                        int empty = emptyCell(board, w2);
+                        if (first == Position.NO_MOVE) {
+                            first = empty;
+                        } else if (empty != first) {
+                            doubleFour = true;
+                            break;
+                        }
+                    }
+                }
+                board.unmakeMove(cell);
+                if (doubleFour) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Distinct cells where the player would win on the spot, up to limit.
+     * Note the side to move does not matter: windows hold stone counts only.
+     */
+    private static int winningCells(GridBoard board, int player, int[] out, int limit) {
+        int opponent = Player.opponent(player);
+        int need = board.winLength() - 1;
+        int count = 0;
+        for (int w = 0; w < board.windowCount(); w++) {
+            if (board.stonesInWindow(w, player) == need && board.stonesInWindow(w, opponent) == 0) {
+                int cell = emptyCell(board, w);
+                if (count == 0 || out[0] != cell) {
+                    out[count++] = cell;
+                    if (count == limit) {
+                        break;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Append the empty cells of every window where the player has exactly
+     * stones stones and the opponent none, skipping cells already in out
+     */
+    private int cellsCompleting(GridBoard board, int player, int stones, int[] out, int count) {
+        int opponent = Player.opponent(player);
+        int mark = ++stamp;
+        for (int i = 0; i < count; i++) {
+            marks[out[i]] = mark;
+        }
+        for (int w = 0; w < board.windowCount(); w++) {
+            if (board.stonesInWindow(w, player) != stones || board.stonesInWindow(w, opponent) != 0) {
+                continue;
+            }
+            for (int step = 0; step < winLength; step++) {
+                int cell = board.windowCell(w, step);
+                if (marks[cell] != mark && board.get(cell) == Player.EMPTY) {
+                    marks[cell] = mark;
+                    out[count++] = cell;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static int emptyCell(GridBoard board, int window) {
+        for (int step = 0; step < board.winLength(); step++) {
+            int cell = board.windowCell(window, step);
+            if (board.get(cell) == Player.EMPTY) {
+                return cell;
+            }
+        }
+        return Position.NO_MOVE;
+    }
+}
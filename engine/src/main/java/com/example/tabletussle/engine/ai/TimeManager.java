@@ -0,0 +1,65 @@
+package com.example.tabletussle.engine.ai;
+
+import com.example.tabletussle.engine.Position;
+
+/**
+ * Thinking time for one move.
+ *
+ * The soft limit is the time we aim to use: iterative deepening does not
+ * start a new iteration past half of it, since the next one would probably
+ * not finish. The hard limit aborts the search in the middle of an iteration.
+ */
+public final class TimeManager {
+
+    // Own moves we expect to still have to play; we never plan further ahead
+    // than this, so the budget grows as the board fills up
+    private static final int MAX_MOVES_TO_GO = 25;
+    private static final int MIN_MOVES_TO_GO = 5;
+    // Kept back for UI and scheduling overhead on slow phones
+    private static final long SAFETY_MARGIN_MILLIS = 100;
+    private static final long MIN_MILLIS = 10;
+
+    private final long softMillis;
+    private final long hardMillis;
+
+    private TimeManager(long softMillis, long hardMillis) {
+        this.softMillis = Math.max(MIN_MILLIS, softMillis);
+        this.hardMillis = Math.max(this.softMillis, hardMillis);
+    }
+
+    /**
+     * Same budget for every move (untimed games)
+     */
+    public static TimeManager fixed(long millis) {
+        return new TimeManager(millis, millis);
+    }
+
+    /**
+     * Share the remaining clock over the moves still to play
+     * @param remainingMillis - time left on the side to move's clock
+     * @param incrementMillis - time added back after the move
+     */
+    public static TimeManager forClock(Position position, long remainingMillis, long incrementMillis) {
+        long usable = Math.max(0, remainingMillis - SAFETY_MARGIN_MILLIS);
+        int emptyCells = position.cellCount() - position.moveCount();
+        int movesToGo = Math.max(MIN_MOVES_TO_GO, Math.min(MAX_MOVES_TO_GO, (emptyCells + 1) / 2));
+
+        long soft = usable / movesToGo + incrementMillis * 3 / 4;
+        // Overrun the target on hard positions, but never risk the whole clock
+        long hard = Math.min(soft * 3, usable / 4 + incrementMillis);
+        return new TimeManager(Math.min(soft, usable), Math.min(hard, usable));
+    }
+
+    public long softMillis() {
+        return softMillis;
+    }
+
+    public long hardMillis() {
+        return hardMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "soft=" + softMillis + "ms hard=" + hardMillis + "ms";
+    }
+}
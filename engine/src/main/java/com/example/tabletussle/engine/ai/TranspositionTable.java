@@ -0,0 +1,218 @@
+package com.example.tabletussle.engine.ai;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size cache of search results keyed by Zobrist hash, shared without
+ * locks by all Lazy SMP search threads.
+ *
+ * Everything lives in one long[] allocated up front, so searching creates
+ * no garbage and the footprint is known in advance (see withMemory()).
+ * The table is a sequence of 32-byte clusters with two slots each:
+ *   slot 0 - depth-preferred: only replaced by a search at least as deep,
+ *            or once the entry is from an older search
+ *   slot 1 - always replaced, so recent shallow results are kept too
+ *
+ * Each slot stores (key ^ data, data) as two plain longs. Two threads
+ * writing the same slot, or a reader racing a writer, can leave a key from
+ * one entry next to the data of another (or a torn long on 32-bit VMs);
+ * probe() then recomputes key ^ data, sees it does not match and reports a
+ * miss, so a corrupt entry is never used.
+ *
+ * Entries are packed into a long so a probe allocates nothing:
+ *   bits 0-31  score
+ *   bits 32-39 depth
+ *   bits 40-41 bound (EXACT, LOWER, UPPER)
+ *   bits 42-53 best move + 1 (0 = none)
+ *   bits 54-59 search generation (age)
+ *   bit  63    occupied
+ */
+public final class TranspositionTable {
+
+    public static final int EXACT = 0;
+    public static final int LOWER = 1; // score is a lower bound (fail high)
+    public static final int UPPER = 2; // score is an upper bound (fail low)
+
+    /**
+     * Probe result when the position is not in the table
+     */
+    public static final long MISS = 0;
+
+    public static final int CLUSTER_BYTES = 32;
+
+    private static final long OCCUPIED = 1L << 63;
+    private static final int GENERATION_SHIFT = 54;
+    private static final int GENERATION_MASK = 0x3F;
+
+    private final long[] slots; // per cluster: key0 ^ data0, data0, key1 ^ data1, data1
+    private final int mask;
+    private int generation;
+
+    // Statistics since resetStats(); LongAdder keeps threads off one cache line
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder overwrites = new LongAdder();
+
+    /**
+     * @param sizeLog2 - table holds 2^sizeLog2 clusters (2 entries, 32 bytes each)
+     */
+    public TranspositionTable(int sizeLog2) {
+        int clusters = 1 << sizeLog2;
+        slots = new long[clusters * 4];
+        mask = clusters - 1;
+    }
+
+    /**
+     * Largest table that fits in the given memory budget (at least 1 KB)
+     */
+    public static TranspositionTable withMemory(long bytes) {
+        int sizeLog2 = 5; // 32 clusters
+        while (sizeLog2 < 26 && (long) CLUSTER_BYTES << (sizeLog2 + 1) <= bytes) {
+            sizeLog2++;
+        }
+        return new TranspositionTable(sizeLog2);
+    }
+
+    /**
+     * Packed entry for the key, or MISS
+     */
+    public long probe(long key) {
+        probes.increment();
+        int base = ((int) key & mask) << 2;
+        for (int slot = base; slot < base + 4; slot += 2) {
+            long entry = slots[slot + 1];
+            if (entry == MISS) {
+                continue;
+            }
+            if ((slots[slot] ^ entry) == key) {
+                hits.increment();
+                return entry;
+            }
+        }
+        if (slots[base + 1] != MISS || slots[base + 3] != MISS) {
+            collisions.increment(); // cluster holds other positions only
+        }
+        return MISS;
+    }
+
+    /**
+     * Store a result: in the depth-preferred slot if it is as deep as what
+     * is there (or that entry is the same position or from an older search),
+     * otherwise in the always-replace slot
+     */
+    public void store(long key, int depth, int score, int bound, int move) {
+        stores.increment();
+        int base = ((int) key & mask) << 2;
+        long entry = OCCUPIED
+                | ((long) (generation & GENERATION_MASK)) << GENERATION_SHIFT
+                | ((long) (move + 1) & 0xFFF) << 42
+                | ((long) bound & 0x3) << 40
+                | ((long) depth & 0xFF) << 32
+                | (score & 0xFFFFFFFFL);
+
+        long preferred = slots[base + 1];
+        boolean samePosition = (slots[base] ^ preferred) == key;
+        int slot = preferred == MISS || samePosition
+                || depth >= depth(preferred) || generation(preferred) != (generation & GENERATION_MASK)
+                ? base : base + 2;
+
+        long old = slots[slot + 1];
+        if (old != MISS && (slots[slot] ^ old) != key) {
+            overwrites.increment();
+        }
+        slots[slot] = key ^ entry;
+        slots[slot + 1] = entry;
+    }
+
+    /**
+     * Start a new search: entries from earlier ones lose their claim on the
+     * depth-preferred slots
+     */
+    public void newSearch() {
+        generation++;
+    }
+
+    public static int score(long entry) {
+        return (int) entry;
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> 32) & 0xFF;
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> 40) & 0x3;
+    }
+
+    /**
+     * Best move stored with the entry, or Position.NO_MOVE
+     */
+    public static int move(long entry) {
+        return (int) ((entry >>> 42) & 0xFFF) - 1;
+    }
+
+    private static int generation(long entry) {
+        return (int) (entry >>> GENERATION_SHIFT) & GENERATION_MASK;
+    }
+
+    /**
+     * Empty the table (not while a search is running)
+     */
+    public void clear() {
+        Arrays.fill(slots, 0);
+        resetStats();
+    }
+
+    public void resetStats() {
+        probes.reset();
+        hits.reset();
+        collisions.reset();
+        stores.reset();
+        overwrites.reset();
+    }
+
+    /**
+     * Fraction of probes that found their position (0 to 1)
+     */
+    public double hitRate() {
+        long total = probes.sum();
+        return total == 0 ? 0 : (double) hits.sum() / total;
+    }
+
+    /**
+     * Fraction of probes that missed although the cluster held other
+     * positions: the table is too small or badly filled
+     */
+    public double collisionRate() {
+        long total = probes.sum();
+        return total == 0 ? 0 : (double) collisions.sum() / total;
+    }
+
+    /**
+     * Fraction of stores that evicted a different position
+     */
+    public double overwriteRate() {
+        long total = stores.sum();
+        return total == 0 ? 0 : (double) overwrites.sum() / total;
+    }
+
+    /**
+     * Number of entries the table can hold
+     */
+    public int capacity() {
+        return slots.length / 2;
+    }
+
+    public long memoryBytes() {
+        return (long) slots.length * Long.BYTES;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TT %d KB: hits=%.1f%% collisions=%.1f%% overwrites=%.1f%%",
+                memoryBytes() / 1024, hitRate() * 100, collisionRate() * 100, overwriteRate() * 100);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.tabletussle.engine.ai;
+
+import com.example.tabletussle.engine.LineScored;
+import com.example.tabletussle.engine.Player;
+import com.example.tabletussle.engine.Position;
+
+/**
+ * Scores a board from scratch over all its lines (LineScored.scanLineScore):
+ * every window that only one player occupies is worth
+ * LinePatterns.weight(stones) to that player, by shape on a GridBoard.
+ *
+ * Scans every window on each call; PatternEvaluator gives the same scores
+ * in O(1) from the board's incrementally maintained line score.
+ */
+public final class WindowEvaluator implements Evaluator {
+
+    @Override
+    public int evaluate(Position position) {
+        if (!(position instanceof LineScored)) {
+            return 0;
+        }
+        int score = ((LineScored) position).scanLineScore();
+        return position.sideToMove() == Player.X ? score : -score;
+    }
+}
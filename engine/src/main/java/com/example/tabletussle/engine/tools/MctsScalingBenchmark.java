@@ -0,0 +1,39 @@
+package com.example.tabletussle.engine.tools;
+
+import com.example.tabletussle.engine.GameVariant;
+import com.example.tabletussle.engine.Position;
+import com.example.tabletussle.engine.ai.MctsSearch;
+
+/**
+ * Prints parallel MCTS playout throughput for 1..N worker threads, to check
+ * that it scales with the core count.
+ *
+ * Usage: ./gradlew :engine:mctsScaling [-Pthreads=8] [-Pvariant=grid7] [-Pmillis=2000]
+ */
+public final class MctsScalingBenchmark {
+
+    private static final int TREE_NODES = 1 << 20;
+
+    private MctsScalingBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0])
+                : Runtime.getRuntime().availableProcessors();
+        GameVariant variant = GameVariant.fromMode(args.length > 1 ? args[1] : "grid7");
+        long millis = args.length > 2 ? Long.parseLong(args[2]) : 2000;
+
+        Position position = variant.createPosition();
+        System.out.println(variant.displayName() + ", " + millis + " ms per run, "
+                + Runtime.getRuntime().availableProcessors() + " cores");
+
+        // Warm-up so the JIT has compiled the playout loop before the 1-thread run
+        MctsSearch.measureScaling(position, 1, TREE_NODES, millis);
+
+        double[] rates = MctsSearch.measureScaling(position, maxThreads, TREE_NODES, millis);
+        for (int i = 0; i < rates.length; i++) {
+            System.out.printf("%2d threads: %,12.0f playouts/s  speedup %.2fx%n",
+                    i + 1, rates[i], rates[i] / rates[0]);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.tabletussle.engine.tools;
+
+import com.example.tabletussle.engine.GameVariant;
+import com.example.tabletussle.engine.GridBoard;
+import com.example.tabletussle.engine.Player;
+import com.example.tabletussle.engine.ai.NegamaxSearch;
+import com.example.tabletussle.engine.ai.OpeningBook;
+import com.example.tabletussle.engine.ai.PatternEvaluator;
+import com.example.tabletussle.engine.ai.SearchResult;
+import com.example.tabletussle.engine.ai.TranspositionTable;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Build-time tool: writes the opening book asset of each large-board variant.
+ *
+ * For each side in turn, the book side plays its searched best move and the
+ * other side plays every candidate move (up to symmetry), for the first
+ * few plies. Every position where the book side is to move gets a
+ * fixed-depth search, so the output is reproducible.
+ *
+ * Usage: ./gradlew :engine:generateOpeningBooks
+ */
+public final class OpeningBookBuilder {
+
+    private final int plies;
+    private final NegamaxSearch search;
+    private final int depth;
+    private final OpeningBook.Builder book;
+    private final Set<Long> expanded = new HashSet<>();
+
+    private OpeningBookBuilder(GameVariant variant, int plies, int depth) {
+        this.plies = plies;
+        this.depth = depth;
+        search = new NegamaxSearch(new TranspositionTable(20), new PatternEvaluator());
+        book = new OpeningBook.Builder(variant.size(), variant.winLength());
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: OpeningBookBuilder <assets directory>");
+            System.exit(1);
+        }
+        File directory = new File(args[0]);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        build(GameVariant.GRID_7, 5, 7, directory);
+        build(GameVariant.GOMOKU, 5, 6, directory);
+    }
+
+    private static void build(GameVariant variant, int plies, int depth, File directory) throws IOException {
+        long start = System.nanoTime();
+        OpeningBookBuilder builder = new OpeningBookBuilder(variant, plies, depth);
+        for (int bookSide = Player.X; bookSide <= Player.O; bookSide++) {
+            builder.expanded.clear();
+            builder.expand((GridBoard) variant.createPosition(), bookSide);
+        }
+        File output = new File(directory, OpeningBook.assetName(variant));
+        try (OutputStream out = new FileOutputStream(output)) {
+            builder.book.write(out);
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        System.out.println(variant.displayName() + ": " + builder.book.size() + " positions (depth "
+                + depth + ", " + plies + " plies) in " + elapsedMs + " ms -> " + output
+                + " (" + output.length() + " bytes)");
+    }
+
+    private void expand(GridBoard board, int bookSide) {
+        if (board.moveCount() >= plies) {
+            return;
+        }
+        long key = OpeningBook.canonicalKey(board, OpeningBook.canonicalTransform(board));
+        if (!expanded.add(key)) {
+            return; // a symmetric twin was already expanded
+        }
+
+        if (board.sideToMove() == bookSide) {
+            if (!book.contains(board)) {
+                SearchResult result = search.search(board, depth);
+                book.add(board, result.move(), result.score());
+                if (book.size() % 100 == 0) {
+                    System.out.println("  " + book.size() + " positions...");
+                }
+            }
+            play(board, book.move(board), bookSide);
+        } else {
+            int[] moves = new int[board.cellCount()];
+            int count = board.generateCandidateMoves(moves);
+            for (int i = 0; i < count; i++) {
+                play(board, moves[i], bookSide);
+            }
+        }
+    }
+
+    private void play(GridBoard board, int move, int bookSide) {
+        board.makeMove(move);
+        if (!board.checkWin(move).isWin()) {
+            expand(board, bookSide);
+        }
+        board.unmakeMove(move);
+    }
+}
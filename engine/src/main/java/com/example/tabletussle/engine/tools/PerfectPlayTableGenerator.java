@@ -0,0 +1,42 @@
+package com.example.tabletussle.engine.tools;
+
+import com.example.tabletussle.engine.ai.PerfectPlayTable;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Build-time tool: solves every 3x3 position and writes the table asset.
+ *
+ * Usage: ./gradlew :engine:generatePerfectPlayTable
+ */
+public final class PerfectPlayTableGenerator {
+
+    private PerfectPlayTableGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: PerfectPlayTableGenerator <output file>");
+            System.exit(1);
+        }
+
+        long start = System.nanoTime();
+        PerfectPlayTable table = PerfectPlayTable.solve();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        File output = new File(args[0]);
+        File parent = output.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        try (OutputStream out = new FileOutputStream(output)) {
+            table.write(out);
+        }
+
+        System.out.println("Solved " + table.positionCount() + " positions in " + elapsedMs
+                + " ms -> " + output + " (" + output.length() + " bytes)");
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.tabletussle.engine.tools;
+
+import com.example.tabletussle.engine.ai.EndgameTablebase;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Build-time tool: solves the 4x4 endgames by retrograde analysis and
+ * writes the tablebase asset.
+ *
+ * Usage: ./gradlew :engine:generateTablebase [-PmaxEmpty=10]
+ */
+public final class TablebaseGenerator {
+
+    private TablebaseGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: TablebaseGenerator <output file> <max empty cells>");
+            System.exit(1);
+        }
+        int maxEmpty = Integer.parseInt(args[1]);
+
+        long start = System.nanoTime();
+        EndgameTablebase table = EndgameTablebase.generate(maxEmpty, ForkJoinPool.commonPool());
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        File output = new File(args[0]);
+        File parent = output.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        try (OutputStream out = new FileOutputStream(output)) {
+            table.write(out);
+        }
+
+        System.out.println("Solved " + table.positionCount() + " positions with up to " + maxEmpty
+                + " empty cells in " + elapsedMs + " ms on " + ForkJoinPool.commonPool().getParallelism()
+                + " threads -> " + output + " (" + output.length() + " bytes)");
+    }
+}
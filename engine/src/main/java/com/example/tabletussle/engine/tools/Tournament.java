@@ -0,0 +1,453 @@
+package com.example.tabletussle.engine.tools;
+
+import com.example.tabletussle.engine.Board;
+import com.example.tabletussle.engine.GameVariant;
+import com.example.tabletussle.engine.Player;
+import com.example.tabletussle.engine.Position;
+import com.example.tabletussle.engine.ai.HeuristicAi;
+import com.example.tabletussle.engine.ai.MctsSearch;
+import com.example.tabletussle.engine.ai.NegamaxSearch;
+import com.example.tabletussle.engine.ai.PatternEvaluator;
+import com.example.tabletussle.engine.ai.PerfectPlayTable;
+import com.example.tabletussle.engine.ai.TranspositionTable;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless self-play between two AI strategies on all cores: the strength
+ * and throughput regression gate for the AI.
+ *
+ * Games are played in pairs from the same random opening with the colours
+ * swapped, and all randomness of a game is seeded from its index, so a run
+ * gives the same result on any number of threads. Reports A's wins, draws
+ * and losses with a 95% confidence interval on its score (and the matching
+ * Elo difference), games per second and per-move latency percentiles.
+ *
+ * Strategies: random, easy, medium (the app's 30% / 70% smart moves), smart,
+ * perfect (3x3 only), hard (perfect on 3x3, else a fixed-effort stand-in for
+ * the app's timed search), negamax:DEPTH, mcts:PLAYOUTS
+ *
+ * Usage: ./gradlew :engine:tournament -Pa=medium -Pb=easy [-Pvariant=classic]
+ *            [-Pgames=100000] [-Pthreads=8] [-Popening=0] [-Pseed=1]
+ */
+public final class Tournament {
+
+    private static final int CHUNK = 64; // games a worker claims at a time
+    private static final int HARD_MCTS_PLAYOUTS = 20_000;
+    private static final int HARD_NEGAMAX_DEPTH = 4;
+
+    private static PerfectPlayTable perfectPlayTable;
+
+    private final GameVariant variant;
+    private final String strategyA;
+    private final String strategyB;
+    private final int openingPlies;
+    private final long seed;
+
+    public Tournament(GameVariant variant, String strategyA, String strategyB, int openingPlies, long seed) {
+        this.variant = variant;
+        this.strategyA = strategyA;
+        this.strategyB = strategyB;
+        this.openingPlies = openingPlies;
+        this.seed = seed;
+        // Fail on a bad name now rather than on every worker
+        create(strategyA, variant, new Random());
+        create(strategyB, variant, new Random());
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 3) {
+            System.err.println("Usage: Tournament <strategy A> <strategy B> <games> "
+                    + "[variant] [threads] [opening plies] [seed]");
+            System.exit(1);
+        }
+        long games = Long.parseLong(args[2]);
+        GameVariant variant = GameVariant.fromMode(args.length > 3 ? args[3] : "classic");
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        int opening = args.length > 5 ? Integer.parseInt(args[5]) : 0;
+        long seed = args.length > 6 ? Long.parseLong(args[6]) : 1;
+
+        System.out.printf("%s: %s vs %s, %,d games on %d threads (%d random opening plies, seed %d)%n",
+                variant.displayName(), args[0], args[1], games, threads, opening, seed);
+        Result result = new Tournament(variant, args[0], args[1], opening, seed).play(games, threads);
+        result.print(System.out);
+    }
+
+    /**
+     * Play the games on a pool of worker threads and merge their tallies
+     */
+    public Result play(long games, int threads) throws InterruptedException {
+        AtomicLong next = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        List<Future<Result>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(pool.submit(() -> runWorker(next, games)));
+        }
+        Result total = new Result(strategyA, strategyB);
+        try {
+            for (Future<Result> future : futures) {
+                total.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Tournament worker failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        total.elapsedNanos = System.nanoTime() - start;
+        return total;
+    }
+
+    private Result runWorker(AtomicLong next, long games) {
+        Random random = new Random();
+        Strategy a = create(strategyA, variant, random);
+        Strategy b = create(strategyB, variant, random);
+        Position position = variant.createPosition();
+        Result result = new Result(strategyA, strategyB);
+        long game;
+        while ((game = next.getAndAdd(CHUNK)) < games) {
+            long end = Math.min(games, game + CHUNK);
+            for (; game < end; game++) {
+                playGame(position, game, a, b, random, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Game 2k and 2k+1 share an opening; A plays X in the even one
+     */
+    private void playGame(Position position, long game, Strategy a, Strategy b, Random random, Result result) {
+        position.reset();
+        random.setSeed(mix(seed, game >>> 1));
+        int winner = Player.EMPTY;
+        for (int ply = 0; ply < openingPlies && winner == Player.EMPTY && !position.isFull(); ply++) {
+            winner = play(position, randomMove(position, random));
+        }
+
+        random.setSeed(mix(seed ^ 0x5DEECE66DL, game));
+        a.newGame();
+        b.newGame();
+        int colourA = (game & 1) == 0 ? Player.X : Player.O;
+        while (winner == Player.EMPTY && !position.isFull()) {
+            boolean aToMove = position.sideToMove() == colourA;
+            long started = System.nanoTime();
+            int move = (aToMove ? a : b).chooseMove(position);
+            result.latency[aToMove ? 0 : 1].record(System.nanoTime() - started);
+            if (!position.isLegal(move)) {
+                throw new IllegalStateException((aToMove ? strategyA : strategyB) + " played illegal move " + move);
+            }
+            winner = play(position, move);
+        }
+        int outcome = winner == Player.EMPTY ? Result.DRAW : winner == colourA ? Result.WIN : Result.LOSS;
+        result.games[colourA == Player.X ? 0 : 1][outcome]++;
+    }
+
+    private static int play(Position position, int move) {
+        int player = position.sideToMove();
+        position.makeMove(move);
+        return position.checkWin(move).isWin() ? player : Player.EMPTY;
+    }
+
+    private static int randomMove(Position position, Random random) {
+        int[] moves = new int[position.cellCount()];
+        int count = position.generateMoves(moves);
+        return moves[random.nextInt(count)];
+    }
+
+    /**
+     * SplitMix64 of seed and index: unrelated seeds for neighbouring games
+     */
+    private static long mix(long seed, long index) {
+        long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * One side's move choice. Instances are per worker thread and draw all
+     * their randomness from the worker's Random.
+     */
+    public interface Strategy {
+        int chooseMove(Position position);
+
+        /** Forget anything kept from the previous game */
+        default void newGame() {
+        }
+    }
+
+    /**
+     * Strategy by name (see the class comment)
+     */
+    public static Strategy create(String name, GameVariant variant, Random random) {
+        String[] parts = name.split(":", 2);
+        switch (parts[0]) {
+            case "random": {
+                HeuristicAi ai = new HeuristicAi(random);
+                return ai::findRandomMove;
+            }
+            case "easy":
+                return heuristic(random, 30);
+            case "medium":
+                return heuristic(random, 70);
+            case "smart":
+                return heuristic(random, 100);
+            case "perfect":
+                if (variant != GameVariant.CLASSIC) {
+                    throw new IllegalArgumentException("perfect only plays " + GameVariant.CLASSIC.displayName());
+                }
+                return perfect(random);
+            case "hard":
+                if (variant == GameVariant.CLASSIC) {
+                    return perfect(random);
+                }
+                return variant.prefersMcts() ? mcts(random, HARD_MCTS_PLAYOUTS) : negamax(HARD_NEGAMAX_DEPTH);
+            case "negamax":
+                return negamax(Integer.parseInt(argument(parts, name)));
+            case "mcts":
+                return mcts(random, Integer.parseInt(argument(parts, name)));
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + name);
+        }
+    }
+
+    private static String argument(String[] parts, String name) {
+        if (parts.length < 2) {
+            throw new IllegalArgumentException(name + " needs a value, e.g. " + name + ":4");
+        }
+        return parts[1];
+    }
+
+    private static Strategy heuristic(Random random, int smartPercent) {
+        HeuristicAi ai = new HeuristicAi(random);
+        return position -> ai.chooseMove(position, smartPercent);
+    }
+
+    private static Strategy perfect(Random random) {
+        PerfectPlayTable table = perfectPlayTable();
+        return position -> table.bestMove((Board) position, random);
+    }
+
+    private static synchronized PerfectPlayTable perfectPlayTable() {
+        if (perfectPlayTable == null) {
+            perfectPlayTable = PerfectPlayTable.solve(); // read-only afterwards, shared by all workers
+        }
+        return perfectPlayTable;
+    }
+
+    private static Strategy negamax(int depth) {
+        NegamaxSearch search = new NegamaxSearch(new TranspositionTable(16), new PatternEvaluator());
+        return new Strategy() {
+            @Override
+            public int chooseMove(Position position) {
+                return search.search(position, depth).move();
+            }
+
+            @Override
+            public void newGame() {
+                search.table().clear(); // results must not depend on the games played before
+            }
+        };
+    }
+
+    private static Strategy mcts(Random random, int playouts) {
+        // One tree per worker (the workers already use every core), big enough
+        // that a search never runs out of nodes when it expands a whole row of children
+        MctsSearch search = new MctsSearch(Math.min(1 << 20, playouts * 16), random, 1);
+        return new Strategy() {
+            @Override
+            public int chooseMove(Position position) {
+                return search.search(position, playouts).move();
+            }
+
+            @Override
+            public void newGame() {
+                search.clearTree();
+            }
+        };
+    }
+
+    /**
+     * Tally of one run, from A's point of view
+     */
+    public static final class Result {
+
+        static final int WIN = 0;
+        static final int DRAW = 1;
+        static final int LOSS = 2;
+
+        private final String nameA;
+        private final String nameB;
+        final long[][] games = new long[2][3]; // [A as X, A as O][outcome]
+        final Latencies[] latency = {new Latencies(), new Latencies()};
+        long elapsedNanos;
+
+        Result(String nameA, String nameB) {
+            this.nameA = nameA;
+            this.nameB = nameB;
+        }
+
+        void add(Result other) {
+            for (int colour = 0; colour < 2; colour++) {
+                for (int outcome = 0; outcome < 3; outcome++) {
+                    games[colour][outcome] += other.games[colour][outcome];
+                }
+            }
+            latency[0].add(other.latency[0]);
+            latency[1].add(other.latency[1]);
+        }
+
+        public long wins() {
+            return games[0][WIN] + games[1][WIN];
+        }
+
+        public long draws() {
+            return games[0][DRAW] + games[1][DRAW];
+        }
+
+        public long losses() {
+            return games[0][LOSS] + games[1][LOSS];
+        }
+
+        public long games() {
+            return wins() + draws() + losses();
+        }
+
+        /**
+         * A's score: 1 per win, 1/2 per draw, over the games played
+         */
+        public double score() {
+            return (wins() + 0.5 * draws()) / games();
+        }
+
+        /**
+         * Half-width of the 95% confidence interval of the score, from the
+         * per-game score variance
+         */
+        public double scoreMargin() {
+            long n = games();
+            double s = score();
+            double variance = (wins() * (1 - s) * (1 - s) + draws() * (0.5 - s) * (0.5 - s)
+                    + losses() * s * s) / n;
+            return 1.96 * Math.sqrt(variance / n);
+        }
+
+        /**
+         * Elo difference of A over B matching a score (infinite at 0 and 1)
+         */
+        public static double elo(double score) {
+            return -400 * Math.log10(1 / score - 1);
+        }
+
+        public double gamesPerSecond() {
+            return games() / (elapsedNanos / 1e9);
+        }
+
+        /**
+         * Move latency of A (side 0) or B (side 1)
+         */
+        public Latencies latency(int side) {
+            return latency[side];
+        }
+
+        public void print(PrintStream out) {
+            double score = score();
+            double margin = scoreMargin();
+            out.printf("%s: %,d W / %,d D / %,d L  score %.2f%% +- %.2f%%  Elo %+.0f [%+.0f, %+.0f]%n",
+                    nameA, wins(), draws(), losses(), score * 100, margin * 100,
+                    elo(score), elo(Math.max(0, score - margin)), elo(Math.min(1, score + margin)));
+            for (int colour = 0; colour < 2; colour++) {
+                out.printf("  as %s: %,d W / %,d D / %,d L%n", colour == 0 ? "X" : "O",
+                        games[colour][WIN], games[colour][DRAW], games[colour][LOSS]);
+            }
+            out.printf("%,.0f games/s (%,d games in %.1f s)%n", gamesPerSecond(), games(), elapsedNanos / 1e9);
+            out.printf("Move latency (us)  %10s %10s %10s %10s %10s%n", "p50", "p90", "p99", "p99.9", "max");
+            for (int side = 0; side < 2; side++) {
+                Latencies l = latency[side];
+                out.printf("  %-16s %10.1f %10.1f %10.1f %10.1f %10.1f%n", side == 0 ? nameA : nameB,
+                        l.percentile(0.5) / 1e3, l.percentile(0.9) / 1e3, l.percentile(0.99) / 1e3,
+                        l.percentile(0.999) / 1e3, l.max() / 1e3);
+            }
+        }
+    }
+
+    /**
+     * Log-linear histogram of nanosecond timings: 16 buckets per power of
+     * two (about 6% resolution) in a fixed array, so recording a move
+     * allocates nothing
+     */
+    public static final class Latencies {
+
+        private static final int SUB_BITS = 4;
+        private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+        private final long[] counts = new long[(64 - SUB_BITS + 1) * SUB_BUCKETS];
+        private long count;
+        private long max;
+
+        void record(long nanos) {
+            long value = Math.max(0, nanos);
+            counts[bucket(value)]++;
+            count++;
+            max = Math.max(max, value);
+        }
+
+        void add(Latencies other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+            }
+            count += other.count;
+            max = Math.max(max, other.max);
+        }
+
+        private static int bucket(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value); // >= SUB_BITS
+            int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+        }
+
+        private static long lowerBound(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+            long sub = bucket % SUB_BUCKETS;
+            return (SUB_BUCKETS + sub) << (exponent - SUB_BITS);
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public long max() {
+            return max;
+        }
+
+        /**
+         * Smallest recorded bucket holding at least this fraction of the timings
+         */
+        public long percentile(double fraction) {
+            long target = (long) Math.ceil(fraction * count);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target && seen > 0) {
+                    return Math.min(lowerBound(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.tabletussle.engine;
+
+import com.example.tabletussle.engine.ai.HeuristicAi;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class BoardTest {
+
+    @Test
+    public void makeAndUnmake_restoresBoard() {
+        Board board = new Board();
+        board.makeMove(Board.move(1, 1));
+        board.makeMove(Board.move(0, 2));
+
+        assertEquals(Player.X, board.get(4));
+        assertEquals(Player.O, board.get(2));
+        assertEquals(Player.X, board.sideToMove());
+        assertEquals(2, board.moveCount());
+
+        board.unmakeMove(2);
+        board.unmakeMove(4);
+        assertEquals(Board.FULL_MASK, board.emptyMask());
+        assertEquals(Player.X, board.sideToMove());
+        assertEquals(0, board.moveCount());
+    }
+
+    @Test
+    public void winningLine_detectsDiagonal() {
+        Board board = new Board();
+        // X: 0, 4, 8   O: 1, 2
+        int[] moves = {0, 1, 4, 2, 8};
+        for (int move : moves) {
+            board.makeMove(move);
+        }
+        assertTrue(board.hasWon(Player.X));
+        assertFalse(board.hasWon(Player.O));
+        assertEquals(0b100_010_001, board.winningLine(Player.X));
+        assertTrue(board.isGameOver());
+
+        WinResult result = board.checkWin(8);
+        assertTrue(result.isWin());
+        assertEquals(Player.X, result.winner());
+        assertEquals(0b100_010_001, result.lineMask());
+        assertFalse(board.checkWin(2).isWin());
+    }
+
+    @Test
+    public void heuristicAi_winsBeforeBlocking() {
+        Board board = new Board();
+        // X: 0, 1, 8   O: 4, 5 -> O to move can win at 3, X threatens 2
+        int[] moves = {0, 4, 1, 5, 8};
+        for (int move : moves) {
+            board.makeMove(move);
+        }
+        HeuristicAi ai = new HeuristicAi(new Random(1));
+        assertEquals(3, ai.findSmartMove(board));
+        assertEquals(2, ai.findWinningMove(board, Player.X));
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.tabletussle.engine;
+
+import com.example.tabletussle.engine.ai.EndgameTablebase;
+import com.example.tabletussle.engine.ai.Evaluator;
+import com.example.tabletussle.engine.ai.NegamaxSearch;
+import com.example.tabletussle.engine.ai.PerfectPlayTable;
+import com.example.tabletussle.engine.ai.SearchResult;
+import com.example.tabletussle.engine.ai.TranspositionTable;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class EndgameTablebaseTest {
+
+    private static final int MAX_EMPTY = 4;
+    private static final EndgameTablebase TABLE =
+            EndgameTablebase.generate(MAX_EMPTY, ForkJoinPool.commonPool());
+
+    @Test
+    public void probes_matchFullDepthSearch() {
+        Random random = new Random(5);
+        NegamaxSearch search = new NegamaxSearch(new TranspositionTable(16), Evaluator.NONE);
+        int[] moves = new int[EndgameTablebase.CELLS];
+        int checked = 0;
+        for (int game = 0; game < 200; game++) {
+            GridBoard board = new GridBoard(4, 4);
+            boolean over = false;
+            while (EndgameTablebase.CELLS - board.moveCount() > MAX_EMPTY && !over) {
+                int move = moves[random.nextInt(board.generateMoves(moves))];
+                board.makeMove(move);
+                over = board.checkWin(move).isWin();
+            }
+            if (over) {
+                continue;
+            }
+            assertTrue(TABLE.covers(board));
+            SearchResult result = search.search(board, MAX_EMPTY);
+            int value = TABLE.value(board);
+            if (result.isForcedWin()) {
+                assertEquals(PerfectPlayTable.WIN, value);
+                assertEquals(NegamaxSearch.WIN_SCORE - result.score(), TABLE.distance(board));
+            } else if (result.isForcedLoss()) {
+                assertEquals(PerfectPlayTable.LOSS, value);
+                assertEquals(NegamaxSearch.WIN_SCORE + result.score(), TABLE.distance(board));
+            } else {
+                assertEquals(PerfectPlayTable.DRAW, value);
+            }
+
+            // The best move hands the opponent the mirrored value
+            int best = TABLE.bestMove(board);
+            board.makeMove(best);
+            int after = board.checkWin(best).isWin() ? PerfectPlayTable.LOSS : TABLE.value(board);
+            board.unmakeMove(best);
+            assertEquals(PerfectPlayTable.WIN + PerfectPlayTable.LOSS - value, after);
+            checked++;
+        }
+        assertTrue(checked > 100);
+    }
+
+    @Test
+    public void writeAndWrap_roundTrips() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TABLE.write(out);
+        EndgameTablebase copy = EndgameTablebase.wrap(ByteBuffer.wrap(out.toByteArray()));
+        assertEquals(TABLE.positionCount(), copy.positionCount());
+
+        GridBoard board = new GridBoard(4, 4);
+        assertFalse(copy.covers(board));
+        assertEquals(Position.NO_MOVE, copy.bestMove(board));
+        // X: rows 0 and 2 nearly full, O fills between; X to move wins at once
+        int[] game = {0, 4, 1, 5, 2, 12, 8, 13, 9, 6, 10, 14};
+        for (int move : game) {
+            board.makeMove(move);
+        }
+        assertEquals(PerfectPlayTable.WIN, copy.value(board));
+        assertEquals(1, copy.distance(board));
+        int best = copy.bestMove(board);
+        assertTrue(best == 3 || best == 11);
+    }
+}
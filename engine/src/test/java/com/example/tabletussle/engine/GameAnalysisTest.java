@@ -0,0 +1,82 @@
+package com.example.tabletussle.engine;
+
+import com.example.tabletussle.engine.ai.Evaluator;
+import com.example.tabletussle.engine.ai.GameAnalysis;
+import com.example.tabletussle.engine.ai.NegamaxSearch;
+import com.example.tabletussle.engine.ai.PerfectPlayTable;
+import com.example.tabletussle.engine.ai.TimeManager;
+import com.example.tabletussle.engine.ai.TranspositionTable;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GameAnalysisTest {
+
+    @Test
+    public void marks_matchPerfectPlayOn3x3() {
+        PerfectPlayTable perfect = PerfectPlayTable.solve();
+        NegamaxSearch search = new NegamaxSearch(new TranspositionTable(16), Evaluator.NONE);
+        Random random = new Random(8);
+        int[] buffer = new int[Board.CELLS];
+        int blunders = 0;
+        for (int game = 0; game < 200; game++) {
+            Board board = new Board();
+            int[] moves = new int[Board.CELLS];
+            int count = 0;
+            int[] expected = new int[Board.CELLS];
+            while (true) {
+                int before = perfect.value(board);
+                int move = buffer[random.nextInt(board.generateMoves(buffer))];
+                board.makeMove(move);
+                boolean won = board.checkWin(move).isWin();
+                // Outcome for the mover, who is no longer the side to move
+                int after = won ? PerfectPlayTable.WIN
+                        : board.isFull() ? PerfectPlayTable.DRAW
+                        : perfect.value(board) == PerfectPlayTable.WIN ? PerfectPlayTable.LOSS
+                        : perfect.value(board) == PerfectPlayTable.LOSS ? PerfectPlayTable.WIN
+                        : PerfectPlayTable.DRAW;
+                expected[count] = after == PerfectPlayTable.LOSS && before != PerfectPlayTable.LOSS
+                        ? GameAnalysis.BLUNDER
+                        : before == PerfectPlayTable.WIN && after != PerfectPlayTable.WIN
+                        ? GameAnalysis.INACCURACY : GameAnalysis.BEST;
+                moves[count++] = move;
+                if (won || board.isFull()) {
+                    break;
+                }
+            }
+
+            GameAnalysis analysis = new GameAnalysis(new Board(), moves, count, TimeManager.fixed(5_000));
+            while (analysis.step(search)) {
+                // one move per step
+            }
+            assertTrue(analysis.isComplete());
+            for (int ply = 0; ply < count; ply++) {
+                assertEquals("game " + game + " ply " + ply, expected[ply], analysis.mark(ply));
+                if (expected[ply] == GameAnalysis.BLUNDER) blunders++;
+            }
+        }
+        assertTrue(blunders > 50);
+    }
+
+    @Test
+    public void stop_keepsTheMovesAlreadyAnalysed() {
+        int[] moves = {4, 1, 0, 8, 2, 6, 3, 5, 7};
+        NegamaxSearch search = new NegamaxSearch(new TranspositionTable(16), Evaluator.NONE);
+        GameAnalysis analysis = new GameAnalysis(new Board(), moves, moves.length, TimeManager.fixed(5_000));
+        assertTrue(analysis.step(search));
+        assertTrue(analysis.step(search));
+        analysis.stop();
+        assertFalse(analysis.step(search));
+        assertEquals(2, analysis.analyzedMoves());
+        assertFalse(analysis.isComplete());
+        // Centre is best for X; the edge reply loses for O
+        assertEquals(GameAnalysis.BEST, analysis.mark(0));
+        assertEquals(GameAnalysis.BLUNDER, analysis.mark(1));
+        assertEquals(1, analysis.count(GameAnalysis.BLUNDER, Player.O));
+        assertEquals(0, analysis.count(GameAnalysis.BLUNDER, Player.X));
+        assertTrue(analysis.encode().matches("B\\d,X\\d"));
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.tabletussle.engine;
+
+import com.example.tabletussle.engine.ai.NegamaxSearch;
+import com.example.tabletussle.engine.ai.PatternEvaluator;
+import com.example.tabletussle.engine.ai.TranspositionTable;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GravityBoardTest {
+
+    @Test
+    public void stonesDropToTheLowestFreeCell() {
+        GravityBoard board = new GravityBoard(6, 7);
+        int[] moves = new int[board.cellCount()];
+        // One move per column, bottom row, centre column first
+        assertEquals(7, board.generateMoves(moves));
+        assertEquals(5 * 7 + 3, moves[0]);
+        assertTrue(board.isLegal(5 * 7));
+        assertFalse(board.isLegal(0));
+
+        for (int i = 0; i < 6; i++) {
+            assertEquals((5 - i) * 7 + 2, board.landingCell(2));
+            board.makeMove(board.landingCell(2));
+        }
+        assertEquals(Position.NO_MOVE, board.landingCell(2));
+        assertEquals(6, board.generateMoves(moves));
+        assertEquals(Player.X, board.get(5 * 7 + 2));
+        assertEquals(Player.O, board.get(2));
+    }
+
+    @Test
+    public void randomGames_matchFromScratchRules() {
+        int[][] sizes = {{6, 7}, {7, 8}, {4, 12}};
+        Random random = new Random(23);
+        for (int[] size : sizes) {
+            int wins = 0;
+            for (int game = 0; game < 200; game++) {
+                GravityBoard board = new GravityBoard(size[0], size[1]);
+                int[] moves = new int[board.cellCount()];
+                int count;
+                while ((count = board.generateMoves(moves)) > 0) {
+                    int legal = 0;
+                    for (int cell = 0; cell < board.cellCount(); cell++) {
+                        if (board.isLegal(cell)) legal++;
+                    }
+                    assertEquals(count, legal);
+
+                    int side = board.sideToMove();
+                    for (int i = 0; i < count; i++) {
+                        GravityBoard before = board.copy();
+                        board.makeMove(moves[i]);
+                        boolean win = board.checkWin(moves[i]).isWin();
+                        assertEquals(win, hasFourFromScratch(board, side));
+                        assertEquals(board.scanLineScore(), board.lineScore());
+                        board.unmakeMove(moves[i]);
+                        assertEquals(win, board.wouldWin(moves[i], side));
+                        assertEquals(before.toString(), board.toString());
+                        assertEquals(before.hash(), board.hash());
+                        assertEquals(before.lineScore(), board.lineScore());
+                    }
+
+                    int move = moves[random.nextInt(count)];
+                    board.makeMove(move);
+                    WinResult result = board.checkWin(move);
+                    if (result.isWin()) {
+                        for (int cell : result.cells()) {
+                            assertEquals(Player.opponent(board.sideToMove()), board.get(cell));
+                        }
+                        wins++;
+                        break;
+                    }
+                }
+                if (count == 0) {
+                    assertTrue(board.isFull());
+                }
+            }
+            assertTrue(wins > 100);
+        }
+    }
+
+    @Test
+    public void negamax_findsAForcedWin() {
+        // X to move with X X in the middle of the bottom row: a third stone
+        // next to them threatens both ends, and O can only block one
+        GravityBoard board = new GravityBoard(6, 7);
+        play(board, 2, 6, 3, 6);
+        int move = new NegamaxSearch(new TranspositionTable(18), new PatternEvaluator())
+                .search(board, 5).move();
+        int column = move % 7;
+        assertTrue("played column " + column, column == 1 || column == 4);
+    }
+
+    private static void play(GravityBoard board, int... columns) {
+        for (int column : columns) {
+            board.makeMove(board.landingCell(column));
+        }
+    }
+
+    private static boolean hasFourFromScratch(Position board, int player) {
+        int rows = board.rows();
+        int columns = board.columns();
+        int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        for (int cell = 0; cell < board.cellCount(); cell++) {
+            for (int[] d : directions) {
+                int run = 0;
+                for (int i = 0; i < 4; i++) {
+                    int r = cell / columns + i * d[0];
+                    int c = cell % columns + i * d[1];
+                    if (r < rows && c >= 0 && c < columns && board.get(r * columns + c) == player) {
+                        run++;
+                    }
+                }
+                if (run == 4) return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.tabletussle.engine;
+
+import com.example.tabletussle.engine.ai.PatternEvaluator;
+import com.example.tabletussle.engine.ai.WindowEvaluator;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GridBoardTest {
+
+    @Test
+    public void gomoku_detectsFiveOnDiagonal() {
+        GridBoard board = new GridBoard(15, 5);
+        // X on the anti-diagonal (2,10)..(6,6), O scattered on row 0
+        for (int i = 0; i < 5; i++) {
+            int xMove = board.move(2 + i, 10 - i);
+            board.makeMove(xMove);
+            WinResult result = board.checkWin(xMove);
+            assertEquals(i == 4, result.isWin());
+            if (i < 4) {
+                board.makeMove(board.move(0, i));
+            } else {
+                assertEquals(Player.X, result.winner());
+                assertEquals(5, result.cells().length);
+                assertEquals(0, result.lineMask()); // cells beyond bit 31
+            }
+        }
+    }
+
+    @Test
+    public void wouldWin_ignoresBlockedWindows() {
+        GridBoard board = new GridBoard(4, 4);
+        // X: row 0 cols 0-2, O blocks nothing yet
+        board.makeMove(0);
+        board.makeMove(4);
+        board.makeMove(1);
+        board.makeMove(5);
+        board.makeMove(2);
+        assertTrue(board.wouldWin(3, Player.X));
+        assertFalse(board.wouldWin(3, Player.O));
+        assertFalse(board.wouldWin(7, Player.O));
+    }
+
+    @Test
+    public void makeAndUnmake_restoresCounters() {
+        GridBoard board = new GridBoard(7, 5);
+        int[] moves = new int[board.cellCount()];
+        assertEquals(49, board.generateMoves(moves));
+
+        for (int move = 0; move < 10; move++) {
+            board.makeMove(move * 4);
+        }
+        for (int move = 9; move >= 0; move--) {
+            board.unmakeMove(move * 4);
+        }
+        for (int w = 0; w < board.windowCount(); w++) {
+            assertEquals(0, board.stonesInWindow(w, Player.X));
+            assertEquals(0, board.stonesInWindow(w, Player.O));
+        }
+        assertEquals(Player.X, board.sideToMove());
+    }
+
+    @Test
+    public void threeByThree_matchesMaskBoard() {
+        GridBoard grid = new GridBoard(3, 3);
+        Board board = new Board();
+        int[] moves = {4, 0, 8, 3, 1, 6}; // O completes the left column
+        for (int move : moves) {
+            grid.makeMove(move);
+            board.makeMove(move);
+            assertEquals(board.checkWin(move).lineMask(), grid.checkWin(move).lineMask());
+        }
+        assertEquals(0b001_001_001, grid.checkWin(6).lineMask());
+        assertEquals(8, grid.windowCount());
+    }
+
+    @Test
+    public void patternScore_matchesFullScanThroughMakeAndUnmake() {
+        Random random = new Random(3);
+        PatternEvaluator patterns = new PatternEvaluator();
+        WindowEvaluator scan = new WindowEvaluator();
+        for (int size : new int[]{4, 7, 15}) {
+            GridBoard board = new GridBoard(size, Math.min(size, 5));
+            int[] moves = new int[board.cellCount()];
+            int[] played = new int[board.cellCount()];
+            int count = 0;
+            for (int step = 0; step < 400; step++) {
+                boolean undo = count > 0 && (board.isFull() || random.nextInt(3) == 0);
+                if (undo) {
+                    board.unmakeMove(played[--count]);
+                } else {
+                    int move = moves[random.nextInt(board.generateMoves(moves))];
+                    board.makeMove(move);
+                    played[count++] = move;
+                }
+                assertEquals(scan.evaluate(board), patterns.evaluate(board));
+            }
+            // Indices agree with the cells they encode
+            for (int w = 0; w < board.windowCount(); w++) {
+                int expected = 0;
+                for (int step = board.winLength() - 1; step >= 0; step--) {
+                    expected = expected * 3 + board.get(board.windowCell(w, step));
+                }
+                assertEquals(expected, board.pattern(w));
+            }
+        }
+    }
+
+    @Test
+    public void linePatterns_tellShapesApart() {
+        int[] table = LinePatterns.scores(5);
+        int open = table[index(".XXX.")];
+        int edge = table[index("XXX..")];
+        int broken = table[index("X.XX.")];
+        assertTrue(open > edge);
+        assertTrue(edge > broken);
+        assertTrue(broken > table[index(".XX..")]);
+        assertEquals(-open, table[index(".OOO.")]);
+        assertEquals(0, table[index("OXXX.")]);
+        // One short of a line is a threat whatever the shape
+        assertEquals(table[index("XXXX.")], table[index("XX.XX")]);
+    }
+
+    // Base-3 index of a window written from step 0 on
+    private static int index(String window) {
+        int pattern = 0;
+        for (int step = window.length() - 1; step >= 0; step--) {
+            char c = window.charAt(step);
+            pattern = pattern * 3 + (c == 'X' ? Player.X : c == 'O' ? Player.O : Player.EMPTY);
+        }
+        return pattern;
+    }
+}
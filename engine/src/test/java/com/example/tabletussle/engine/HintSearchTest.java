@@ -0,0 +1,102 @@
+package com.example.tabletussle.engine;
+
+import com.example.tabletussle.engine.ai.HintSearch;
+import com.example.tabletussle.engine.ai.PatternEvaluator;
+import com.example.tabletussle.engine.ai.PerfectPlayTable;
+import com.example.tabletussle.engine.ai.TimeManager;
+import com.example.tabletussle.engine.ai.TranspositionTable;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinTask;
+
+import static org.junit.Assert.*;
+
+public class HintSearchTest {
+
+    @Test
+    public void everyCell_matchesPerfectPlayOn3x3() {
+        PerfectPlayTable perfect = PerfectPlayTable.solve();
+        HintSearch hints = new HintSearch(new TranspositionTable(16), new PatternEvaluator(), 3);
+        Random random = new Random(4);
+        int[] moves = new int[Board.CELLS];
+        try {
+            for (int game = 0; game < 30; game++) {
+                Board board = new Board();
+                int plies = random.nextInt(6);
+                for (int i = 0; i < plies; i++) {
+                    board.makeMove(moves[random.nextInt(board.generateMoves(moves))]);
+                }
+                String before = board.toString();
+                List<HintSearch.Hint> result = hints.analyze(board, TimeManager.fixed(5_000));
+                assertEquals(before, board.toString());
+                assertEquals(board.generateMoves(moves), result.size());
+
+                for (HintSearch.Hint hint : result) {
+                    Board after = board.copy();
+                    after.makeMove(hint.move());
+                    // The table scores the side to move after the hinted move: the opponent
+                    int expected = after.checkWin(hint.move()).isWin() ? HintSearch.WIN
+                            : perfect.value(after) == PerfectPlayTable.WIN ? HintSearch.LOSS
+                            : perfect.value(after) == PerfectPlayTable.LOSS ? HintSearch.WIN
+                            : HintSearch.DRAW;
+                    assertEquals(hint.toString(), expected, hint.verdict());
+                }
+            }
+        } finally {
+            hints.shutdown();
+        }
+    }
+
+    @Test
+    public void cells_areStreamedOnceEach() {
+        GridBoard board = new GridBoard(7, 5);
+        int[] game = {24, 25, 18, 32, 30};
+        for (int move : game) {
+            board.makeMove(move);
+        }
+        int[] candidates = new int[board.cellCount()];
+        int count = board.generateCandidateMoves(candidates);
+
+        HintSearch hints = new HintSearch(new TranspositionTable(18), new PatternEvaluator(), 2);
+        Set<Integer> seen = new HashSet<>();
+        try {
+            hints.start(board, TimeManager.fixed(20), hint -> {
+                synchronized (seen) {
+                    assertTrue(seen.add(hint.move()));
+                    assertTrue(hint.value() >= -1 && hint.value() <= 1);
+                }
+            }).join();
+        } finally {
+            hints.shutdown();
+        }
+        assertEquals(count, seen.size());
+    }
+
+    @Test
+    public void cancel_stopsReporting() {
+        GridBoard board = new GridBoard(15, 5);
+        board.makeMove(7 * 15 + 7);
+        HintSearch hints = new HintSearch(new TranspositionTable(18), new PatternEvaluator(), 2);
+        int[] reported = new int[1];
+        try {
+            ForkJoinTask<?> run = hints.start(board, TimeManager.fixed(10_000), hint -> {
+                synchronized (reported) {
+                    reported[0]++;
+                }
+            });
+            long start = System.nanoTime();
+            hints.cancel();
+            run.join();
+            // Stopped searches return at once instead of using their 10 s each
+            assertTrue(System.nanoTime() - start < 5_000_000_000L);
+            assertEquals(0, reported[0]);
+        } finally {
+            hints.shutdown();
+        }
+    }
+}
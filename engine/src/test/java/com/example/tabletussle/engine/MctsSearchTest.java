@@ -0,0 +1,248 @@
+package com.example.tabletussle.engine;
+
+import com.example.tabletussle.engine.ai.MctsSearch;
+import com.example.tabletussle.engine.ai.PerfectPlayTable;
+import com.example.tabletussle.engine.ai.SearchResult;
+import com.example.tabletussle.engine.ai.TimeManager;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class MctsSearchTest {
+
+    @Test
+    public void playsOptimalMovesOnThreeByThree() {
+        PerfectPlayTable table = PerfectPlayTable.solve();
+        MctsSearch search = new MctsSearch(1 << 16, new Random(7));
+        int[][] games = {
+                {0, 1},          // X wins at once or with a fork
+                {4, 1, 0},       // O must block at 8
+                {0, 4, 8},       // O must take an edge
+        };
+        for (int[] game : games) {
+            Board board = new Board();
+            for (int move : game) {
+                board.makeMove(move);
+            }
+            long hash = board.hash();
+            SearchResult result = search.search(board, 20_000);
+            assertEquals(hash, board.hash());
+            assertTrue(board + " -> " + result.move(),
+                    (table.bestMoves(board) & 1 << result.move()) != 0);
+        }
+    }
+
+    @Test
+    public void reusesSubtreeAfterOpponentReply() {
+        GridBoard board = new GridBoard(7, 5);
+        board.makeMove(board.move(3, 3));
+        MctsSearch search = new MctsSearch(1 << 18, new Random(1));
+        SearchResult first = search.search(board, 5_000);
+        assertEquals(0, search.reusedVisits());
+
+        // Our move, then an opponent reply the tree has explored
+        board.makeMove(first.move());
+        board.makeMove(board.move(3, 4) == first.move() ? board.move(4, 4) : board.move(3, 4));
+        search.search(board, 1_000);
+        assertTrue(search.reusedVisits() > 0);
+
+        // Unrelated position: fresh tree
+        GridBoard other = new GridBoard(7, 5);
+        other.makeMove(0);
+        search.search(other, 100);
+        assertEquals(0, search.reusedVisits());
+    }
+
+    @Test
+    public void takesImmediateWinOnLargeBoard() {
+        GridBoard board = new GridBoard(15, 5);
+        for (int i = 0; i < 4; i++) {
+            board.makeMove(board.move(7, 5 + i));
+            board.makeMove(board.move(2, 2 * i));
+        }
+        SearchResult result = new MctsSearch(1 << 16, new Random(3)).search(board, 500);
+        int move = result.move();
+        assertTrue(move == board.move(7, 4) || move == board.move(7, 9));
+        assertTrue(result.isForcedWin());
+    }
+
+    @Test
+    public void parallelWorkers_shareOneTreeWithoutLosingVisits() {
+        PerfectPlayTable table = PerfectPlayTable.solve();
+        Board board = new Board();
+        for (int move : new int[]{4, 1, 0}) { // O must block at 8
+            board.makeMove(move);
+        }
+        MctsSearch search = new MctsSearch(1 << 16, new Random(11), 4);
+        SearchResult result = search.search(board, 40_000);
+        assertEquals(40_000, result.nodes());
+        assertTrue((table.bestMoves(board) & 1 << result.move()) != 0);
+
+        // Searching the same position again reuses the whole tree: every
+        // playout left exactly one visit at the root once virtual losses are undone
+        search.search(board, 0);
+        assertEquals(40_000, search.reusedVisits());
+    }
+
+    @Test
+    public void interrupt_stillWaitsForEveryWorker() {
+        GridBoard board = new GridBoard(15, 5);
+        board.makeMove(board.move(7, 7));
+        MctsSearch search = new MctsSearch(1 << 16, new Random(5), 4);
+        Thread.currentThread().interrupt();
+        SearchResult result = search.search(board, TimeManager.fixed(10_000));
+        // The interrupt stopped the search but is kept for the caller
+        assertTrue(Thread.interrupted());
+        assertTrue(result.elapsedNanos() < 5_000_000_000L);
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            assertFalse(thread.getName(), thread.getName().startsWith("mcts-worker-"));
+        }
+    }
+
+    @Test
+    public void ultimate_everyPlayoutMoveIsLegal() {
+        AtomicInteger illegal = new AtomicInteger();
+        AtomicInteger gameEnds = new AtomicInteger();
+        CheckedPosition board = new CheckedPosition(new UltimateBoard(), illegal, gameEnds);
+        board.makeMove(40); // centre of the centre board
+        SearchResult result = new MctsSearch(1 << 16, new Random(21)).search(board, 2_000);
+        assertEquals(0, illegal.get());
+        // Every playout reaches the end of the game (expansion adds a few more)
+        assertTrue(gameEnds.get() >= 2_000);
+        assertTrue(board.isLegal(result.move()));
+    }
+
+    @Test
+    public void gravity_playoutsRunToTheEnd() {
+        AtomicInteger illegal = new AtomicInteger();
+        AtomicInteger gameEnds = new AtomicInteger();
+        CheckedPosition board = new CheckedPosition(new GravityBoard(6, 7), illegal, gameEnds);
+        assertFalse(board.movesAreEmptyCells());
+        SearchResult result = new MctsSearch(1 << 16, new Random(23)).search(board, 2_000);
+        assertEquals(0, illegal.get());
+        // Not cut short once each column's first landing cell is used
+        assertTrue(gameEnds.get() >= 2_000);
+        assertTrue(board.isLegal(result.move()));
+    }
+
+    /**
+     * Delegates to another position, counting the moves made on it (and on
+     * its copies) that were illegal or ended the game
+     */
+    static final class CheckedPosition implements Position {
+        private final Position position;
+        private final AtomicInteger illegal;
+        private final AtomicInteger gameEnds;
+
+        CheckedPosition(Position position, AtomicInteger illegal, AtomicInteger gameEnds) {
+            this.position = position;
+            this.illegal = illegal;
+            this.gameEnds = gameEnds;
+        }
+
+        @Override
+        public int rows() {
+            return position.rows();
+        }
+
+        @Override
+        public int columns() {
+            return position.columns();
+        }
+
+        @Override
+        public int cellCount() {
+            return position.cellCount();
+        }
+
+        @Override
+        public int winLength() {
+            return position.winLength();
+        }
+
+        @Override
+        public int get(int cell) {
+            return position.get(cell);
+        }
+
+        @Override
+        public boolean isLegal(int move) {
+            return position.isLegal(move);
+        }
+
+        @Override
+        public int sideToMove() {
+            return position.sideToMove();
+        }
+
+        @Override
+        public int moveCount() {
+            return position.moveCount();
+        }
+
+        @Override
+        public long hash() {
+            return position.hash();
+        }
+
+        @Override
+        public int generateMoves(int[] buffer) {
+            return position.generateMoves(buffer);
+        }
+
+        @Override
+        public int generateCandidateMoves(int[] buffer) {
+            return position.generateCandidateMoves(buffer);
+        }
+
+        @Override
+        public boolean movesAreEmptyCells() {
+            return position.movesAreEmptyCells();
+        }
+
+        @Override
+        public void unmakeMove(int move) {
+            position.unmakeMove(move);
+        }
+
+        @Override
+        public WinResult checkWin(int lastMove) {
+            return position.checkWin(lastMove);
+        }
+
+        @Override
+        public boolean wouldWin(int move, int player) {
+            return position.wouldWin(move, player);
+        }
+
+        @Override
+        public boolean isFull() {
+            return position.isFull();
+        }
+
+        @Override
+        public void reset() {
+            position.reset();
+        }
+
+        @Override
+        public void makeMove(int move) {
+            if (!position.isLegal(move)) {
+                illegal.incrementAndGet();
+            }
+            position.makeMove(move);
+            if (position.checkWin(move).isWin() || position.isFull()) {
+                gameEnds.incrementAndGet();
+            }
+        }
+
+        @Override
+        public Position copy() {
+            return new CheckedPosition(position.copy(), illegal, gameEnds);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.tabletussle.engine;
+
+import com.example.tabletussle.engine.ai.Evaluator;
+import com.example.tabletussle.engine.ai.LazySmpSearch;
+import com.example.tabletussle.engine.ai.NegamaxSearch;
+import com.example.tabletussle.engine.ai.PerfectPlayTable;
+import com.example.tabletussle.engine.ai.SearchResult;
+import com.example.tabletussle.engine.ai.TimeManager;
+import com.example.tabletussle.engine.ai.TranspositionTable;
+import com.example.tabletussle.engine.ai.WindowEvaluator;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class NegamaxSearchTest {
+
+    @Test
+    public void fullDepth_matchesPerfectPlayOnEmptyAndForcedBoards() {
+        PerfectPlayTable table = PerfectPlayTable.solve();
+        NegamaxSearch search = new NegamaxSearch(new TranspositionTable(16), Evaluator.NONE);
+        int[][] games = {
+                {},              // draw
+                {0, 1},          // X to move and wins
+                {4, 1, 0},       // O to move, X threatens 8: O holds the draw
+                {0, 4, 8, 2, 6}, // O to move and loses
+        };
+        for (int[] game : games) {
+            Board board = new Board();
+            for (int move : game) {
+                board.makeMove(move);
+            }
+            long hash = board.hash();
+            SearchResult result = search.search(board, Board.CELLS);
+            assertEquals(hash, board.hash()); // position restored
+
+            int value = table.value(board);
+            if (value == PerfectPlayTable.WIN) {
+                assertTrue(result.isForcedWin());
+            } else if (value == PerfectPlayTable.LOSS) {
+                assertTrue(result.isForcedLoss());
+            } else {
+                assertEquals(0, result.score());
+            }
+            assertTrue((table.bestMoves(board) & 1 << result.move()) != 0);
+        }
+    }
+
+    @Test
+    public void moveOrdering_cutsOnFirstMoveAndKeepsTreeSmall() {
+        GridBoard board = new GridBoard(7, 5);
+        board.makeMove(board.move(3, 3));
+        board.makeMove(board.move(2, 3));
+        board.makeMove(board.move(3, 2));
+
+        NegamaxSearch search = new NegamaxSearch(new TranspositionTable(18), new WindowEvaluator());
+        SearchResult result = search.search(board, 5);
+        // Row-major order with only the hash move promoted needed ~1.3M nodes
+        assertTrue(result.nodes() < 200_000);
+        assertTrue(search.firstMoveCutoffRate() > 0.8);
+    }
+
+    @Test
+    public void gomoku_blocksFourAndSeesOpenFourIsLost() {
+        GridBoard board = new GridBoard(15, 5);
+        // X: four in a row on row 7; O: one end of it plus scattered stones
+        int[] xMoves = {board.move(7, 5), board.move(7, 6), board.move(7, 7), board.move(7, 8)};
+        int[] oMoves = {board.move(7, 4), board.move(11, 11), board.move(3, 11)};
+        for (int i = 0; i < oMoves.length; i++) {
+            board.makeMove(xMoves[i]);
+            board.makeMove(oMoves[i]);
+        }
+        board.makeMove(xMoves[3]);
+
+        NegamaxSearch search = new NegamaxSearch(new TranspositionTable(16), new WindowEvaluator());
+        SearchResult result = search.search(board, 2);
+        assertEquals(board.move(7, 9), result.move());
+        assertFalse(result.isForcedLoss());
+
+        // Same four with both ends open: O is lost whatever it plays
+        board.unmakeMove(xMoves[3]);
+        board.unmakeMove(oMoves[2]);
+        board.unmakeMove(xMoves[2]);
+        board.unmakeMove(oMoves[1]);
+        board.unmakeMove(xMoves[1]);
+        board.unmakeMove(oMoves[0]);
+        board.makeMove(board.move(3, 3));
+        board.makeMove(xMoves[1]);
+        board.makeMove(oMoves[1]);
+        board.makeMove(xMoves[2]);
+        board.makeMove(oMoves[2]);
+        board.makeMove(xMoves[3]);
+        assertTrue(search.search(board, 2).isForcedLoss());
+    }
+
+    @Test
+    public void iterativeDeepening_stopsAtTheHardLimit() {
+        GridBoard board = new GridBoard(15, 5);
+        int[] opening = {board.move(7, 7), board.move(6, 8), board.move(8, 8), board.move(6, 6)};
+        for (int move : opening) {
+            board.makeMove(move);
+        }
+        long hash = board.hash();
+
+        NegamaxSearch search = new NegamaxSearch(new TranspositionTable(16), new WindowEvaluator());
+        SearchResult result = search.search(board, TimeManager.fixed(150), NegamaxSearch.MAX_PLY);
+        assertTrue(board.isLegal(result.move()));
+        assertTrue(result.depth() >= 1);
+        assertTrue(result.elapsedNanos() < 400_000_000L); // 150 ms plus generous slack
+        assertEquals(hash, board.hash());
+    }
+
+    @Test
+    public void iterativeDeepening_stopsEarlyOnForcedResult() {
+        Board board = new Board();
+        for (int move : new int[]{0, 4, 1}) { // O must block at 2
+            board.makeMove(move);
+        }
+        NegamaxSearch search = new NegamaxSearch(new TranspositionTable(16), Evaluator.NONE);
+        SearchResult result = search.search(board, TimeManager.fixed(10_000), NegamaxSearch.MAX_PLY);
+        assertEquals(2, result.move());
+        assertTrue(result.elapsedNanos() < 1_000_000_000L);
+    }
+
+    @Test
+    public void timeManager_splitsTheClock() {
+        GridBoard board = new GridBoard(15, 5);
+        TimeManager blitz = TimeManager.forClock(board, 30_000, 0);
+        assertTrue(blitz.softMillis() > 500 && blitz.softMillis() < 2_000);
+        assertTrue(blitz.hardMillis() >= blitz.softMillis());
+
+        // Almost flagged: never plan to use more than what is left
+        TimeManager low = TimeManager.forClock(board, 300, 0);
+        assertTrue(low.hardMillis() <= 200);
+    }
+
+    @Test
+    public void transpositionTable_verifiesKeyAgainstData() {
+        TranspositionTable table = new TranspositionTable(3);
+        long key = 0x1234_5678_9ABC_DEF0L;
+        table.store(key, 5, -42, TranspositionTable.LOWER, 7);
+        long entry = table.probe(key);
+        assertEquals(-42, TranspositionTable.score(entry));
+        assertEquals(5, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(entry));
+        assertEquals(7, TranspositionTable.move(entry));
+
+        // Same cluster, different key: a miss rather than someone else's entry
+        assertEquals(TranspositionTable.MISS, table.probe(key + 8));
+        assertEquals(1, table.collisionRate() * 2, 1e-9);
+
+        // Shallower result goes to the always-replace slot, the deep one stays
+        table.store(key + 8, 1, 0, TranspositionTable.EXACT, Position.NO_MOVE);
+        assertEquals(5, TranspositionTable.depth(table.probe(key)));
+        assertEquals(Position.NO_MOVE, TranspositionTable.move(table.probe(key + 8)));
+        assertEquals(0, table.overwriteRate(), 1e-9);
+
+        table.store(key + 16, 2, 0, TranspositionTable.EXACT, 3); // evicts key + 8
+        assertEquals(TranspositionTable.MISS, table.probe(key + 8));
+        assertEquals(5, TranspositionTable.depth(table.probe(key)));
+        assertEquals(1 / 3.0, table.overwriteRate(), 1e-9);
+
+        // A new search may take the depth-preferred slot with a shallow result
+        table.newSearch();
+        table.store(key + 24, 1, 0, TranspositionTable.EXACT, 4);
+        assertEquals(TranspositionTable.MISS, table.probe(key));
+        assertEquals(4, TranspositionTable.move(table.probe(key + 24)));
+        assertEquals(3, TranspositionTable.move(table.probe(key + 16)));
+
+        assertEquals(16, table.capacity());
+        assertEquals(1 << 20, TranspositionTable.withMemory(1 << 20).memoryBytes());
+    }
+
+    @Test
+    public void lazySmp_agreesWithSingleThreadOnForcedPositions() {
+        PerfectPlayTable perfect = PerfectPlayTable.solve();
+        LazySmpSearch search = new LazySmpSearch(new TranspositionTable(16), Evaluator.NONE, 3);
+        Board board = new Board();
+        for (int move : new int[]{0, 4, 8}) { // O must take an edge
+            board.makeMove(move);
+        }
+        SearchResult result = search.search(board, TimeManager.fixed(2_000), NegamaxSearch.MAX_PLY);
+        assertEquals(0, result.score());
+        assertTrue((perfect.bestMoves(board) & 1 << result.move()) != 0);
+        assertEquals(Board.CELLS - 3, result.depth());
+
+        GridBoard grid = new GridBoard(15, 5);
+        int[] xMoves = {grid.move(7, 5), grid.move(7, 6), grid.move(7, 7)};
+        int[] oMoves = {grid.move(7, 4), grid.move(11, 11), grid.move(3, 11)};
+        for (int i = 0; i < 3; i++) {
+            grid.makeMove(xMoves[i]);
+            grid.makeMove(oMoves[i]);
+        }
+        grid.makeMove(grid.move(7, 8)); // four, one end blocked
+        long hash = grid.hash();
+        LazySmpSearch gridSearch = new LazySmpSearch(new TranspositionTable(18), new WindowEvaluator(), 4);
+        result = gridSearch.search(grid, TimeManager.fixed(300), NegamaxSearch.MAX_PLY);
+        assertEquals(grid.move(7, 9), result.move());
+        assertEquals(hash, grid.hash());
+    }
+
+    @Test
+    public void lazySmp_forcedMoveDoesNotWaitForHelpers() {
+        Board board = new Board();
+        for (int move : new int[]{0, 4, 1}) { // O must block at 2
+            board.makeMove(move);
+        }
+        LazySmpSearch search = new LazySmpSearch(new TranspositionTable(16), Evaluator.NONE, 8);
+        for (int run = 0; run < 20; run++) {
+            // The main thread is done at once; helpers stopped before they
+            // even start must not run to the 10 s hard limit
+            SearchResult result = search.search(board, TimeManager.fixed(10_000), NegamaxSearch.MAX_PLY);
+            assertEquals(2, result.move());
+            assertTrue(result.elapsedNanos() < 2_000_000_000L);
+        }
+
+        // A stop with no search running does not abort the next one
+        NegamaxSearch single = new NegamaxSearch(new TranspositionTable(16), Evaluator.NONE);
+        single.stop();
+        SearchResult result = single.search(new Board(), TimeManager.fixed(10_000), NegamaxSearch.MAX_PLY);
+        assertEquals(Board.CELLS, result.depth());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.tabletussle.engine;
+
+import com.example.tabletussle.engine.ai.OpeningBook;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class OpeningBookTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void mappedBook_answersEverySymmetricTwin() throws IOException {
+        GridBoard board = new GridBoard(15, 5);
+        board.makeMove(board.move(7, 7));
+        board.makeMove(board.move(6, 9)); // O a knight's move away: no symmetry maps it to itself
+        int reply = board.move(8, 8);
+
+        OpeningBook.Builder builder = new OpeningBook.Builder(15, 5);
+        builder.add(board, reply, 42);
+        GridBoard other = new GridBoard(15, 5);
+        other.makeMove(other.move(7, 7));
+        builder.add(other, other.move(7, 8), 7);
+        assertEquals(2, builder.size());
+
+        File file = folder.newFile("book.bin");
+        try (OutputStream out = new FileOutputStream(file)) {
+            builder.write(out);
+        }
+        assertEquals(20 + 2 * OpeningBook.ENTRY_BYTES, file.length());
+        OpeningBook book = OpeningBook.map(file);
+        assertEquals(2, book.entryCount());
+        assertEquals(reply, book.move(board));
+        assertEquals(42, book.score(board));
+
+        // Every rotation/reflection gets the matching image of the reply
+        Symmetry symmetry = Symmetry.of(15);
+        for (int t = 0; t < Symmetry.TRANSFORMS; t++) {
+            GridBoard twin = new GridBoard(15, 5);
+            twin.makeMove(symmetry.apply(t, board.move(7, 7)));
+            twin.makeMove(symmetry.apply(t, board.move(6, 9)));
+            assertEquals(symmetry.apply(t, reply), book.move(twin));
+        }
+
+        // Positions not in the book, and boards of another size
+        board.makeMove(reply);
+        assertEquals(Position.NO_MOVE, book.move(board));
+        assertEquals(Position.NO_MOVE, book.move(new GridBoard(7, 5)));
+    }
+
+    @Test(expected = IOException.class)
+    public void wrap_rejectsOtherFiles() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(new byte[64]);
+        OpeningBook.wrap(ByteBuffer.wrap(bytes.toByteArray()));
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.tabletussle.engine;
+
+import com.example.tabletussle.engine.ai.PerfectPlayTable;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class PerfectPlayTableTest {
+
+    private static final PerfectPlayTable TABLE = PerfectPlayTable.solve();
+
+    @Test
+    public void solve_coversAllLegalPositions() {
+        assertEquals(5478, TABLE.positionCount());
+        // Empty board is a draw and every first move keeps the draw
+        Board board = new Board();
+        assertEquals(PerfectPlayTable.DRAW, TABLE.value(board));
+        assertEquals(Board.FULL_MASK, TABLE.bestMoves(board));
+        assertEquals(9, TABLE.distance(board));
+    }
+
+    @Test
+    public void bestMoves_prefersImmediateWin() {
+        Board board = new Board();
+        // X: 0, 1, 8   O: 4, 5 -> O wins at 3 at once
+        int[] moves = {0, 4, 1, 5, 8};
+        for (int move : moves) {
+            board.makeMove(move);
+        }
+        assertEquals(PerfectPlayTable.WIN, TABLE.value(board));
+        assertEquals(1 << 3, TABLE.bestMoves(board));
+        assertEquals(1, TABLE.distance(board));
+    }
+
+    @Test
+    public void writeAndRead_roundTrips() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TABLE.write(out);
+        PerfectPlayTable copy = PerfectPlayTable.read(new ByteArrayInputStream(out.toByteArray()));
+        for (int index = 0; index < Board.INDEX_COUNT; index++) {
+            assertEquals(TABLE.value(index), copy.value(index));
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.tabletussle.engine;
+
+import com.example.tabletussle.engine.ai.NegamaxSearch;
+import com.example.tabletussle.engine.ai.PatternEvaluator;
+import com.example.tabletussle.engine.ai.TranspositionTable;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class QubicBoardTest {
+
+    @Test
+    public void lines_coverTheCube() {
+        Set<Long> lines = new HashSet<>();
+        int[] through = new int[QubicBoard.CELLS];
+        for (int i = 0; i < QubicBoard.LINE_COUNT; i++) {
+            long line = QubicBoard.line(i);
+            assertEquals(4, Long.bitCount(line));
+            lines.add(line);
+            for (long bits = line; bits != 0; bits &= bits - 1) {
+                through[Long.numberOfTrailingZeros(bits)]++;
+            }
+        }
+        assertEquals(76, lines.size());
+        // The 8 corners and 8 inner cells sit on 7 lines, the other 48 on 4
+        int sevens = 0;
+        for (int count : through) {
+            assertTrue(count == 4 || count == 7);
+            if (count == 7) sevens++;
+        }
+        assertEquals(16, sevens);
+
+        // Layer 1 is drawn top right: its corner (0, 0) is row 0, column 4 of the grid
+        assertEquals(4, QubicBoard.cell(0, 0, 1));
+        assertEquals(63, QubicBoard.cell(3, 3, 3));
+        for (int cell = 0; cell < QubicBoard.CELLS; cell++) {
+            assertEquals(cell, QubicBoard.cell(QubicBoard.x(cell), QubicBoard.y(cell), QubicBoard.layer(cell)));
+        }
+    }
+
+    @Test
+    public void randomGames_matchFromScratchRules() {
+        Random random = new Random(17);
+        int[] moves = new int[QubicBoard.CELLS];
+        int wins = 0;
+        for (int game = 0; game < 300; game++) {
+            QubicBoard board = new QubicBoard();
+            int count;
+            while ((count = board.generateMoves(moves)) > 0) {
+                int side = board.sideToMove();
+                for (int i = 0; i < count; i++) {
+                    QubicBoard before = board.copy();
+                    board.makeMove(moves[i]);
+                    boolean win = board.checkWin(moves[i]).isWin();
+                    assertEquals(win, board.hasWon(side));
+                    assertEquals(board.scanLineScore(), board.lineScore());
+                    board.unmakeMove(moves[i]);
+                    assertEquals(win, board.wouldWin(moves[i], side));
+                    assertEquals(before.toString(), board.toString());
+                    assertEquals(before.hash(), board.hash());
+                    assertEquals(before.lineScore(), board.lineScore());
+                }
+
+                int move = moves[random.nextInt(count)];
+                board.makeMove(move);
+                WinResult result = board.checkWin(move);
+                if (result.isWin()) {
+                    assertEquals(4, result.cells().length);
+                    wins++;
+                    break;
+                }
+            }
+        }
+        assertTrue(wins > 250);
+    }
+
+    @Test
+    public void negamax_takesAWinOrBlocks() {
+        Random random = new Random(9);
+        int[] moves = new int[QubicBoard.CELLS];
+        for (int game = 0; game < 40; game++) {
+            QubicBoard board = new QubicBoard();
+            int winning = Position.NO_MOVE;
+            int blocking = Position.NO_MOVE;
+            while (winning == Position.NO_MOVE && blocking == Position.NO_MOVE) {
+                int count = board.generateMoves(moves);
+                if (count == 0) break;
+                for (int i = 0; i < count; i++) {
+                    if (board.wouldWin(moves[i], board.sideToMove())) {
+                        winning = moves[i];
+                    } else if (board.wouldWin(moves[i], Player.opponent(board.sideToMove()))) {
+                        blocking = moves[i];
+                    }
+                }
+                if (winning == Position.NO_MOVE && blocking == Position.NO_MOVE) {
+                    board.makeMove(moves[random.nextInt(count)]);
+                }
+            }
+            if (winning == Position.NO_MOVE && blocking == Position.NO_MOVE) continue;
+
+            int move = new NegamaxSearch(new TranspositionTable(16), new PatternEvaluator())
+                    .search(board, 2).move();
+            if (winning != Position.NO_MOVE) {
+                assertTrue(board.wouldWin(move, board.sideToMove()));
+            } else if (!hasDoubleThreat(board)) {
+                assertTrue(board.wouldWin(move, Player.opponent(board.sideToMove())));
+            }
+        }
+    }
+
+    // Two cells the opponent would win with: no single move blocks both
+    private static boolean hasDoubleThreat(QubicBoard board) {
+        int threats = 0;
+        for (int cell = 0; cell < QubicBoard.CELLS; cell++) {
+            if (board.isLegal(cell) && board.wouldWin(cell, Player.opponent(board.sideToMove()))) {
+                threats++;
+            }
+        }
+        return threats > 1;
+    }
+}
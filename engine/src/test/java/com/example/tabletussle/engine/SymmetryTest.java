@@ -0,0 +1,82 @@
+package com.example.tabletussle.engine;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class SymmetryTest {
+
+    @Test
+    public void canonical3_reducesLegalPositionsTo765() {
+        Set<Integer> all = new HashSet<>();
+        Set<Integer> canonical = new HashSet<>();
+        collect(new Board(), all, canonical);
+        assertEquals(5478, all.size());
+        assertEquals(765, canonical.size());
+    }
+
+    private void collect(Board board, Set<Integer> all, Set<Integer> canonical) {
+        if (!all.add(board.index())) {
+            return;
+        }
+        canonical.add(Symmetry.key(Symmetry.canonical3(board)));
+        if (board.isGameOver()) {
+            return;
+        }
+        for (int empty = board.emptyMask(); empty != 0; empty &= empty - 1) {
+            int move = Integer.numberOfTrailingZeros(empty);
+            board.makeMove(move);
+            collect(board, all, canonical);
+            board.unmakeMove(move);
+        }
+    }
+
+    @Test
+    public void movesRoundTripThroughEveryTransform() {
+        Symmetry symmetry = Symmetry.of(7);
+        for (int t = 0; t < Symmetry.TRANSFORMS; t++) {
+            for (int cell = 0; cell < 49; cell++) {
+                int image = symmetry.toCanonical(t, cell);
+                assertEquals(cell, symmetry.toOriginal(t, image));
+                assertEquals(image, symmetry.apply(Symmetry.inverse(Symmetry.inverse(t)), cell));
+                assertEquals(cell, symmetry.apply(Symmetry.inverse(t), image));
+            }
+        }
+    }
+
+    @Test
+    public void symmetricBoardsShareCanonicalForm() {
+        Symmetry symmetry = Symmetry.of(4);
+        int[] cells = new int[16];
+        cells[1] = Player.X;
+        cells[6] = Player.O;
+        cells[11] = Player.X;
+
+        int[] expected = canonicalImage(symmetry, cells);
+        Set<String> bitImages = new HashSet<>();
+        int[] rotated = new int[16];
+        for (int t = 0; t < Symmetry.TRANSFORMS; t++) {
+            symmetry.transform(t, cells, rotated);
+            assertArrayEquals(expected, canonicalImage(symmetry, rotated));
+
+            long x = 0;
+            long o = 0;
+            for (int i = 0; i < 16; i++) {
+                if (rotated[i] == Player.X) x |= 1L << i;
+                if (rotated[i] == Player.O) o |= 1L << i;
+            }
+            int canonical = symmetry.canonicalTransform(x, o);
+            bitImages.add(symmetry.transformBits(canonical, x) + "/" + symmetry.transformBits(canonical, o));
+        }
+        assertEquals(1, bitImages.size());
+    }
+
+    private int[] canonicalImage(Symmetry symmetry, int[] cells) {
+        int[] out = new int[cells.length];
+        symmetry.transform(symmetry.canonicalTransform(cells), cells, out);
+        return out;
+    }
+}
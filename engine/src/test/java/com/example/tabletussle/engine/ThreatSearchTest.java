@@ -0,0 +1,80 @@
+package com.example.tabletussle.engine;
+
+import com.example.tabletussle.engine.ai.NegamaxSearch;
+import com.example.tabletussle.engine.ai.SearchResult;
+import com.example.tabletussle.engine.ai.ThreatSearch;
+import com.example.tabletussle.engine.ai.TranspositionTable;
+import com.example.tabletussle.engine.ai.WindowEvaluator;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ThreatSearchTest {
+
+    @Test
+    public void gomoku_openThreeWinsAndBlockedThreeDoesNot() {
+        GridBoard board = new GridBoard(15, 5);
+        // X: open three on row 7; O: scattered stones
+        int[] xMoves = {board.move(7, 6), board.move(7, 7), board.move(7, 8)};
+        int[] oMoves = {board.move(0, 0), board.move(14, 14)};
+        board.makeMove(xMoves[0]);
+        board.makeMove(oMoves[0]);
+        board.makeMove(xMoves[1]);
+        board.makeMove(oMoves[1]);
+        board.makeMove(xMoves[2]);
+        board.makeMove(board.move(0, 14));
+
+        ThreatSearch search = new ThreatSearch();
+        long hash = board.hash();
+        SearchResult result = search.search(board, 1000);
+        assertEquals(hash, board.hash()); // position restored
+        assertTrue(result.isForcedWin());
+        assertEquals(3, result.depth()); // open four, block, five
+        int move = result.move();
+        assertTrue(move == board.move(7, 5) || move == board.move(7, 9));
+
+        // O blocks both ends instead: X has nothing left to attack with
+        board.unmakeMove(board.move(0, 14));
+        board.makeMove(board.move(7, 9));
+        board.makeMove(board.move(0, 14));
+        board.makeMove(board.move(7, 5));
+        assertEquals(Position.NO_MOVE, search.search(board, 1000).move());
+    }
+
+    @Test
+    public void claimedWins_areConfirmedByFullWidthSearch() {
+        Random random = new Random(7);
+        NegamaxSearch verifier = new NegamaxSearch(new TranspositionTable(18), new WindowEvaluator());
+        ThreatSearch search = new ThreatSearch();
+        int[] moves = new int[49];
+        int verified = 0;
+        for (int game = 0; game < 60; game++) {
+            GridBoard board = new GridBoard(7, 5);
+            int plies = 6 + random.nextInt(12);
+            boolean over = false;
+            for (int i = 0; i < plies && !over; i++) {
+                int move = moves[random.nextInt(board.generateCandidateMoves(moves))];
+                board.makeMove(move);
+                over = board.checkWin(move).isWin() || board.isFull();
+            }
+            if (over) {
+                continue;
+            }
+            SearchResult result = search.search(board, 1000);
+            if (result.move() == Position.NO_MOVE || result.depth() > 7) {
+                continue;
+            }
+            assertTrue(verifier.search(board, result.depth()).isForcedWin());
+            board.makeMove(result.move());
+            if (!board.checkWin(result.move()).isWin()) {
+                assertTrue(verifier.search(board, result.depth() - 1).isForcedLoss());
+            }
+            board.unmakeMove(result.move());
+            verified++;
+        }
+        assertTrue(verified > 5);
+    }
+}
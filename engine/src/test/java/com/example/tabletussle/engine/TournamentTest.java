@@ -0,0 +1,45 @@
+package com.example.tabletussle.engine;
+
+import com.example.tabletussle.engine.tools.Tournament;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TournamentTest {
+
+    @Test
+    public void perfectPlay_neverLosesAndBeatsRandom() throws InterruptedException {
+        Tournament.Result result = new Tournament(GameVariant.CLASSIC, "perfect", "random", 0, 1)
+                .play(2_000, 2);
+        assertEquals(2_000, result.games());
+        assertEquals(0, result.losses());
+        assertTrue(result.score() > 0.85);
+        // Every move of both sides is timed: at least 5 per game, at most 9
+        long moves = result.latency(0).count() + result.latency(1).count();
+        assertTrue(moves >= 5 * 2_000 && moves <= 9 * 2_000);
+        assertTrue(result.latency(0).percentile(0.5) <= result.latency(0).percentile(0.99));
+        assertTrue(result.latency(0).percentile(0.99) <= result.latency(0).max());
+    }
+
+    @Test
+    public void result_doesNotDependOnThreadCount() throws InterruptedException {
+        Tournament.Result one = new Tournament(GameVariant.GRID_4, "medium", "easy", 2, 7).play(1_000, 1);
+        Tournament.Result three = new Tournament(GameVariant.GRID_4, "medium", "easy", 2, 7).play(1_000, 3);
+        assertEquals(one.wins(), three.wins());
+        assertEquals(one.draws(), three.draws());
+        assertEquals(one.losses(), three.losses());
+        // Medium is the stronger side, by a margin well outside the interval
+        assertTrue(one.score() - one.scoreMargin() > 0.5);
+    }
+
+    @Test
+    public void scoreInterval_shrinksWithMoreGames() throws InterruptedException {
+        Tournament.Result small = new Tournament(GameVariant.CLASSIC, "easy", "easy", 0, 3).play(400, 2);
+        Tournament.Result large = new Tournament(GameVariant.CLASSIC, "easy", "easy", 0, 3).play(6_400, 2);
+        // Same strategy on both sides: an even score, and 16x the games quarter the margin
+        assertEquals(0.5, large.score(), large.scoreMargin());
+        assertEquals(small.scoreMargin() / 4, large.scoreMargin(), small.scoreMargin() / 8);
+        assertEquals(0, Tournament.Result.elo(0.5), 1e-9);
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.tabletussle.engine;
+
+import com.example.tabletussle.engine.ai.MctsSearch;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class UltimateBoardTest {
+
+    @Test
+    public void move_sendsOpponentToMatchingSubBoard() {
+        UltimateBoard board = new UltimateBoard();
+        assertEquals(UltimateBoard.ANY_BOARD, board.forcedBoard());
+        int[] moves = new int[UltimateBoard.CELLS];
+        assertEquals(81, board.generateMoves(moves));
+
+        // X plays the centre square of the top-left sub-board: O must play in the centre sub-board
+        int move = UltimateBoard.cell(0, 4);
+        assertEquals(10, move); // row 1, column 1 of the 9x9 grid
+        board.makeMove(move);
+        assertEquals(4, board.forcedBoard());
+        int count = board.generateMoves(moves);
+        assertEquals(9, count);
+        for (int i = 0; i < count; i++) {
+            assertEquals(4, UltimateBoard.boardOf(moves[i]));
+        }
+        assertFalse(board.isLegal(UltimateBoard.cell(0, 0)));
+        assertTrue(board.isLegal(UltimateBoard.cell(4, 0)));
+    }
+
+    @Test
+    public void hash_isStonesPlusTheSendConstraint() {
+        // hash = Zobrist keys of the stones ^ a key per forced sub-board (0 for "any"),
+        // so equal stones with a different send are different positions
+        long[][] keys = Zobrist.keys(UltimateBoard.CELLS);
+        Map<Integer, Long> sendKeys = new HashMap<>();
+        sendKeys.put(UltimateBoard.ANY_BOARD, 0L);
+        Random random = new Random(3);
+        int[] moves = new int[UltimateBoard.CELLS];
+        for (int game = 0; game < 200; game++) {
+            UltimateBoard board = new UltimateBoard();
+            int count;
+            while ((count = board.generateMoves(moves)) > 0) {
+                int move = moves[random.nextInt(count)];
+                board.makeMove(move);
+                if (board.checkWin(move).isWin()) {
+                    break;
+                }
+                long stones = 0;
+                for (int cell = 0; cell < UltimateBoard.CELLS; cell++) {
+                    stones ^= keys[board.get(cell)][cell];
+                }
+                long sendKey = board.hash() ^ stones;
+                Long known = sendKeys.putIfAbsent(board.forcedBoard(), sendKey);
+                assertEquals(known == null ? sendKey : known, sendKey);
+            }
+        }
+        assertEquals(10, sendKeys.size());
+        assertEquals(10, new HashSet<>(sendKeys.values()).size());
+    }
+
+    @Test
+    public void randomGames_matchFromScratchRules() {
+        Random random = new Random(11);
+        int[] moves = new int[UltimateBoard.CELLS];
+        int wins = 0;
+        for (int game = 0; game < 300; game++) {
+            UltimateBoard board = new UltimateBoard();
+            while (true) {
+                int count = board.generateMoves(moves);
+                assertEquals(board.isFull(), count == 0);
+                if (count == 0) {
+                    break;
+                }
+                int legal = 0;
+                for (int cell = 0; cell < UltimateBoard.CELLS; cell++) {
+                    if (board.isLegal(cell)) legal++;
+                }
+                assertEquals(count, legal);
+
+                int side = board.sideToMove();
+                for (int i = 0; i < count; i++) {
+                    UltimateBoard before = board.copy();
+                    board.makeMove(moves[i]);
+                    boolean win = board.checkWin(moves[i]).isWin();
+                    assertEquals(win, hasLine(boardsWonFromScratch(board, side)));
+                    board.unmakeMove(moves[i]);
+                    assertEquals(win, board.wouldWin(moves[i], side));
+                    assertEquals(before.toString(), board.toString());
+                    assertEquals(before.hash(), board.hash());
+                    assertEquals(before.closedBoards(), board.closedBoards());
+                }
+
+                int move = moves[random.nextInt(count)];
+                board.makeMove(move);
+                assertEquals(boardsWonFromScratch(board, Player.X), board.boardsWon(Player.X));
+                assertEquals(boardsWonFromScratch(board, Player.O), board.boardsWon(Player.O));
+                if (board.checkWin(move).isWin()) {
+                    assertEquals(27, board.checkWin(move).cells().length);
+                    wins++;
+                    break;
+                }
+            }
+        }
+        assertTrue(wins > 200);
+    }
+
+    @Test
+    public void mcts_takesAGameWinningMove() {
+        Random random = new Random(5);
+        int[] moves = new int[UltimateBoard.CELLS];
+        for (int game = 0; game < 20; game++) {
+            UltimateBoard board = new UltimateBoard();
+            int winning = Position.NO_MOVE;
+            while (winning == Position.NO_MOVE) {
+                int count = board.generateMoves(moves);
+                if (count == 0) break;
+                for (int i = 0; i < count && winning == Position.NO_MOVE; i++) {
+                    if (board.wouldWin(moves[i], board.sideToMove())) {
+                        winning = moves[i];
+                    }
+                }
+                if (winning == Position.NO_MOVE) {
+                    board.makeMove(moves[random.nextInt(count)]);
+                }
+            }
+            if (winning == Position.NO_MOVE) continue;
+
+            int move = new MctsSearch(1 << 16, new Random(game)).search(board, 2_000).move();
+            assertTrue(board.wouldWin(move, board.sideToMove()));
+        }
+    }
+
+    private static int boardsWonFromScratch(UltimateBoard board, int player) {
+        int won = 0;
+        for (int sub = 0; sub < 9; sub++) {
+            int mask = 0;
+            for (int square = 0; square < 9; square++) {
+                if (board.get(UltimateBoard.cell(sub, square)) == player) {
+                    mask |= 1 << square;
+                }
+            }
+            if (hasLine(mask)) {
+                won |= 1 << sub;
+            }
+        }
+        return won;
+    }
+
+    private static boolean hasLine(int mask) {
+        for (int line : Board.WIN_MASKS) {
+            if ((mask & line) == line) return true;
+        }
+        return false;
+    }
+}